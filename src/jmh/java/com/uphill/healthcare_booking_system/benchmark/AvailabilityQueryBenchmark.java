@@ -0,0 +1,69 @@
+package com.uphill.healthcare_booking_system.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.uphill.healthcare_booking_system.repository.DoctorRepository;
+import com.uphill.healthcare_booking_system.repository.RoomRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.entity.Room;
+
+// The two availability queries on their own, without locking, saving or side effects
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+public class AvailabilityQueryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int appointments;
+
+    private BenchmarkDatabase database;
+    private DoctorRepository doctorRepository;
+    private RoomRepository roomRepository;
+    private TransactionTemplate readOnly;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase(appointments);
+        doctorRepository = database.getBean(DoctorRepository.class);
+        roomRepository = database.getBean(RoomRepository.class);
+        readOnly = new TransactionTemplate(database.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        start = database.nextFreeWindowStart();
+        end = database.windowEnd(start);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Doctor> findFirstAvailableDoctor() {
+        return readOnly.execute(status -> doctorRepository.findFirstAvailableBySpecialtyAndWindow(
+                "Cardiology", start, end, PageRequest.of(0, 1)));
+    }
+
+    @Benchmark
+    public List<Room> findFirstAvailableRoom() {
+        return readOnly.execute(status -> roomRepository.findFirstAvailableByWindow(start, end, PageRequest.of(0, 1)));
+    }
+}
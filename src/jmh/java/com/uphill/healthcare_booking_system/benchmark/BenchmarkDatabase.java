@@ -0,0 +1,156 @@
+package com.uphill.healthcare_booking_system.benchmark;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.uphill.healthcare_booking_system.HealthcareBookingSystemApplication;
+import com.uphill.healthcare_booking_system.repository.AppointmentPartitions;
+import com.uphill.healthcare_booking_system.service.AppointmentViewBackfill;
+import com.uphill.healthcare_booking_system.service.availability.DoctorAvailabilityIndex;
+import com.uphill.healthcare_booking_system.service.availability.RoomSlotCalendar;
+
+// Boots the application against a fresh embedded H2 database and seeds it with a given amount of appointment
+// history. Extra properties (e.g. -Dbooking.availability.room-engine=bitmap) are picked up from the system.
+public class BenchmarkDatabase implements AutoCloseable {
+
+    public static final List<String> SPECIALTIES = List.of("Cardiology", "Neurology", "Pediatrics");
+
+    public static final int DOCTORS_PER_SPECIALTY = 20;
+    private static final int ROOMS = 30;
+    private static final int PATIENTS = 1_000;
+    private static final int BATCH_SIZE = 10_000;
+    private static final int SLOT_MINUTES = 30;
+
+    private final ConfigurableApplicationContext context;
+    private final JdbcTemplate jdbcTemplate;
+    private final LocalDateTime futureBase = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+    private final AtomicLong nextFutureSlot = new AtomicLong();
+
+    public BenchmarkDatabase(int appointments) {
+        this(appointments, Map.of());
+    }
+
+    // The given properties override the application defaults, e.g. the allocation policy being compared. They are
+    // passed as "--key=value" command line arguments, which rank above application.properties. The builder's
+    // properties() only sets default properties, the lowest-ranked source, so every key application.properties
+    // also sets (the datasource URL, show-sql, the allocation settings) would silently keep its file value.
+    public BenchmarkDatabase(int appointments, Map<String, Object> properties) {
+        Map<String, Object> overrides = new HashMap<>(Map.of(
+                "spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql", "false",
+                "spring.h2.console.enabled", "false",
+                "logging.level.root", "WARN"));
+        overrides.putAll(properties);
+        this.context = new SpringApplicationBuilder(HealthcareBookingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(overrides.entrySet().stream()
+                        .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                        .toArray(String[]::new));
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        seed(appointments);
+        // The seed rows bypass the booking path, so their appointment_view rows are filled in here
+        context.getBean(AppointmentViewBackfill.class).backfill();
+        // The in-memory availability views were built on startup, before the seed rows existed
+        context.getBeanProvider(DoctorAvailabilityIndex.class).ifAvailable(DoctorAvailabilityIndex::load);
+        context.getBeanProvider(RoomSlotCalendar.class).ifAvailable(RoomSlotCalendar::load);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // Every call hands out a distinct 30 minute window in the future, so bookings never conflict with each other
+    public LocalDateTime nextFreeWindowStart() {
+        return windowStart(nextFutureSlot.getAndIncrement());
+    }
+
+    // The n-th 30 minute window in the future; callers that pick their own slots must not mix with nextFreeWindowStart
+    public LocalDateTime windowStart(long slot) {
+        return futureBase.plusMinutes(slot * SLOT_MINUTES);
+    }
+
+    public LocalDateTime windowEnd(LocalDateTime start) {
+        return start.plusMinutes(SLOT_MINUTES);
+    }
+
+    public String patientEmail(long index) {
+        return "patient" + (index % PATIENTS) + "@bench.local";
+    }
+
+    private void seed(int appointments) {
+        for (String specialty : SPECIALTIES) {
+            batchInsert("INSERT INTO doctor (id, name, specialty) VALUES (NEXT VALUE FOR doctor_seq, ?, ?)", DOCTORS_PER_SPECIALTY, (ps, i) -> {
+                ps.setString(1, "Dr. " + specialty + " " + i);
+                ps.setString(2, specialty);
+            });
+        }
+        batchInsert("INSERT INTO room (id, name, location) VALUES (NEXT VALUE FOR room_seq, ?, ?)", ROOMS, (ps, i) -> {
+            ps.setString(1, "Room " + i);
+            ps.setString(2, "Floor " + (i % 5));
+        });
+        batchInsert("INSERT INTO patient (id, name, email) VALUES (NEXT VALUE FOR patient_seq, ?, ?)", PATIENTS, (ps, i) -> {
+            ps.setString(1, "Patient " + i);
+            ps.setString(2, patientEmail(i));
+        });
+
+        List<Long> doctorIds = jdbcTemplate.queryForList("SELECT id FROM doctor ORDER BY id", Long.class);
+        List<Long> roomIds = jdbcTemplate.queryForList("SELECT id FROM room ORDER BY id", Long.class);
+        List<Long> patientIds = jdbcTemplate.queryForList("SELECT id FROM patient ORDER BY id", Long.class);
+
+        // History goes backwards from now in distinct 30 minute steps, so no doctor or room is ever double booked
+        LocalDateTime historyBase = futureBase.minusDays(1);
+        batchInsert("""
+                INSERT INTO appointment (id, doctor_id, room_id, patient_id, start_time, end_time, status, partition_key)
+                VALUES (NEXT VALUE FOR appointment_seq, ?, ?, ?, ?, ?, 'SCHEDULED', ?)
+                """, appointments, (ps, i) -> {
+            LocalDateTime start = historyBase.minusMinutes((long) (i + 1) * SLOT_MINUTES);
+            ps.setLong(1, doctorIds.get(i % doctorIds.size()));
+            ps.setLong(2, roomIds.get(i % roomIds.size()));
+            ps.setLong(3, patientIds.get(i % patientIds.size()));
+            ps.setTimestamp(4, Timestamp.valueOf(start));
+            ps.setTimestamp(5, Timestamp.valueOf(start.plusMinutes(SLOT_MINUTES)));
+            ps.setInt(6, AppointmentPartitions.keyOf(start));
+        });
+    }
+
+    private void batchInsert(String sql, int rows, RowSetter setter) {
+        for (int from = 0; from < rows; from += BATCH_SIZE) {
+            int offset = from;
+            int size = Math.min(BATCH_SIZE, rows - from);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    setter.set(ps, offset + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    @FunctionalInterface
+    private interface RowSetter {
+        void set(PreparedStatement ps, int index) throws SQLException;
+    }
+}
@@ -0,0 +1,63 @@
+package com.uphill.healthcare_booking_system.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.domain.PatientDomain;
+import com.uphill.healthcare_booking_system.service.AppointmentService;
+
+// End-to-end AppointmentService.bookAppointment against an H2 database holding the given appointment history
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+public class BookingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int appointments;
+
+    private BenchmarkDatabase database;
+    private AppointmentService appointmentService;
+    private final AtomicLong requests = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase(appointments);
+        appointmentService = database.getBean(AppointmentService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public AppointmentDomain bookAppointment() {
+        long request = requests.getAndIncrement();
+        LocalDateTime start = database.nextFreeWindowStart();
+
+        PatientDomain patient = new PatientDomain();
+        patient.setEmail(database.patientEmail(request));
+        patient.setName("Patient " + request);
+
+        AppointmentDomain domain = new AppointmentDomain();
+        domain.setPatient(patient);
+        domain.setSpecialty(BenchmarkDatabase.SPECIALTIES.get((int) (request % BenchmarkDatabase.SPECIALTIES.size())));
+        domain.setStartTime(start);
+        domain.setEndTime(database.windowEnd(start));
+        return appointmentService.bookAppointment(domain);
+    }
+}
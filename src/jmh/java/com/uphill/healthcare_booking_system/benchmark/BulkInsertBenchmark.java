@@ -0,0 +1,98 @@
+package com.uphill.healthcare_booking_system.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.SessionEventListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.uphill.healthcare_booking_system.repository.PatientRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Patient;
+
+// PatientRepository.saveAll of 10k new patients in one transaction. Besides the time, every iteration prints the JDBC
+// round trips the save took (statements executed on their own plus executed batches). allocationSize=1 with
+// jdbcBatchSize=1 is the old behaviour, one id fetch and one insert per row; 50/50 is the default configuration.
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+public class BulkInsertBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"1", "50"})
+    public int allocationSize;
+
+    @Param({"1", "50"})
+    public int jdbcBatchSize;
+
+    private BenchmarkDatabase database;
+    private PatientRepository patientRepository;
+    private final AtomicLong batches = new AtomicLong();
+    private long lastRoundTrips;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase(0, Map.of(
+                "spring.jpa.properties.booking.ids.allocation-size", allocationSize,
+                "spring.jpa.properties.hibernate.jdbc.batch_size", jdbcBatchSize,
+                "spring.jpa.properties.hibernate.session.events.auto", RoundTripCounter.class.getName()));
+        patientRepository = database.getBean(PatientRepository.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        System.out.printf("%nallocationSize=%d, jdbcBatchSize=%d: %d round trips per %d inserts%n",
+                allocationSize, jdbcBatchSize, lastRoundTrips, ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public long saveAll() {
+        // Patient emails are unique, so every call saves a fresh set
+        long batch = batches.getAndIncrement();
+        List<Patient> patients = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Patient patient = new Patient();
+            patient.setName("Bulk " + i);
+            patient.setEmail("bulk" + batch + "-" + i + "@bench.local");
+            patients.add(patient);
+        }
+        long before = RoundTripCounter.ROUND_TRIPS.get();
+        patientRepository.saveAll(patients);
+        lastRoundTrips = RoundTripCounter.ROUND_TRIPS.get() - before;
+        return lastRoundTrips;
+    }
+
+    // Registered on every Hibernate session through hibernate.session.events.auto
+    public static class RoundTripCounter implements SessionEventListener {
+
+        static final AtomicLong ROUND_TRIPS = new AtomicLong();
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            ROUND_TRIPS.incrementAndGet();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            ROUND_TRIPS.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.uphill.healthcare_booking_system.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.domain.PatientDomain;
+import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableDoctorException;
+import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableRoomException;
+import com.uphill.healthcare_booking_system.service.AppointmentService;
+import com.uphill.healthcare_booking_system.service.allocation.ResourceLockManager;
+
+// Concurrent bookings for the same specialty and window, compared across selection policies. Half as many
+// requests as there are doctors target each window, so every request could be served; with "first" they all
+// queue on the same doctor/room row and losers must re-query or give up. The booked/conflicts counters show
+// how many of the attempts actually became appointments; booking.lock.wait shows where the time went.
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+public class ContentionBenchmark {
+
+    private static final String SPECIALTY = BenchmarkDatabase.SPECIALTIES.get(0);
+    private static final int REQUESTS_PER_WINDOW = BenchmarkDatabase.DOCTORS_PER_SPECIALTY / 2;
+
+    @Param({"first", "random", "patient-hash", "least-loaded"})
+    public String policy;
+
+    @Param({"pessimistic"})
+    public String lockMode;
+
+    @Param({"true"})
+    public boolean localLocks;
+
+    @Param({"10000"})
+    public int appointments;
+
+    @Param({"16"})
+    public int candidates;
+
+    private BenchmarkDatabase database;
+    private AppointmentService appointmentService;
+    private ResourceLockManager resourceLockManager;
+    private final AtomicLong requests = new AtomicLong();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long booked;
+        public long conflicts;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase(appointments, Map.of(
+                "booking.allocation.selection-policy", policy,
+                "booking.allocation.lock-mode", lockMode,
+                "booking.allocation.local-locks.enabled", localLocks,
+                "booking.allocation.selection-candidates", candidates));
+        appointmentService = database.getBean(AppointmentService.class);
+        resourceLockManager = database.getBean(ResourceLockManager.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public AppointmentDomain bookContendedWindow(Outcomes outcomes) {
+        long request = requests.getAndIncrement();
+        LocalDateTime start = database.windowStart(request / REQUESTS_PER_WINDOW);
+
+        PatientDomain patient = new PatientDomain();
+        patient.setEmail(database.patientEmail(request));
+        patient.setName("Patient " + request);
+
+        AppointmentDomain domain = new AppointmentDomain();
+        domain.setPatient(patient);
+        domain.setSpecialty(SPECIALTY);
+        domain.setStartTime(start);
+        domain.setEndTime(database.windowEnd(start));
+        try {
+            // Same entry point as POST /v1/appointments: queue in memory first, then open the transaction
+            AppointmentDomain booked = resourceLockManager.callForBooking(SPECIALTY, domain.getStartTime(),
+                    domain.getEndTime(), () -> appointmentService.bookAppointment(domain));
+            outcomes.booked++;
+            return booked;
+        } catch (NoAvailableDoctorException | NoAvailableRoomException | PessimisticLockingFailureException e) {
+            outcomes.conflicts++;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.uphill.healthcare_booking_system.controller;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.uphill.healthcare_booking_system.controller.input.AppointmentInput;
+import com.uphill.healthcare_booking_system.controller.output.AppointmentOutput;
+import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.domain.DoctorDomain;
+import com.uphill.healthcare_booking_system.domain.PatientDomain;
+import com.uphill.healthcare_booking_system.domain.RoomDomain;
+import com.uphill.healthcare_booking_system.enums.AppointmentStatus;
+
+// Input -> domain and domain -> output mapping done by AppointmentController on every request
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+public class ControllerMappingBenchmark {
+
+    private final AppointmentController controller = new AppointmentController();
+    private AppointmentInput input;
+    private AppointmentDomain domain;
+
+    @Setup
+    public void setUp() {
+        input = new AppointmentInput();
+        input.setPatientEmail("john.doe@example.com");
+        input.setPatientName("John Doe");
+        input.setSpecialty("Cardiology");
+        input.setStartDate(1893484800L);
+        input.setEndDate(1893488400L);
+
+        DoctorDomain doctor = new DoctorDomain();
+        doctor.setId(1L);
+        RoomDomain room = new RoomDomain();
+        room.setId(2L);
+        PatientDomain patient = new PatientDomain();
+        patient.setId(3L);
+
+        domain = new AppointmentDomain();
+        domain.setId(4L);
+        domain.setDoctor(doctor);
+        domain.setRoom(room);
+        domain.setPatient(patient);
+        domain.setStatus(AppointmentStatus.SCHEDULED);
+        domain.setStartTime(LocalDateTime.of(2030, 1, 1, 9, 0));
+        domain.setEndTime(LocalDateTime.of(2030, 1, 1, 10, 0));
+    }
+
+    @Benchmark
+    public AppointmentDomain convertToDomain() {
+        return controller.convertToDomain(input);
+    }
+
+    @Benchmark
+    public AppointmentOutput convertToOutput() {
+        return controller.convertToOutput(domain);
+    }
+}
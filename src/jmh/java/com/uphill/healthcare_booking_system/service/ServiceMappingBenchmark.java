@@ -0,0 +1,64 @@
+package com.uphill.healthcare_booking_system.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.enums.AppointmentStatus;
+import com.uphill.healthcare_booking_system.repository.entity.Appointment;
+import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.entity.Patient;
+import com.uphill.healthcare_booking_system.repository.entity.Room;
+
+// Entity -> domain mapping done by AppointmentService for every booked or listed appointment
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+public class ServiceMappingBenchmark {
+
+    private AppointmentService appointmentService;
+    private Appointment appointment;
+
+    @Setup
+    public void setUp() {
+        appointmentService = new AppointmentService(null, null, null, null, null, null, null, null, null, null, null);
+
+        Doctor doctor = new Doctor();
+        doctor.setId(1L);
+        doctor.setName("Dr. Strange");
+        doctor.setSpecialty("Cardiology");
+
+        Room room = new Room();
+        room.setId(2L);
+        room.setName("Room A");
+        room.setLocation("First Floor");
+
+        Patient patient = new Patient();
+        patient.setId(3L);
+        patient.setName("John Doe");
+        patient.setEmail("john.doe@example.com");
+
+        appointment = new Appointment();
+        appointment.setId(4L);
+        appointment.setDoctor(doctor);
+        appointment.setRoom(room);
+        appointment.setPatient(patient);
+        appointment.setStatus(AppointmentStatus.SCHEDULED);
+        appointment.setStartTime(LocalDateTime.of(2030, 1, 1, 9, 0));
+        appointment.setEndTime(LocalDateTime.of(2030, 1, 1, 10, 0));
+    }
+
+    @Benchmark
+    public AppointmentDomain convertToDomain() {
+        return appointmentService.convertToDomain(appointment);
+    }
+}
@@ -0,0 +1,188 @@
+package com.uphill.healthcare_booking_system.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.uphill.healthcare_booking_system.HealthcareBookingSystemApplication;
+import com.uphill.healthcare_booking_system.loadtest.LoadTestReport.Outcome;
+import com.uphill.healthcare_booking_system.service.availability.DoctorAvailabilityIndex;
+import com.uphill.healthcare_booking_system.service.availability.RoomSlotCalendar;
+
+// Boots the application on a random port against a fresh embedded H2 database, seeds the configured doctors and
+// rooms, and books appointments over HTTP from concurrent clients. Specialties and windows are drawn with a Zipf
+// skew so hot spots can be simulated. Warmup requests go to a separate, far away range of windows.
+public class LoadTest {
+
+    private static final int PATIENTS = 1_000;
+
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ZipfSampler specialtySampler;
+    private final ZipfSampler windowSampler;
+    private final LocalDateTime measuredBase = LocalDateTime.now().plusDays(1).toLocalDate().atStartOfDay();
+    private final LocalDateTime warmupBase = measuredBase.plusYears(1);
+    private URI appointmentsUri;
+
+    LoadTest(LoadTestConfig config) {
+        this.config = config;
+        this.specialtySampler = new ZipfSampler(config.specialties, config.specialtySkew);
+        this.windowSampler = new ZipfSampler(config.windows, config.windowSkew);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        try (ConfigurableApplicationContext context = start(config)) {
+            new LoadTest(config).run(context);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(LoadTestConfig config) {
+        Map<String, String> properties = new LinkedHashMap<>(Map.of(
+                "server.port", "0",
+                "spring.datasource.url", "jdbc:h2:mem:load-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql", "false",
+                "spring.h2.console.enabled", "false",
+                "logging.level.root", "WARN"));
+        properties.putAll(config.applicationProperties);
+        return new SpringApplicationBuilder(HealthcareBookingSystemApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(properties.entrySet().stream()
+                        .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                        .toArray(String[]::new));
+    }
+
+    private void run(ConfigurableApplicationContext context) throws Exception {
+        seed(context);
+        appointmentsUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + "/v1/appointments");
+
+        execute(config.warmupRequests, warmupBase, null);
+        LoadTestReport report = new LoadTestReport(config.requests);
+        long startNanos = System.nanoTime();
+        execute(config.requests, measuredBase, report);
+        Map<String, Object> summary = report.summarize(config, System.nanoTime() - startNanos);
+
+        File output = new File(config.output);
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        ObjectMapper writer = objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+        writer.writeValue(output, summary);
+        System.out.println(writer.writeValueAsString(summary));
+        System.out.println("Load test report written to " + output.getAbsolutePath());
+    }
+
+    // Replaces the demo doctors/rooms with the configured ones and rebuilds the in-memory availability views
+    private void seed(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("DELETE FROM doctor");
+        jdbcTemplate.update("DELETE FROM room");
+
+        List<Object[]> doctors = new ArrayList<>();
+        for (int s = 0; s < config.specialties; s++) {
+            for (int d = 0; d < config.doctorsPerSpecialty; d++) {
+                doctors.add(new Object[] {"Dr. " + s + "-" + d, config.specialty(s)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO doctor (id, name, specialty) VALUES (NEXT VALUE FOR doctor_seq, ?, ?)", doctors);
+
+        List<Object[]> rooms = new ArrayList<>();
+        for (int r = 0; r < config.rooms; r++) {
+            rooms.add(new Object[] {"Room " + r, "Floor " + (r % 5)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO room (id, name, location) VALUES (NEXT VALUE FOR room_seq, ?, ?)", rooms);
+
+        context.getBeanProvider(DoctorAvailabilityIndex.class).ifAvailable(DoctorAvailabilityIndex::load);
+        context.getBeanProvider(RoomSlotCalendar.class).ifAvailable(RoomSlotCalendar::load);
+    }
+
+    private void execute(int requests, LocalDateTime base, LoadTestReport report) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(config.threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < config.threads; t++) {
+                workers.add(clients.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        book(i, base, report);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private void book(int request, LocalDateTime base, LoadTestReport report) throws IOException, InterruptedException {
+        LocalDateTime start = base.plusMinutes((long) windowSampler.next() * config.windowMinutes);
+        Map<String, Object> body = Map.of(
+                "patient_email", "patient" + (request % PATIENTS) + "@load.test",
+                "patient_name", "Patient " + (request % PATIENTS),
+                "start_date", epochSeconds(start),
+                "end_date", epochSeconds(start.plusMinutes(config.windowMinutes)),
+                "specialty", config.specialty(specialtySampler.next()));
+        HttpRequest httpRequest = HttpRequest.newBuilder(appointmentsUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+
+        long startNanos = System.nanoTime();
+        HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        long latency = System.nanoTime() - startNanos;
+        if (report != null) {
+            report.record(response.statusCode(), classify(response), latency);
+        }
+    }
+
+    private static Outcome classify(HttpResponse<String> response) {
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            return Outcome.BOOKED;
+        }
+        // Deadlock victims surface as CannotAcquireLockException (or a "Deadlock" database message)
+        String body = response.body();
+        if (body.contains("CannotAcquireLockException") || body.contains("DeadlockLoser") || body.contains("Deadlock")) {
+            return Outcome.DEADLOCK;
+        }
+        if (status == 409) {
+            return Outcome.CONFLICT;
+        }
+        if (status == 503) {
+            return Outcome.LOCKED;
+        }
+        return Outcome.OTHER_ERROR;
+    }
+
+    private static long epochSeconds(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
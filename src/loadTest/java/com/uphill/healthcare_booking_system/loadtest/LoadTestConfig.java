@@ -0,0 +1,87 @@
+package com.uphill.healthcare_booking_system.loadtest;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Options of a load test run, given as --key=value arguments. Skews are Zipf exponents: 0 spreads requests evenly,
+// larger values concentrate them on the first specialties/windows (1.0 is a classic hot-spot distribution).
+public class LoadTestConfig {
+
+    final int threads;
+    final int requests;
+    final int warmupRequests;
+    final int specialties;
+    final int doctorsPerSpecialty;
+    final int rooms;
+    final int windows;
+    final int windowMinutes;
+    final double specialtySkew;
+    final double windowSkew;
+    final Map<String, String> applicationProperties;
+    final String output;
+
+    LoadTestConfig(Map<String, String> options) {
+        Map<String, String> remaining = new HashMap<>(options);
+        this.threads = intOption(remaining, "threads", 16);
+        this.requests = intOption(remaining, "requests", 2_000);
+        this.warmupRequests = intOption(remaining, "warmup-requests", 200);
+        this.specialties = intOption(remaining, "specialties", 3);
+        this.doctorsPerSpecialty = intOption(remaining, "doctors-per-specialty", 10);
+        this.rooms = intOption(remaining, "rooms", 20);
+        this.windows = intOption(remaining, "windows", 200);
+        this.windowMinutes = intOption(remaining, "window-minutes", 30);
+        this.specialtySkew = doubleOption(remaining, "specialty-skew", 0);
+        this.windowSkew = doubleOption(remaining, "window-skew", 0);
+        this.output = stringOption(remaining, "output", "build/reports/load-test/results.json");
+        // Anything else is an application property, e.g. --booking.allocation.lock-mode=skip-locked
+        this.applicationProperties = new LinkedHashMap<>(remaining);
+    }
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestConfig(options);
+    }
+
+    String specialty(int index) {
+        return "Specialty " + index;
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("threads", threads);
+        description.put("requests", requests);
+        description.put("warmupRequests", warmupRequests);
+        description.put("specialties", specialties);
+        description.put("doctorsPerSpecialty", doctorsPerSpecialty);
+        description.put("rooms", rooms);
+        description.put("windows", windows);
+        description.put("windowMinutes", windowMinutes);
+        description.put("specialtySkew", specialtySkew);
+        description.put("windowSkew", windowSkew);
+        description.put("applicationProperties", applicationProperties);
+        return description;
+    }
+
+    private static int intOption(Map<String, String> options, String key, int defaultValue) {
+        String value = options.remove(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static double doubleOption(Map<String, String> options, String key, double defaultValue) {
+        String value = options.remove(key);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static String stringOption(Map<String, String> options, String key, String defaultValue) {
+        String value = options.remove(key);
+        return value == null ? defaultValue : value;
+    }
+}
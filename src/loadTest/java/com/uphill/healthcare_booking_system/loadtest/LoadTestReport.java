@@ -0,0 +1,86 @@
+package com.uphill.healthcare_booking_system.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Collects the outcome and latency of every measured request and turns them into the JSON report
+class LoadTestReport {
+
+    enum Outcome { BOOKED, CONFLICT, LOCKED, DEADLOCK, OTHER_ERROR }
+
+    private final long[] latenciesNanos;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final Map<Outcome, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    LoadTestReport(int requests) {
+        this.latenciesNanos = new long[requests];
+    }
+
+    void record(int status, Outcome outcome, long latencyNanos) {
+        latenciesNanos[recorded.getAndIncrement()] = latencyNanos;
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    Map<String, Object> summarize(LoadTestConfig config, long elapsedNanos) {
+        int total = recorded.get();
+        long[] sorted = Arrays.copyOf(latenciesNanos, total);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", millis(percentile(sorted, 0.50)));
+        latency.put("p90", millis(percentile(sorted, 0.90)));
+        latency.put("p95", millis(percentile(sorted, 0.95)));
+        latency.put("p99", millis(percentile(sorted, 0.99)));
+        latency.put("max", millis(total == 0 ? 0 : sorted[total - 1]));
+
+        Map<String, Object> rates = new LinkedHashMap<>();
+        rates.put("booked", rate(Outcome.BOOKED, total));
+        rates.put("conflict409", rate(Outcome.CONFLICT, total));
+        rates.put("locked503", rate(Outcome.LOCKED, total));
+        rates.put("deadlock", rate(Outcome.DEADLOCK, total));
+        rates.put("otherError", rate(Outcome.OTHER_ERROR, total));
+
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        statuses.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> statusCounts.put(String.valueOf(entry.getKey()), entry.getValue().sum()));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("config", config.describe());
+        summary.put("requests", total);
+        summary.put("elapsedSeconds", seconds);
+        summary.put("throughputPerSecond", total / seconds);
+        summary.put("bookedPerSecond", count(Outcome.BOOKED) / seconds);
+        summary.put("latencyMillis", latency);
+        summary.put("rates", rates);
+        summary.put("statusCounts", statusCounts);
+        return summary;
+    }
+
+    private long count(Outcome outcome) {
+        LongAdder adder = outcomes.get(outcome);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private double rate(Outcome outcome, int total) {
+        return total == 0 ? 0 : (double) count(outcome) / total;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
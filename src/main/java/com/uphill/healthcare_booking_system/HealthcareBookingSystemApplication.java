@@ -7,6 +7,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.uphill.healthcare_booking_system.repository.DoctorRepository;
 import com.uphill.healthcare_booking_system.repository.RoomRepository;
@@ -15,6 +16,7 @@ import com.uphill.healthcare_booking_system.repository.entity.Room;
 
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class HealthcareBookingSystemApplication {
 
 	public static void main(String[] args) {
@@ -1,25 +1,54 @@
 package com.uphill.healthcare_booking_system.controller;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import com.uphill.healthcare_booking_system.controller.input.AppointmentInput;
+import com.uphill.healthcare_booking_system.controller.input.BatchAppointmentInput;
+import com.uphill.healthcare_booking_system.controller.output.AppointmentCursorPageOutput;
 import com.uphill.healthcare_booking_system.controller.output.AppointmentOutput;
+import com.uphill.healthcare_booking_system.controller.output.BatchAppointmentOutput;
+import com.uphill.healthcare_booking_system.domain.AppointmentCursor;
+import com.uphill.healthcare_booking_system.domain.AppointmentCursorPage;
 import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.domain.AppointmentSummary;
+import com.uphill.healthcare_booking_system.domain.BatchBookingResult;
 import com.uphill.healthcare_booking_system.domain.PatientDomain;
+import com.uphill.healthcare_booking_system.enums.ExportFormat;
+import com.uphill.healthcare_booking_system.service.AppointmentExportService;
 import com.uphill.healthcare_booking_system.service.AppointmentService;
+import com.uphill.healthcare_booking_system.service.BatchAppointmentService;
+import com.uphill.healthcare_booking_system.service.IdempotentBookingService;
+import com.uphill.healthcare_booking_system.service.allocation.ClaimBackoff;
+import com.uphill.healthcare_booking_system.service.allocation.ResourceLockManager;
 
 import jakarta.validation.Valid;
 
@@ -27,27 +56,111 @@ import jakarta.validation.Valid;
 @RequestMapping("/v1/appointments")
 public class AppointmentController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final String CSV_HEADER = "appointment_id,start_time,end_time,doctor_id,room_id,patient_id,status\n";
+
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private BatchAppointmentService batchAppointmentService;
+
+    @Autowired
+    private AppointmentExportService appointmentExportService;
+
+    @Autowired
+    private IdempotentBookingService idempotentBookingService;
+
+    @Autowired
+    private ResourceLockManager resourceLockManager;
+
+    @Autowired
+    private ClaimBackoff claimBackoff;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // With an Idempotency-Key, a retry of a booking that already went through gets the same appointment back
     @PostMapping
-    public AppointmentOutput bookAppointment(@Valid @RequestBody AppointmentInput appointmentInput) {
+    public AppointmentOutput bookAppointment(@Valid @RequestBody AppointmentInput appointmentInput,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         AppointmentDomain appointmentDomain = convertToDomain(appointmentInput);
 
-        AppointmentDomain savedDomain = appointmentService.bookAppointment(appointmentDomain);
+        AppointmentDomain savedDomain = idempotencyKey == null
+                ? claimBackoff.retryOnConflict(() -> resourceLockManager.callForBooking(appointmentDomain.getSpecialty(),
+                        appointmentDomain.getStartTime(), appointmentDomain.getEndTime(),
+                        () -> appointmentService.bookAppointment(appointmentDomain)))
+                : idempotentBookingService.bookAppointment(idempotencyKey, appointmentDomain);
 
         return convertToOutput(savedDomain);
     }
 
+    @PostMapping("/batch")
+    public List<BatchAppointmentOutput> bookAppointments(@Valid @RequestBody BatchAppointmentInput batchInput) {
+        List<AppointmentDomain> appointmentDomains = batchInput.getAppointments().stream()
+                .map(this::convertToDomain)
+                .toList();
+
+        return batchAppointmentService.bookAppointments(appointmentDomains).stream()
+                .map(this::convertToOutput)
+                .toList();
+    }
+
     @GetMapping
     public ResponseEntity<Page<AppointmentOutput>> getAllAppointments(
             @PageableDefault(size = 10, sort = "startTime") Pageable pageable) {
 
-        Page<AppointmentDomain> page = appointmentService.getAllAppointments(pageable);
+        Page<AppointmentSummary> page = appointmentService.getAllAppointments(pageable);
         return ResponseEntity.ok(page.map(this::convertToOutput));
     }
 
-    private AppointmentDomain convertToDomain(AppointmentInput appointmentInput) {
+    // Keyset mode: pass an empty cursor for the first page, then the nextCursor of each response until it is null
+    @GetMapping(params = "cursor")
+    public ResponseEntity<AppointmentCursorPageOutput> getAppointmentsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        AppointmentCursor position = cursor.isBlank() ? null : AppointmentCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        AppointmentCursorPage page = appointmentService.getAppointmentsAfter(position, pageSize);
+
+        AppointmentCursorPageOutput output = new AppointmentCursorPageOutput();
+        output.setContent(page.getAppointments().stream().map(this::convertToOutput).toList());
+        output.setNextCursor(page.getNextCursor() == null ? null : page.getNextCursor().encode());
+        return ResponseEntity.ok(output);
+    }
+
+    // Streams every appointment straight into the response: one JSON object per line, or CSV with a header row
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam(defaultValue = "ndjson") String format) {
+
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        MediaType mediaType = exportFormat == ExportFormat.CSV ? TEXT_CSV : APPLICATION_NDJSON;
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (exportFormat == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                appointmentExportService.exportAppointments(appointment -> writeLine(writer, toCsv(appointment)));
+            } else {
+                ObjectWriter json = objectMapper.writerFor(AppointmentOutput.class);
+                appointmentExportService.exportAppointments(
+                        appointment -> writeLine(writer, toJson(json, convertToOutput(appointment))));
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"appointments."
+                        + exportFormat.name().toLowerCase() + "\"")
+                .body(body);
+    }
+
+    // This and convertToOutput are package-private so the jmh mapping benchmark can call them directly
+    AppointmentDomain convertToDomain(AppointmentInput appointmentInput) {
         long instantStart = Instant.ofEpochSecond(appointmentInput.getStartDate()).toEpochMilli();
         long instantEnd = Instant.ofEpochSecond(appointmentInput.getEndDate()).toEpochMilli();
 
@@ -67,14 +180,66 @@ public class AppointmentController {
         return appointmentDomain;
     }
 
-    private AppointmentOutput convertToOutput(AppointmentDomain appointmentDomain) {
+    AppointmentOutput convertToOutput(AppointmentDomain appointmentDomain) {
         AppointmentOutput appointmentOutput = new AppointmentOutput();
         appointmentOutput.setAppointmentId(appointmentDomain.getId());
         appointmentOutput.setStartTime(appointmentDomain.getStartTime());
         appointmentOutput.setEndTime(appointmentDomain.getEndTime());
         appointmentOutput.setDoctorId(appointmentDomain.getDoctor().getId());
+        appointmentOutput.setDoctorName(appointmentDomain.getDoctor().getName());
         appointmentOutput.setRoomId(appointmentDomain.getRoom().getId());
+        appointmentOutput.setRoomName(appointmentDomain.getRoom().getName());
+        appointmentOutput.setRoomLocation(appointmentDomain.getRoom().getLocation());
+        appointmentOutput.setPatientEmail(appointmentDomain.getPatient().getEmail());
         appointmentOutput.setStatus(appointmentDomain.getStatus());
         return appointmentOutput;
     }
+
+    AppointmentOutput convertToOutput(AppointmentSummary summary) {
+        AppointmentOutput appointmentOutput = new AppointmentOutput();
+        appointmentOutput.setAppointmentId(summary.getId());
+        appointmentOutput.setStartTime(summary.getStartTime());
+        appointmentOutput.setEndTime(summary.getEndTime());
+        appointmentOutput.setDoctorId(summary.getDoctorId());
+        appointmentOutput.setDoctorName(summary.getDoctorName());
+        appointmentOutput.setRoomId(summary.getRoomId());
+        appointmentOutput.setRoomName(summary.getRoomName());
+        appointmentOutput.setRoomLocation(summary.getRoomLocation());
+        appointmentOutput.setPatientEmail(summary.getPatientEmail());
+        appointmentOutput.setStatus(summary.getStatus());
+        return appointmentOutput;
+    }
+
+    private static String toCsv(AppointmentSummary summary) {
+        return summary.getId() + "," + summary.getStartTime() + "," + summary.getEndTime() + ","
+                + summary.getDoctorId() + "," + summary.getRoomId() + "," + summary.getPatientId() + ","
+                + (summary.getStatus() == null ? "" : summary.getStatus().name()) + "\n";
+    }
+
+    private static String toJson(ObjectWriter json, AppointmentOutput output) {
+        try {
+            return json.writeValueAsString(output) + "\n";
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeLine(Writer writer, String line) {
+        try {
+            writer.write(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BatchAppointmentOutput convertToOutput(BatchBookingResult result) {
+        BatchAppointmentOutput output = new BatchAppointmentOutput();
+        output.setIndex(result.getIndex());
+        output.setStatus(result.getStatus());
+        output.setMessage(result.getMessage());
+        if (result.getAppointment() != null) {
+            output.setAppointment(convertToOutput(result.getAppointment()));
+        }
+        return output;
+    }
 }
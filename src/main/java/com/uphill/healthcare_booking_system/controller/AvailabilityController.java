@@ -0,0 +1,56 @@
+package com.uphill.healthcare_booking_system.controller;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.uphill.healthcare_booking_system.controller.output.FreeSlotOutput;
+import com.uphill.healthcare_booking_system.domain.FreeSlot;
+import com.uphill.healthcare_booking_system.service.AvailabilityService;
+
+@RestController
+@RequestMapping("/v1/availability")
+public class AvailabilityController {
+
+    private static final int MAX_SLOTS = 500;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    // from/to are epoch seconds like the booking input, duration is in minutes
+    @GetMapping
+    public List<FreeSlotOutput> getFreeSlots(
+            @RequestParam String specialty,
+            @RequestParam long from,
+            @RequestParam long to,
+            @RequestParam long duration,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        int maxSlots = Math.max(1, Math.min(limit, MAX_SLOTS));
+        return availabilityService.findFreeSlots(specialty, toLocalDateTime(from), toLocalDateTime(to),
+                        Duration.ofMinutes(duration), maxSlots).stream()
+                .map(this::convertToOutput)
+                .toList();
+    }
+
+    private LocalDateTime toLocalDateTime(long epochSeconds) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds), ZoneId.systemDefault());
+    }
+
+    private FreeSlotOutput convertToOutput(FreeSlot slot) {
+        FreeSlotOutput output = new FreeSlotOutput();
+        output.setStartTime(slot.getStartTime());
+        output.setEndTime(slot.getEndTime());
+        output.setDoctorId(slot.getDoctorId());
+        output.setRoomId(slot.getRoomId());
+        return output;
+    }
+}
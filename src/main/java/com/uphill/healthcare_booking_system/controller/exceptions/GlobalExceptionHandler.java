@@ -11,14 +11,27 @@ import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import com.uphill.healthcare_booking_system.domain.exceptions.AvailabilityDisabledException;
+import com.uphill.healthcare_booking_system.domain.exceptions.AvailabilityNotReadyException;
+import com.uphill.healthcare_booking_system.domain.exceptions.IdempotencyKeyReuseException;
 import com.uphill.healthcare_booking_system.domain.exceptions.InvalidAppointmentWindowException;
+import com.uphill.healthcare_booking_system.domain.exceptions.InvalidCursorException;
+import com.uphill.healthcare_booking_system.domain.exceptions.InvalidExportFormatException;
+import com.uphill.healthcare_booking_system.domain.exceptions.InvalidIdempotencyKeyException;
 import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableDoctorException;
 import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableRoomException;
+import com.uphill.healthcare_booking_system.monitoring.BookingMetrics;
 
 // This was an advice from ChatGPT, that will be used to handle exceptions in a global way
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final BookingMetrics bookingMetrics;
+
+    public GlobalExceptionHandler(BookingMetrics bookingMetrics) {
+        this.bookingMetrics = bookingMetrics;
+    }
+
     private ResponseEntity<Object> buildError(HttpStatus status, String message, Exception ex) {
         return ResponseEntity
                 .status(status)
@@ -36,28 +49,63 @@ public class GlobalExceptionHandler {
         return buildError(HttpStatus.BAD_REQUEST, "Invalid appointment time window", ex);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Object> handleInvalidCursor(InvalidCursorException ex) {
+        return buildError(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+    }
+
+    @ExceptionHandler(InvalidExportFormatException.class)
+    public ResponseEntity<Object> handleInvalidExportFormat(InvalidExportFormatException ex) {
+        return buildError(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+    }
+
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<Object> handleInvalidIdempotencyKey(InvalidIdempotencyKeyException ex) {
+        return buildError(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<Object> handleIdempotencyKeyReuse(IdempotencyKeyReuseException ex) {
+        return buildError(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage(), ex);
+    }
+
     @ExceptionHandler(NoAvailableDoctorException.class)
     public ResponseEntity<Object> handleNoDoctor(NoAvailableDoctorException ex) {
+        bookingMetrics.recordConflict(ex);
         return buildError(HttpStatus.CONFLICT, ex.getMessage(), ex);
     }
 
     @ExceptionHandler(NoAvailableRoomException.class)
     public ResponseEntity<Object> handleNoRoom(NoAvailableRoomException ex) {
+        bookingMetrics.recordConflict(ex);
         return buildError(HttpStatus.CONFLICT, ex.getMessage(), ex);
     }
 
+    @ExceptionHandler(AvailabilityNotReadyException.class)
+    public ResponseEntity<Object> handleAvailabilityNotReady(AvailabilityNotReadyException ex) {
+        return buildError(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), ex);
+    }
+
+    @ExceptionHandler(AvailabilityDisabledException.class)
+    public ResponseEntity<Object> handleAvailabilityDisabled(AvailabilityDisabledException ex) {
+        return buildError(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), ex);
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<Object> handleIntegrityViolation(DataIntegrityViolationException ex) {
+        bookingMetrics.recordConflict(ex);
         return buildError(HttpStatus.CONFLICT, "Data integrity violation", ex);
     }
 
     @ExceptionHandler(PessimisticLockingFailureException.class)
     public ResponseEntity<Object> handlePessimisticLock(PessimisticLockingFailureException ex) {
+        bookingMetrics.recordConflict(ex);
         return buildError(HttpStatus.SERVICE_UNAVAILABLE, "Resource is locked, try again later", ex);
     }
 
     @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
     public ResponseEntity<Object> handleOptimisticLock(ObjectOptimisticLockingFailureException ex) {
+        bookingMetrics.recordConflict(ex);
         return buildError(HttpStatus.CONFLICT, "Concurrent modification detected", ex);
     }
 
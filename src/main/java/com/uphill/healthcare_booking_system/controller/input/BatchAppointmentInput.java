@@ -0,0 +1,24 @@
+package com.uphill.healthcare_booking_system.controller.input;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BatchAppointmentInput {
+    @NotEmpty(message = "At least one appointment is required")
+    @Size(max = 1000, message = "A batch accepts at most 1000 appointments")
+    @JsonProperty("appointments")
+    private List<@Valid AppointmentInput> appointments;
+
+    public List<AppointmentInput> getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(List<AppointmentInput> appointments) {
+        this.appointments = appointments;
+    }
+}
@@ -0,0 +1,21 @@
+package com.uphill.healthcare_booking_system.controller.output;
+
+import java.util.List;
+
+public class AppointmentCursorPageOutput {
+    private List<AppointmentOutput> content;
+    private String nextCursor;
+
+    public List<AppointmentOutput> getContent() {
+        return content;
+    }
+    public void setContent(List<AppointmentOutput> content) {
+        this.content = content;
+    }
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -9,7 +9,11 @@ public class AppointmentOutput {
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private Long doctorId;
+    private String doctorName;
     private Long roomId;
+    private String roomName;
+    private String roomLocation;
+    private String patientEmail;
     private AppointmentStatus status;
 
     public Long getAppointmentId() {
@@ -36,12 +40,36 @@ public class AppointmentOutput {
     public void setDoctorId(Long doctorId) {
         this.doctorId = doctorId;
     }
+    public String getDoctorName() {
+        return doctorName;
+    }
+    public void setDoctorName(String doctorName) {
+        this.doctorName = doctorName;
+    }
     public Long getRoomId() {
         return roomId;
     }
     public void setRoomId(Long roomId) {
         this.roomId = roomId;
     }
+    public String getRoomName() {
+        return roomName;
+    }
+    public void setRoomName(String roomName) {
+        this.roomName = roomName;
+    }
+    public String getRoomLocation() {
+        return roomLocation;
+    }
+    public void setRoomLocation(String roomLocation) {
+        this.roomLocation = roomLocation;
+    }
+    public String getPatientEmail() {
+        return patientEmail;
+    }
+    public void setPatientEmail(String patientEmail) {
+        this.patientEmail = patientEmail;
+    }
     public AppointmentStatus getStatus() {
         return status;
     }
@@ -0,0 +1,35 @@
+package com.uphill.healthcare_booking_system.controller.output;
+
+import com.uphill.healthcare_booking_system.enums.BatchItemStatus;
+
+public class BatchAppointmentOutput {
+    private int index;
+    private BatchItemStatus status;
+    private AppointmentOutput appointment;
+    private String message;
+
+    public int getIndex() {
+        return index;
+    }
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    public BatchItemStatus getStatus() {
+        return status;
+    }
+    public void setStatus(BatchItemStatus status) {
+        this.status = status;
+    }
+    public AppointmentOutput getAppointment() {
+        return appointment;
+    }
+    public void setAppointment(AppointmentOutput appointment) {
+        this.appointment = appointment;
+    }
+    public String getMessage() {
+        return message;
+    }
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,35 @@
+package com.uphill.healthcare_booking_system.controller.output;
+
+import java.time.LocalDateTime;
+
+public class FreeSlotOutput {
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Long doctorId;
+    private Long roomId;
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+    public Long getDoctorId() {
+        return doctorId;
+    }
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+    public Long getRoomId() {
+        return roomId;
+    }
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+}
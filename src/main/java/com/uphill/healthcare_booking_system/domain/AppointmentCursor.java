@@ -0,0 +1,51 @@
+package com.uphill.healthcare_booking_system.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.uphill.healthcare_booking_system.domain.exceptions.InvalidCursorException;
+
+// Position of the last appointment a client has seen, in (startTime, id) order. Clients get it as an opaque
+// token and hand it back untouched to continue after that appointment.
+public class AppointmentCursor {
+    private final LocalDateTime startTime;
+    private final Long id;
+
+    public AppointmentCursor(LocalDateTime startTime, Long id) {
+        this.startTime = startTime;
+        this.id = id;
+    }
+
+    public static AppointmentCursor after(AppointmentSummary appointment) {
+        return new AppointmentCursor(appointment.getStartTime(), appointment.getId());
+    }
+
+    public static AppointmentCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            if (separator < 0) {
+                throw new InvalidCursorException();
+            }
+            return new AppointmentCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.valueOf(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((startTime + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
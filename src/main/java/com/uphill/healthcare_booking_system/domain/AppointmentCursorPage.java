@@ -0,0 +1,30 @@
+package com.uphill.healthcare_booking_system.domain;
+
+import java.util.List;
+
+public class AppointmentCursorPage {
+    private List<AppointmentSummary> appointments;
+    // Null when this is the last page
+    private AppointmentCursor nextCursor;
+
+    public AppointmentCursorPage(List<AppointmentSummary> appointments, AppointmentCursor nextCursor) {
+        this.appointments = appointments;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<AppointmentSummary> getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(List<AppointmentSummary> appointments) {
+        this.appointments = appointments;
+    }
+
+    public AppointmentCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(AppointmentCursor nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,82 @@
+package com.uphill.healthcare_booking_system.domain;
+
+import java.time.LocalDateTime;
+
+import com.uphill.healthcare_booking_system.enums.AppointmentStatus;
+
+// Flat listing view of an appointment, filled directly by a JPQL constructor expression over the appointment_view
+// read model: the doctor, room and patient details are copied there at booking time, so reading it needs no join
+// and hydrates no entity
+public class AppointmentSummary {
+    private final Long id;
+    private final Long doctorId;
+    private final String doctorName;
+    private final Long roomId;
+    private final String roomName;
+    private final String roomLocation;
+    private final Long patientId;
+    private final String patientEmail;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final AppointmentStatus status;
+
+    public AppointmentSummary(Long id, Long doctorId, String doctorName, Long roomId, String roomName,
+            String roomLocation, Long patientId, String patientEmail, LocalDateTime startTime, LocalDateTime endTime,
+            AppointmentStatus status) {
+        this.id = id;
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.roomId = roomId;
+        this.roomName = roomName;
+        this.roomLocation = roomLocation;
+        this.patientId = patientId;
+        this.patientEmail = patientEmail;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public String getRoomName() {
+        return roomName;
+    }
+
+    public String getRoomLocation() {
+        return roomLocation;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public String getPatientEmail() {
+        return patientEmail;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+}
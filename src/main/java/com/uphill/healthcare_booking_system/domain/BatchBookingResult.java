@@ -0,0 +1,58 @@
+package com.uphill.healthcare_booking_system.domain;
+
+import com.uphill.healthcare_booking_system.enums.BatchItemStatus;
+
+public class BatchBookingResult {
+    private int index;
+    private BatchItemStatus status;
+    private AppointmentDomain appointment;
+    private String message;
+
+    public static BatchBookingResult booked(int index, AppointmentDomain appointment) {
+        BatchBookingResult result = new BatchBookingResult();
+        result.setIndex(index);
+        result.setStatus(BatchItemStatus.BOOKED);
+        result.setAppointment(appointment);
+        return result;
+    }
+
+    public static BatchBookingResult rejected(int index, BatchItemStatus status, String message) {
+        BatchBookingResult result = new BatchBookingResult();
+        result.setIndex(index);
+        result.setStatus(status);
+        result.setMessage(message);
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public BatchItemStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BatchItemStatus status) {
+        this.status = status;
+    }
+
+    public AppointmentDomain getAppointment() {
+        return appointment;
+    }
+
+    public void setAppointment(AppointmentDomain appointment) {
+        this.appointment = appointment;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
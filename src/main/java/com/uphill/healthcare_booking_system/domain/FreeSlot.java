@@ -0,0 +1,34 @@
+package com.uphill.healthcare_booking_system.domain;
+
+import java.time.LocalDateTime;
+
+// A window in which the given doctor and room are both free. Only a hint: booking it still goes through allocation.
+public class FreeSlot {
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final Long doctorId;
+    private final Long roomId;
+
+    public FreeSlot(LocalDateTime startTime, LocalDateTime endTime, Long doctorId, Long roomId) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.doctorId = doctorId;
+        this.roomId = roomId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+}
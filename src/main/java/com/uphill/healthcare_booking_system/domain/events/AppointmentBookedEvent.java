@@ -0,0 +1,42 @@
+package com.uphill.healthcare_booking_system.domain.events;
+
+import java.time.LocalDateTime;
+
+// Published whenever an Appointment row is inserted. Listeners that keep in-memory state should react
+// to it only after the surrounding transaction commits.
+public class AppointmentBookedEvent {
+    private final Long appointmentId;
+    private final Long doctorId;
+    private final Long roomId;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+
+    public AppointmentBookedEvent(Long appointmentId, Long doctorId, Long roomId,
+            LocalDateTime startTime, LocalDateTime endTime) {
+        this.appointmentId = appointmentId;
+        this.doctorId = doctorId;
+        this.roomId = roomId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+}
@@ -0,0 +1,7 @@
+package com.uphill.healthcare_booking_system.domain.exceptions;
+
+public class AvailabilityDisabledException extends RuntimeException {
+    public AvailabilityDisabledException() {
+        super("Availability search is disabled on this instance");
+    }
+}
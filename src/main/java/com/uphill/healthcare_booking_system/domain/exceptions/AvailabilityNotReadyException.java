@@ -0,0 +1,7 @@
+package com.uphill.healthcare_booking_system.domain.exceptions;
+
+public class AvailabilityNotReadyException extends RuntimeException {
+    public AvailabilityNotReadyException() {
+        super("Availability is still loading, try again later");
+    }
+}
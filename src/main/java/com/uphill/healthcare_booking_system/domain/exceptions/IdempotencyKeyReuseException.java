@@ -0,0 +1,7 @@
+package com.uphill.healthcare_booking_system.domain.exceptions;
+
+public class IdempotencyKeyReuseException extends RuntimeException {
+    public IdempotencyKeyReuseException() {
+        super("Idempotency-Key was already used for a different request");
+    }
+}
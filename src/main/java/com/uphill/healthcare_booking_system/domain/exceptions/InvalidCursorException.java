@@ -0,0 +1,7 @@
+package com.uphill.healthcare_booking_system.domain.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException() {
+        super("Invalid or corrupted cursor");
+    }
+}
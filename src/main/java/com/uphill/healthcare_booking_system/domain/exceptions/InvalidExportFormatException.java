@@ -0,0 +1,7 @@
+package com.uphill.healthcare_booking_system.domain.exceptions;
+
+public class InvalidExportFormatException extends RuntimeException {
+    public InvalidExportFormatException(String format) {
+        super("Unsupported export format: " + format);
+    }
+}
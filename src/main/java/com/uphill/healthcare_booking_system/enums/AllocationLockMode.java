@@ -0,0 +1,8 @@
+package com.uphill.healthcare_booking_system.enums;
+
+public enum AllocationLockMode {
+    PESSIMISTIC,
+    OPTIMISTIC,
+    SKIP_LOCKED,
+    JOINT_STATEMENT
+}
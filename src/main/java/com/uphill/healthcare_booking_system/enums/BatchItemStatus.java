@@ -0,0 +1,8 @@
+package com.uphill.healthcare_booking_system.enums;
+
+public enum BatchItemStatus {
+    BOOKED,
+    CONFLICT,
+    INVALID,
+    FAILED
+}
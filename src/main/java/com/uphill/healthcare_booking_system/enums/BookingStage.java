@@ -0,0 +1,13 @@
+package com.uphill.healthcare_booking_system.enums;
+
+public enum BookingStage {
+    QUEUE,
+    PATIENT_RESOLVE,
+    DOCTOR_SELECT,
+    DOCTOR_LOCK,
+    ROOM_SELECT,
+    ROOM_LOCK,
+    SAVE,
+    ALLOCATE,
+    DISPATCH
+}
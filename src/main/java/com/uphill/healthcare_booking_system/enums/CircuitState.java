@@ -0,0 +1,7 @@
+package com.uphill.healthcare_booking_system.enums;
+
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
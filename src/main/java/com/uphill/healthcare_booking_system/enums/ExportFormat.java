@@ -0,0 +1,18 @@
+package com.uphill.healthcare_booking_system.enums;
+
+import com.uphill.healthcare_booking_system.domain.exceptions.InvalidExportFormatException;
+
+public enum ExportFormat {
+    NDJSON,
+    CSV;
+
+    // Query parameters are lower case (?format=csv)
+    public static ExportFormat fromParameter(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        throw new InvalidExportFormatException(value);
+    }
+}
@@ -0,0 +1,6 @@
+package com.uphill.healthcare_booking_system.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    DEAD
+}
@@ -0,0 +1,7 @@
+package com.uphill.healthcare_booking_system.enums;
+
+public enum SideEffect {
+    DOCTOR_CALENDAR,
+    ROOM_RESERVATION,
+    CONFIRMATION_EMAIL
+}
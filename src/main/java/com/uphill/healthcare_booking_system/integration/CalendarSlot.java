@@ -0,0 +1,49 @@
+package com.uphill.healthcare_booking_system.integration;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+public final class CalendarSlot {
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public CalendarSlot(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    // Sorted by start, with overlapping or back-to-back slots merged into one
+    public static List<CalendarSlot> coalesce(Collection<CalendarSlot> slots) {
+        List<CalendarSlot> sorted = new ArrayList<>(slots);
+        sorted.sort(Comparator.comparing(CalendarSlot::getStart));
+        List<CalendarSlot> merged = new ArrayList<>(sorted.size());
+        for (CalendarSlot slot : sorted) {
+            CalendarSlot last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && !slot.start.isAfter(last.end)) {
+                if (slot.end.isAfter(last.end)) {
+                    merged.set(merged.size() - 1, new CalendarSlot(last.start, slot.end));
+                }
+            } else {
+                merged.add(slot);
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public String toString() {
+        return start + " - " + end;
+    }
+}
@@ -1,7 +1,17 @@
 package com.uphill.healthcare_booking_system.integration;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+// Completes once the partner confirmed the slots, exceptionally if they could not be reserved
 public interface DoctorCalendarClient {
-    void reserveSlot(Long doctorId, LocalDateTime start, LocalDateTime end);
+    CompletableFuture<Void> reserveSlot(Long doctorId, LocalDateTime start, LocalDateTime end);
+
+    // Several slots of one doctor in one partner call; partners without a batch API fall back to one call per slot
+    default CompletableFuture<Void> reserveSlots(Long doctorId, List<CalendarSlot> slots) {
+        return CompletableFuture.allOf(slots.stream()
+                .map(slot -> reserveSlot(doctorId, slot.getStart(), slot.getEnd()))
+                .toArray(CompletableFuture[]::new));
+    }
 }
@@ -1,5 +1,16 @@
 package com.uphill.healthcare_booking_system.integration;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Completes once the provider accepted the message(s), exceptionally if they could not be sent
 public interface EmailClient {
-    void sendAppointmentConfirmation(String toEmail, String subject, String body);
+    CompletableFuture<Void> sendAppointmentConfirmation(String toEmail, String subject, String body);
+
+    // One provider call for many messages; providers without a bulk API fall back to one call per message
+    default CompletableFuture<Void> sendBulk(List<EmailMessage> messages) {
+        return CompletableFuture.allOf(messages.stream()
+                .map(message -> sendAppointmentConfirmation(message.getToEmail(), message.getSubject(), message.getBody()))
+                .toArray(CompletableFuture[]::new));
+    }
 }
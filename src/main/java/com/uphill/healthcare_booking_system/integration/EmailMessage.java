@@ -0,0 +1,26 @@
+package com.uphill.healthcare_booking_system.integration;
+
+public final class EmailMessage {
+
+    private final String toEmail;
+    private final String subject;
+    private final String body;
+
+    public EmailMessage(String toEmail, String subject, String body) {
+        this.toEmail = toEmail;
+        this.subject = subject;
+        this.body = body;
+    }
+
+    public String getToEmail() {
+        return toEmail;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,52 @@
+package com.uphill.healthcare_booking_system.integration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A text template with {name} placeholders, split once into literal fragments so rendering is plain appends
+// instead of re-parsing a format string per message. Values are passed in the order the names were declared.
+public final class EmailTemplate {
+
+    private final String[] fragments;
+    private final int[] valueIndexes;
+    private final int literalLength;
+
+    private EmailTemplate(String[] fragments, int[] valueIndexes) {
+        this.fragments = fragments;
+        this.valueIndexes = valueIndexes;
+        this.literalLength = Arrays.stream(fragments).mapToInt(String::length).sum();
+    }
+
+    public static EmailTemplate compile(String template, String... names) {
+        List<String> declared = List.of(names);
+        List<String> fragments = new ArrayList<>();
+        List<Integer> valueIndexes = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = template.indexOf('{', from)) >= 0) {
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at " + open + " in template: " + template);
+            }
+            int index = declared.indexOf(template.substring(open + 1, close));
+            if (index < 0) {
+                throw new IllegalArgumentException("Undeclared placeholder " + template.substring(open, close + 1));
+            }
+            fragments.add(template.substring(from, open));
+            valueIndexes.add(index);
+            from = close + 1;
+        }
+        fragments.add(template.substring(from));
+        return new EmailTemplate(fragments.toArray(String[]::new),
+                valueIndexes.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public String render(Object... values) {
+        StringBuilder text = new StringBuilder(literalLength + 16 * valueIndexes.length);
+        for (int i = 0; i < valueIndexes.length; i++) {
+            text.append(fragments[i]).append(values[valueIndexes[i]]);
+        }
+        return text.append(fragments[fragments.length - 1]).toString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.uphill.healthcare_booking_system.integration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.uphill.healthcare_booking_system.integration.impl.BatchingEmailClient;
+import com.uphill.healthcare_booking_system.integration.impl.CoalescingDoctorCalendarClient;
+import com.uphill.healthcare_booking_system.integration.impl.FakeDoctorCalendarClient;
+import com.uphill.healthcare_booking_system.integration.impl.FakeEmailClient;
+import com.uphill.healthcare_booking_system.integration.impl.FakeRoomReservationClient;
+import com.uphill.healthcare_booking_system.integration.resilience.IntegrationGuards;
+import com.uphill.healthcare_booking_system.integration.resilience.ResilientDoctorCalendarClient;
+import com.uphill.healthcare_booking_system.integration.resilience.ResilientEmailClient;
+import com.uphill.healthcare_booking_system.integration.resilience.ResilientRoomReservationClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// The clients the services use, each one: [batching/coalescing] -> resilience guard -> partner (the fakes here)
+@Configuration
+public class IntegrationClientConfig {
+
+    @Bean
+    @Primary
+    public RoomReservationClient roomReservationClient(FakeRoomReservationClient partner, IntegrationGuards guards) {
+        return new ResilientRoomReservationClient(partner, guards.guard("room-reservation"));
+    }
+
+    @Bean
+    @Primary
+    public DoctorCalendarClient doctorCalendarClient(FakeDoctorCalendarClient partner,
+            IntegrationGuards guards,
+            MeterRegistry meterRegistry,
+            @Value("${booking.calendar.coalescing.enabled:true}") boolean coalescing,
+            @Value("${booking.calendar.coalescing.max-pending:10000}") int maxPending,
+            @Value("${booking.calendar.coalescing.flush-interval-ms:200}") long flushIntervalMillis) {
+        DoctorCalendarClient guarded = new ResilientDoctorCalendarClient(partner, guards.guard("doctor-calendar"));
+        return coalescing
+                ? new CoalescingDoctorCalendarClient(guarded, meterRegistry, maxPending, flushIntervalMillis)
+                : guarded;
+    }
+
+    @Bean
+    @Primary
+    public EmailClient emailClient(FakeEmailClient partner,
+            IntegrationGuards guards,
+            MeterRegistry meterRegistry,
+            @Value("${booking.email.batching.enabled:true}") boolean batching,
+            @Value("${booking.email.batching.capacity:10000}") int capacity,
+            @Value("${booking.email.batching.batch-size:100}") int batchSize,
+            @Value("${booking.email.batching.flush-interval-ms:1000}") long flushIntervalMillis) {
+        EmailClient guarded = new ResilientEmailClient(partner, guards.guard("email"));
+        return batching
+                ? new BatchingEmailClient(guarded, meterRegistry, capacity, batchSize, flushIntervalMillis)
+                : guarded;
+    }
+}
@@ -1,7 +1,9 @@
 package com.uphill.healthcare_booking_system.integration;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
+// Completes once the partner confirmed the reservation, exceptionally if it could not be made
 public interface RoomReservationClient {
-    void reserveRoom(Long roomId, LocalDateTime start, LocalDateTime end);
+    CompletableFuture<Void> reserveRoom(Long roomId, LocalDateTime start, LocalDateTime end);
 }
@@ -0,0 +1,127 @@
+package com.uphill.healthcare_booking_system.integration.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import com.uphill.healthcare_booking_system.integration.EmailClient;
+import com.uphill.healthcare_booking_system.integration.EmailMessage;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// The provider charges per API call and rate-limits single sends, so confirmations are queued in a bounded ring
+// buffer and handed to it in bulk: as soon as a full batch is waiting, and every flush interval for the rest.
+// Every message's future completes with the outcome of the bulk call it went out in, so the outbox keeps its row
+// until the provider accepted it; a full buffer makes the caller send a batch itself rather than drop anything.
+public class BatchingEmailClient implements EmailClient, DisposableBean {
+
+    private final EmailClient provider;
+    private final ArrayBlockingQueue<PendingEmail> buffer;
+    private final int batchSize;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean fullBatchFlushPending = new AtomicBoolean();
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingEmailClient.class);
+
+    public BatchingEmailClient(EmailClient provider,
+            MeterRegistry meterRegistry,
+            int capacity,
+            int batchSize,
+            long flushIntervalMillis) {
+        if (batchSize <= 0 || capacity < batchSize) {
+            throw new IllegalArgumentException("Email batch size must be positive and fit the buffer, got batch size "
+                    + batchSize + " and capacity " + capacity);
+        }
+        this.provider = provider;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("email-batcher").daemon().factory());
+        flusher.scheduleWithFixedDelay(this::flushAll, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        Gauge.builder("booking.email.buffer.size", buffer, ArrayBlockingQueue::size)
+                .description("Confirmation emails waiting for the next bulk send")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAppointmentConfirmation(String toEmail, String subject, String body) {
+        return enqueue(new EmailMessage(toEmail, subject, body));
+    }
+
+    @Override
+    public CompletableFuture<Void> sendBulk(List<EmailMessage> messages) {
+        return CompletableFuture.allOf(messages.stream().map(this::enqueue).toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> enqueue(EmailMessage message) {
+        PendingEmail pending = new PendingEmail(message);
+        while (!buffer.offer(pending)) {
+            flushBatch();
+        }
+        if (buffer.size() >= batchSize && fullBatchFlushPending.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                fullBatchFlushPending.set(false);
+                while (buffer.size() >= batchSize) {
+                    flushBatch();
+                }
+            });
+        }
+        return pending.sent;
+    }
+
+    // Sends everything buffered so far, batch by batch
+    public void flushAll() {
+        while (flushBatch() > 0) {
+            // keep going until the buffer is empty
+        }
+    }
+
+    private int flushBatch() {
+        List<PendingEmail> batch = new ArrayList<>(batchSize);
+        buffer.drainTo(batch, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        CompletableFuture<Void> bulkSend;
+        try {
+            bulkSend = provider.sendBulk(batch.stream().map(pending -> pending.message).toList());
+        } catch (RuntimeException e) {
+            bulkSend = CompletableFuture.failedFuture(e);
+        }
+        bulkSend.whenComplete((ignored, error) -> {
+            if (error == null) {
+                log.info("Confirmation emails sent in bulk: count={}", batch.size());
+                batch.forEach(pending -> pending.sent.complete(null));
+            } else {
+                log.warn("Bulk email send failed, {} confirmations were not delivered", batch.size(), error);
+                batch.forEach(pending -> pending.sent.completeExceptionally(error));
+            }
+        });
+        return batch.size();
+    }
+
+    @Override
+    public void destroy() {
+        flusher.shutdown();
+        flushAll();
+    }
+
+    private static final class PendingEmail {
+        private final EmailMessage message;
+        private final CompletableFuture<Void> sent = new CompletableFuture<>();
+
+        private PendingEmail(EmailMessage message) {
+            this.message = message;
+        }
+    }
+}
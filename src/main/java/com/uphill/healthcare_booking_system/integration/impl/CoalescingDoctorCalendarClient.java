@@ -0,0 +1,127 @@
+package com.uphill.healthcare_booking_system.integration.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import com.uphill.healthcare_booking_system.integration.CalendarSlot;
+import com.uphill.healthcare_booking_system.integration.DoctorCalendarClient;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// The calendar partner's per-call overhead dominates when a clinic opens and bookings arrive in bursts, so slots
+// are collected per doctor and sent every flush interval as one reserveSlots call per doctor, with overlapping or
+// back-to-back slots merged. A caller's future completes with the outcome of its doctor's sync, so the outbox keeps
+// its row until the partner confirmed the slot; once max-pending slots are waiting the caller flushes them itself.
+public class CoalescingDoctorCalendarClient implements DoctorCalendarClient, DisposableBean {
+
+    private final DoctorCalendarClient partner;
+    private final int maxPending;
+    private final ScheduledExecutorService flusher;
+    private Map<Long, PendingSync> pendingByDoctor = new HashMap<>();
+    private int pending;
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingDoctorCalendarClient.class);
+
+    public CoalescingDoctorCalendarClient(DoctorCalendarClient partner,
+            MeterRegistry meterRegistry,
+            int maxPending,
+            long flushIntervalMillis) {
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("Pending calendar slots must be positive, got " + maxPending);
+        }
+        this.partner = partner;
+        this.maxPending = maxPending;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("calendar-coalescer").daemon().factory());
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        Gauge.builder("booking.calendar.pending.slots", this, CoalescingDoctorCalendarClient::pendingSlots)
+                .description("Doctor calendar slots waiting for the next coalesced sync")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<Void> reserveSlot(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        return reserveSlots(doctorId, List.of(new CalendarSlot(start, end)));
+    }
+
+    @Override
+    public CompletableFuture<Void> reserveSlots(Long doctorId, List<CalendarSlot> slots) {
+        CompletableFuture<Void> synced;
+        boolean full;
+        synchronized (this) {
+            PendingSync doctor = pendingByDoctor.computeIfAbsent(doctorId, key -> new PendingSync());
+            doctor.slots.addAll(slots);
+            synced = doctor.synced;
+            pending += slots.size();
+            full = pending >= maxPending;
+        }
+        if (full) {
+            flush();
+        }
+        return synced;
+    }
+
+    // Sends every doctor's pending slots, one merged call per doctor
+    public void flush() {
+        Map<Long, PendingSync> batch;
+        synchronized (this) {
+            if (pending == 0) {
+                return;
+            }
+            batch = pendingByDoctor;
+            pendingByDoctor = new HashMap<>();
+            pending = 0;
+        }
+        int slots = 0;
+        for (Map.Entry<Long, PendingSync> doctor : batch.entrySet()) {
+            Long doctorId = doctor.getKey();
+            PendingSync sync = doctor.getValue();
+            List<CalendarSlot> merged = CalendarSlot.coalesce(sync.slots);
+            slots += sync.slots.size();
+            CompletableFuture<Void> call;
+            try {
+                call = partner.reserveSlots(doctorId, merged);
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            call.whenComplete((ignored, error) -> {
+                if (error == null) {
+                    sync.synced.complete(null);
+                } else {
+                    log.warn("Calendar sync failed for doctor id={}, {} slots were not reserved", doctorId,
+                            merged.size(), error);
+                    sync.synced.completeExceptionally(error);
+                }
+            });
+        }
+        log.info("Doctor calendars synced: doctors={}, slots={}", batch.size(), slots);
+    }
+
+    private synchronized int pendingSlots() {
+        return pending;
+    }
+
+    @Override
+    public void destroy() {
+        flusher.shutdown();
+        flush();
+    }
+
+    // One doctor's slots waiting for the next sync, and the future every caller that added to them waits on
+    private static final class PendingSync {
+        private final List<CalendarSlot> slots = new ArrayList<>();
+        private final CompletableFuture<Void> synced = new CompletableFuture<>();
+    }
+}
@@ -1,18 +1,52 @@
 package com.uphill.healthcare_booking_system.integration.impl;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.uphill.healthcare_booking_system.integration.CalendarSlot;
 import com.uphill.healthcare_booking_system.integration.DoctorCalendarClient;
 
+// Stand-in for the calendar partner. Batch calls are recorded (doctor id -> slots, one entry per call) for tests.
 @Component
 public class FakeDoctorCalendarClient implements DoctorCalendarClient {
-    @Async
+
+    private final List<Map.Entry<Long, List<CalendarSlot>>> batchCalls = new CopyOnWriteArrayList<>();
+    private final SimulatedLatency simulatedLatency;
+
+    public FakeDoctorCalendarClient() {
+        this(0, 0);
+    }
+
+    @Autowired
+    public FakeDoctorCalendarClient(@Value("${booking.integration.doctor-calendar.fake.latency-ms:0}") long latencyMillis,
+            @Value("${booking.integration.doctor-calendar.fake.failure-rate:0}") double failureRate) {
+        this.simulatedLatency = new SimulatedLatency(latencyMillis, failureRate);
+    }
+
     @Override
-    public void reserveSlot(Long doctorId, LocalDateTime start, LocalDateTime end) {
+    public CompletableFuture<Void> reserveSlot(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        simulatedLatency.apply("doctor-calendar");
         // Apenas log para simulação
         System.out.println("Reserved doctor " + doctorId + " from " + start + " to " + end);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> reserveSlots(Long doctorId, List<CalendarSlot> slots) {
+        simulatedLatency.apply("doctor-calendar");
+        batchCalls.add(Map.entry(doctorId, List.copyOf(slots)));
+        System.out.println("Reserved doctor " + doctorId + " for " + slots);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public List<Map.Entry<Long, List<CalendarSlot>>> getBatchCalls() {
+        return List.copyOf(batchCalls);
     }
 }
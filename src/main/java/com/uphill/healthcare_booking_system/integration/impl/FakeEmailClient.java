@@ -1,16 +1,54 @@
 package com.uphill.healthcare_booking_system.integration.impl;
 
-import org.springframework.scheduling.annotation.Async;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.uphill.healthcare_booking_system.integration.EmailClient;
+import com.uphill.healthcare_booking_system.integration.EmailMessage;
 
+// Stand-in for the email provider. Bulk sends are recorded (as one provider call each) so tests can check batching.
 @Component
 public class FakeEmailClient implements EmailClient {
-    @Async
+
+    private final List<List<EmailMessage>> sentBatches = new CopyOnWriteArrayList<>();
+    private final SimulatedLatency simulatedLatency;
+
+    public FakeEmailClient() {
+        this(0, 0);
+    }
+
+    @Autowired
+    public FakeEmailClient(@Value("${booking.integration.email.fake.latency-ms:0}") long latencyMillis,
+            @Value("${booking.integration.email.fake.failure-rate:0}") double failureRate) {
+        this.simulatedLatency = new SimulatedLatency(latencyMillis, failureRate);
+    }
+
     @Override
-    public void sendAppointmentConfirmation(String toEmail, String subject, String body) {
+    public CompletableFuture<Void> sendAppointmentConfirmation(String toEmail, String subject, String body) {
+        simulatedLatency.apply("email");
         System.out.println("Sent email to " + toEmail + " with subject: " + subject);
         System.out.println("Body: " + body);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendBulk(List<EmailMessage> messages) {
+        simulatedLatency.apply("email");
+        sentBatches.add(List.copyOf(messages));
+        System.out.println("Sent " + messages.size() + " emails in one bulk call");
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public List<List<EmailMessage>> getSentBatches() {
+        return List.copyOf(sentBatches);
+    }
+
+    public void clearSentBatches() {
+        sentBatches.clear();
     }
 }
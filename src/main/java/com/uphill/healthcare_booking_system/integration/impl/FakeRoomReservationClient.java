@@ -1,17 +1,33 @@
 package com.uphill.healthcare_booking_system.integration.impl;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.uphill.healthcare_booking_system.integration.RoomReservationClient;
 
 @Component
 public class FakeRoomReservationClient implements RoomReservationClient {
-    @Async
+
+    private final SimulatedLatency simulatedLatency;
+
+    public FakeRoomReservationClient() {
+        this(0, 0);
+    }
+
+    @Autowired
+    public FakeRoomReservationClient(@Value("${booking.integration.room-reservation.fake.latency-ms:0}") long latencyMillis,
+            @Value("${booking.integration.room-reservation.fake.failure-rate:0}") double failureRate) {
+        this.simulatedLatency = new SimulatedLatency(latencyMillis, failureRate);
+    }
+
     @Override
-    public void reserveRoom(Long roomId, LocalDateTime start, LocalDateTime end) {
+    public CompletableFuture<Void> reserveRoom(Long roomId, LocalDateTime start, LocalDateTime end) {
+        simulatedLatency.apply("room-reservation");
         System.out.println("Reserved room " + roomId + " from " + start + " to " + end);
+        return CompletableFuture.completedFuture(null);
     }
 }
@@ -0,0 +1,34 @@
+package com.uphill.healthcare_booking_system.integration.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Makes a fake partner behave like a degraded one: every call takes latencyMillis and a failureRate share of them
+// throws, so timeouts, retries and the circuit breakers can be exercised locally. Both default to off.
+final class SimulatedLatency {
+
+    private final long latencyMillis;
+    private final double failureRate;
+
+    SimulatedLatency(long latencyMillis, double failureRate) {
+        if (latencyMillis < 0 || failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("Invalid simulated latency " + latencyMillis + " ms or failure rate "
+                    + failureRate);
+        }
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+    }
+
+    void apply(String partner) {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(partner + " call interrupted", e);
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException(partner + " call failed (simulated)");
+        }
+    }
+}
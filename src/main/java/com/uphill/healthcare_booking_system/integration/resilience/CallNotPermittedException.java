@@ -0,0 +1,7 @@
+package com.uphill.healthcare_booking_system.integration.resilience;
+
+public class CallNotPermittedException extends RuntimeException {
+    public CallNotPermittedException(String partner) {
+        super("Circuit breaker is open for " + partner);
+    }
+}
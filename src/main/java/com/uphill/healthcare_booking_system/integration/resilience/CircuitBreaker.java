@@ -0,0 +1,64 @@
+package com.uphill.healthcare_booking_system.integration.resilience;
+
+import java.util.function.LongSupplier;
+
+import com.uphill.healthcare_booking_system.enums.CircuitState;
+
+// Opens after failureThreshold failures in a row and then rejects calls outright for openMillis. After that a
+// single trial call is let through (half-open): success closes the circuit again, failure re-opens it.
+public class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier nanoClock) {
+        if (failureThreshold <= 0 || openMillis < 0) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings: failureThreshold="
+                    + failureThreshold + ", openMillis=" + openMillis);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openMillis * 1_000_000;
+        this.nanoClock = nanoClock;
+    }
+
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAt >= openNanos) {
+                    state = CircuitState.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                // Half-open: the trial call is still running
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = CircuitState.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = CircuitState.OPEN;
+            openedAt = nanoClock.getAsLong();
+        }
+    }
+
+    public synchronized CircuitState getState() {
+        return state;
+    }
+}
@@ -0,0 +1,137 @@
+package com.uphill.healthcare_booking_system.integration.resilience;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.uphill.healthcare_booking_system.enums.CircuitState;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Runs the calls to one partner on that partner's own bounded pool (bulkhead), so a slow partner can only fill
+// its own threads and queue; anything beyond is rejected at once instead of waiting. Each attempt has a timeout,
+// failed attempts are retried after an exponential, jittered delay (without holding a thread), and a circuit
+// breaker stops calling a partner that keeps failing. A timed-out attempt keeps its thread until the partner
+// answers, which is exactly what the bulkhead bounds. The caller gets the outcome as a future: it fails with the
+// last error once the attempts are used up, so the outbox can keep the message and retry it later.
+public class IntegrationGuard implements AutoCloseable {
+
+    private final String partner;
+    private final ThreadPoolExecutor bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final long timeoutMillis;
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final long retryMaxMillis;
+    private final MeterRegistry meterRegistry;
+
+    private static final Logger log = LoggerFactory.getLogger(IntegrationGuard.class);
+
+    public IntegrationGuard(String partner, MeterRegistry meterRegistry, int threads, int queueCapacity,
+            long timeoutMillis, int maxAttempts, long retryBaseMillis, long retryMaxMillis,
+            CircuitBreaker circuitBreaker) {
+        if (threads <= 0 || queueCapacity < 0 || timeoutMillis <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("Invalid settings for integration " + partner);
+        }
+        this.partner = partner;
+        this.meterRegistry = meterRegistry;
+        this.bulkhead = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("integration-" + partner + "-", 1).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseMillis = retryBaseMillis;
+        this.retryMaxMillis = retryMaxMillis;
+        this.circuitBreaker = circuitBreaker;
+        Gauge.builder("booking.integration.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Circuit breaker state per partner: 0 closed, 1 open, 2 half-open")
+                .tag("partner", partner)
+                .register(meterRegistry);
+        Gauge.builder("booking.integration.bulkhead.queued", bulkhead, pool -> pool.getQueue().size())
+                .description("Calls waiting for a thread of the partner's pool")
+                .tag("partner", partner)
+                .register(meterRegistry);
+    }
+
+    // Completes once the call succeeded, or exceptionally with the last error after the last attempt
+    public CompletableFuture<Void> execute(String operation, Runnable call) {
+        return attempt(call, 1).whenComplete((ignored, error) -> {
+            if (error != null) {
+                record("dropped");
+                log.error("Integration call gave up: partner={}, operation={}, cause={}", partner, operation,
+                        unwrap(error).toString());
+            }
+        });
+    }
+
+    private CompletableFuture<Void> attempt(Runnable call, int attempt) {
+        if (!circuitBreaker.tryAcquire()) {
+            record("short_circuited");
+            return CompletableFuture.failedFuture(new CallNotPermittedException(partner));
+        }
+        CompletableFuture<Void> running;
+        try {
+            running = CompletableFuture.runAsync(call, bulkhead).orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            running = CompletableFuture.failedFuture(e);
+        }
+        return running.handle((ignored, error) -> {
+            if (error == null) {
+                circuitBreaker.onSuccess();
+                record("success");
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            Throwable cause = unwrap(error);
+            circuitBreaker.onFailure();
+            record(cause instanceof TimeoutException ? "timeout"
+                    : cause instanceof RejectedExecutionException ? "rejected" : "failure");
+            if (attempt >= maxAttempts) {
+                return CompletableFuture.<Void>failedFuture(cause);
+            }
+            return CompletableFuture.runAsync(() -> { },
+                            CompletableFuture.delayedExecutor(retryDelayMillis(attempt), TimeUnit.MILLISECONDS))
+                    .thenCompose(next -> attempt(call, attempt + 1));
+        }).thenCompose(Function.identity());
+    }
+
+    // base * 2^(attempt - 1) capped at the max, with up to 50% of random jitter on top
+    long retryDelayMillis(int attempt) {
+        long delay = Math.min(retryMaxMillis, retryBaseMillis << Math.min(attempt - 1, 16));
+        return delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    public CircuitState getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private void record(String outcome) {
+        Counter.builder("booking.integration.calls")
+                .description("Attempts to call an integration partner, by outcome")
+                .tag("partner", partner)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    @Override
+    public void close() {
+        bulkhead.shutdown();
+    }
+}
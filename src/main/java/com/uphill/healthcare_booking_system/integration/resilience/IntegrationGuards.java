@@ -0,0 +1,49 @@
+package com.uphill.healthcare_booking_system.integration.resilience;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// One IntegrationGuard per partner, configured under booking.integration.<partner>.* (threads, queue-capacity,
+// timeout-ms, max-attempts, retry-base-ms, retry-max-ms, breaker.failure-threshold, breaker.open-ms)
+@Component
+public class IntegrationGuards implements DisposableBean {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, IntegrationGuard> guards = new ConcurrentHashMap<>();
+
+    public IntegrationGuards(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public IntegrationGuard guard(String partner) {
+        return guards.computeIfAbsent(partner, this::create);
+    }
+
+    private IntegrationGuard create(String partner) {
+        String prefix = "booking.integration." + partner + ".";
+        CircuitBreaker circuitBreaker = new CircuitBreaker(
+                environment.getProperty(prefix + "breaker.failure-threshold", Integer.class, 5),
+                environment.getProperty(prefix + "breaker.open-ms", Long.class, 10_000L));
+        return new IntegrationGuard(partner, meterRegistry,
+                environment.getProperty(prefix + "threads", Integer.class, 4),
+                environment.getProperty(prefix + "queue-capacity", Integer.class, 1_000),
+                environment.getProperty(prefix + "timeout-ms", Long.class, 2_000L),
+                environment.getProperty(prefix + "max-attempts", Integer.class, 3),
+                environment.getProperty(prefix + "retry-base-ms", Long.class, 100L),
+                environment.getProperty(prefix + "retry-max-ms", Long.class, 2_000L),
+                circuitBreaker);
+    }
+
+    @Override
+    public void destroy() {
+        guards.values().forEach(IntegrationGuard::close);
+    }
+}
@@ -0,0 +1,29 @@
+package com.uphill.healthcare_booking_system.integration.resilience;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.uphill.healthcare_booking_system.integration.CalendarSlot;
+import com.uphill.healthcare_booking_system.integration.DoctorCalendarClient;
+
+public class ResilientDoctorCalendarClient implements DoctorCalendarClient {
+
+    private final DoctorCalendarClient partner;
+    private final IntegrationGuard guard;
+
+    public ResilientDoctorCalendarClient(DoctorCalendarClient partner, IntegrationGuard guard) {
+        this.partner = partner;
+        this.guard = guard;
+    }
+
+    @Override
+    public CompletableFuture<Void> reserveSlot(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        return guard.execute("reserveSlot", () -> partner.reserveSlot(doctorId, start, end).join());
+    }
+
+    @Override
+    public CompletableFuture<Void> reserveSlots(Long doctorId, List<CalendarSlot> slots) {
+        return guard.execute("reserveSlots", () -> partner.reserveSlots(doctorId, slots).join());
+    }
+}
@@ -0,0 +1,29 @@
+package com.uphill.healthcare_booking_system.integration.resilience;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.uphill.healthcare_booking_system.integration.EmailClient;
+import com.uphill.healthcare_booking_system.integration.EmailMessage;
+
+public class ResilientEmailClient implements EmailClient {
+
+    private final EmailClient partner;
+    private final IntegrationGuard guard;
+
+    public ResilientEmailClient(EmailClient partner, IntegrationGuard guard) {
+        this.partner = partner;
+        this.guard = guard;
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAppointmentConfirmation(String toEmail, String subject, String body) {
+        return guard.execute("sendAppointmentConfirmation",
+                () -> partner.sendAppointmentConfirmation(toEmail, subject, body).join());
+    }
+
+    @Override
+    public CompletableFuture<Void> sendBulk(List<EmailMessage> messages) {
+        return guard.execute("sendBulk", () -> partner.sendBulk(messages).join());
+    }
+}
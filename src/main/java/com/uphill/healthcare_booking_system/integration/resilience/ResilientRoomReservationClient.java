@@ -0,0 +1,22 @@
+package com.uphill.healthcare_booking_system.integration.resilience;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import com.uphill.healthcare_booking_system.integration.RoomReservationClient;
+
+public class ResilientRoomReservationClient implements RoomReservationClient {
+
+    private final RoomReservationClient partner;
+    private final IntegrationGuard guard;
+
+    public ResilientRoomReservationClient(RoomReservationClient partner, IntegrationGuard guard) {
+        this.partner = partner;
+        this.guard = guard;
+    }
+
+    @Override
+    public CompletableFuture<Void> reserveRoom(Long roomId, LocalDateTime start, LocalDateTime end) {
+        return guard.execute("reserveRoom", () -> partner.reserveRoom(roomId, start, end).join());
+    }
+}
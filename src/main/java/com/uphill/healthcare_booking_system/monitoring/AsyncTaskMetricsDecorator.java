@@ -0,0 +1,81 @@
+package com.uphill.healthcare_booking_system.monitoring;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.task.ThreadPoolTaskExecutorCustomizer;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Applied by Spring Boot to the @Async executor, whichever kind it is. A thread pool already reports its own queue,
+// but the virtual-thread executor has none, so the backlog of integration calls is counted here for both modes:
+// "queued" were submitted and have not started yet, "active" are running. Executors decorate a task before they
+// hand it over, so a task the pool rejects has already been counted as queued; the pool's rejection handler takes
+// it back off. The virtual-thread executor checks whether it is closed before decorating and only rejects after
+// that when it is set to reject on its concurrency limit, which this application leaves off.
+@Component
+public class AsyncTaskMetricsDecorator implements TaskDecorator, ThreadPoolTaskExecutorCustomizer {
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    public AsyncTaskMetricsDecorator(MeterRegistry meterRegistry) {
+        Gauge.builder("booking.async.tasks.queued", queued, AtomicInteger::get)
+                .description("Async integration calls submitted but not started")
+                .register(meterRegistry);
+        Gauge.builder("booking.async.tasks.active", active, AtomicInteger::get)
+                .description("Async integration calls currently running")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        queued.incrementAndGet();
+        return new QueuedTask(runnable);
+    }
+
+    @Override
+    public void customize(ThreadPoolTaskExecutor taskExecutor) {
+        taskExecutor.setRejectedExecutionHandler(this::rejected);
+    }
+
+    // Same outcome as the pool's default AbortPolicy, without leaving the rejected task counted as queued
+    void rejected(Runnable runnable, ThreadPoolExecutor executor) {
+        if (runnable instanceof QueuedTask task) {
+            task.leaveQueue();
+        }
+        throw new RejectedExecutionException("Task " + runnable + " rejected from " + executor);
+    }
+
+    private final class QueuedTask implements Runnable {
+        private final Runnable delegate;
+        private final AtomicBoolean inQueue = new AtomicBoolean(true);
+
+        private QueuedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        private void leaveQueue() {
+            if (inQueue.compareAndSet(true, false)) {
+                queued.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void run() {
+            leaveQueue();
+            active.incrementAndGet();
+            try {
+                delegate.run();
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+    }
+}
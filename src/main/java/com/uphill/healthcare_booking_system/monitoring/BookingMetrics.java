@@ -0,0 +1,124 @@
+package com.uphill.healthcare_booking_system.monitoring;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.uphill.healthcare_booking_system.enums.BookingStage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Where the time of a booking goes: a timer per stage, row lock waits per resource, fallbacks and conflicts counted
+@Component
+public class BookingMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<BookingStage, Timer> stageTimers = new EnumMap<>(BookingStage.class);
+    private final Map<String, Timer> lockWaitTimers = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Counter>> fallbackCounters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Counter> conflictCounters = new ConcurrentHashMap<>();
+    private final Timer doctorLockWait;
+    private final Timer roomLockWait;
+    private final ThreadLocal<Map<BookingStage, Long>> bookingStages = new ThreadLocal<>();
+
+    public BookingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (BookingStage stage : BookingStage.values()) {
+            stageTimers.put(stage, Timer.builder("booking.stage.duration")
+                    .description("Time spent in one stage of booking an appointment")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+        this.doctorLockWait = lockWaitTimer("doctor");
+        this.roomLockWait = lockWaitTimer("room");
+    }
+
+    // Runs one booking on this thread. Select and lock alternate when a pick has to be confirmed or taken again,
+    // so the stages only add up their time here and each one is recorded once when the booking ends.
+    public <T> T timeBooking(Supplier<T> booking) {
+        if (bookingStages.get() != null) {
+            return booking.get();
+        }
+        Map<BookingStage, Long> stages = new EnumMap<>(BookingStage.class);
+        bookingStages.set(stages);
+        try {
+            return booking.get();
+        } finally {
+            bookingStages.remove();
+            stages.forEach((stage, nanos) -> stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS));
+        }
+    }
+
+    public <T> T time(BookingStage stage, Supplier<T> work) {
+        Map<BookingStage, Long> stages = bookingStages.get();
+        if (stages == null) {
+            return stageTimers.get(stage).record(work);
+        }
+        long started = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            stages.merge(stage, System.nanoTime() - started, Long::sum);
+        }
+    }
+
+    public void run(BookingStage stage, Runnable work) {
+        time(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T timeDoctorLockWait(Supplier<T> lock) {
+        return doctorLockWait.record(lock);
+    }
+
+    public <T> T timeRoomLockWait(Supplier<T> lock) {
+        return roomLockWait.record(lock);
+    }
+
+    // Optimistic claims take no row lock: the attempt lost at commit plus the backoff count as the wait instead.
+    // resource: "doctor" or "room", the entity whose version check the booking lost
+    public void recordClaimWait(String resource, long nanos) {
+        lockWaitTimer(resource).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // reason: "requery" when the locked pick was taken meanwhile, "stale_index" when the in-memory view was wrong,
+    // "skipped_locked" when another booking held the candidate row
+    public void recordFallback(String resource, String reason) {
+        fallbackCounters.computeIfAbsent(resource, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(reason, key -> Counter.builder("booking.allocation.fallbacks")
+                        .description("Allocations that had to fall back to another candidate lookup")
+                        .tag("resource", resource)
+                        .tag("reason", reason)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    public void recordConflict(Exception ex) {
+        conflictCounters.computeIfAbsent(ex.getClass(), type -> Counter.builder("booking.conflicts")
+                        .description("Booking requests rejected because of a conflict, by exception type")
+                        .tag("exception", type.getSimpleName())
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private Timer lockWaitTimer(String resource) {
+        return lockWaitTimers.computeIfAbsent(resource, key -> Timer.builder("booking.lock.wait")
+                .description("Time spent waiting for a row lock on a doctor or room")
+                .tag("resource", resource)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry));
+    }
+}
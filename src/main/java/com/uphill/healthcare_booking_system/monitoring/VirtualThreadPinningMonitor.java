@@ -0,0 +1,75 @@
+package com.uphill.healthcare_booking_system.monitoring;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+// A virtual thread that blocks inside a synchronized block or a native frame keeps its carrier thread busy, which
+// is exactly what virtual threads are meant to avoid. The JVM reports those through JFR; this streams them into
+// a counter and a timer so they show up next to the other metrics.
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Counter pinnedCount;
+    private final Timer pinnedTime;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+            @Value("${booking.monitoring.virtual-thread-pinned-threshold-ms:20}") long thresholdMillis) {
+        this.pinnedCount = Counter.builder("booking.virtual.threads.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .register(meterRegistry);
+        this.pinnedTime = Timer.builder("booking.virtual.threads.pinned.duration")
+                .description("Time carriers spent pinned by a blocked virtual thread")
+                .register(meterRegistry);
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    @Override
+    public synchronized void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        log.info("Virtual thread pinning monitor started: threshold={}ms", threshold.toMillis());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+
+    void record(RecordedEvent event) {
+        pinnedCount.increment();
+        pinnedTime.record(event.getDuration());
+        if (log.isDebugEnabled() && event.getStackTrace() != null && !event.getStackTrace().getFrames().isEmpty()) {
+            log.debug("Virtual thread pinned for {}ms at {}", event.getDuration().toMillis(),
+                    event.getStackTrace().getFrames().get(0).getMethod().getName());
+        }
+    }
+}
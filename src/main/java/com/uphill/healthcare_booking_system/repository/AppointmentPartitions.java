@@ -0,0 +1,42 @@
+package com.uphill.healthcare_booking_system.repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+// Appointments are bucketed by the month they start in (partition_key = yyyymm). Since no appointment is longer
+// than MAX_DURATION, everything that can overlap a window [start, end) started in [start - MAX_DURATION, end),
+// which bounds the start_time range on both sides and limits an overlap check to the one or two buckets it spans.
+public final class AppointmentPartitions {
+
+    public static final Duration MAX_DURATION = Duration.ofHours(24);
+
+    private AppointmentPartitions() {
+    }
+
+    public static int keyOf(LocalDateTime startTime) {
+        return startTime.getYear() * 100 + startTime.getMonthValue();
+    }
+
+    // Earliest start of an appointment that can still overlap a window starting at the given time
+    public static LocalDateTime earliestOverlappingStart(LocalDateTime windowStart) {
+        return windowStart.minus(MAX_DURATION);
+    }
+
+    // Buckets holding every appointment that can overlap [start, end)
+    public static List<Integer> spanning(LocalDateTime start, LocalDateTime end) {
+        return between(earliestOverlappingStart(start), end);
+    }
+
+    // Buckets from the month of "from" to the month of "to", both included
+    public static List<Integer> between(LocalDateTime from, LocalDateTime to) {
+        List<Integer> keys = new ArrayList<>(2);
+        YearMonth last = YearMonth.from(to);
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(last); month = month.plusMonths(1)) {
+            keys.add(month.getYear() * 100 + month.getMonthValue());
+        }
+        return keys;
+    }
+}
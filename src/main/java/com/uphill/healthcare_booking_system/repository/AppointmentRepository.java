@@ -1,40 +1,188 @@
 package com.uphill.healthcare_booking_system.repository;
 
 import com.uphill.healthcare_booking_system.repository.entity.Appointment;
+import com.uphill.healthcare_booking_system.repository.projection.BookedWindow;
+import com.uphill.healthcare_booking_system.repository.projection.JointBooking;
+
+import jakarta.persistence.QueryHint;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
-    
+
+    // Overlap checks only read the partitions the window spans and a start_time range bounded on both sides
+    // (see AppointmentPartitions); the default methods fill in those bounds
+    default boolean existsOverlapForDoctor(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        return existsOverlapForDoctorInPartitions(doctorId, AppointmentPartitions.spanning(start, end),
+                AppointmentPartitions.earliestOverlappingStart(start), start, end);
+    }
+
+    default boolean existsOverlapForRoom(Long roomId, LocalDateTime start, LocalDateTime end) {
+        return existsOverlapForRoomInPartitions(roomId, AppointmentPartitions.spanning(start, end),
+                AppointmentPartitions.earliestOverlappingStart(start), start, end);
+    }
+
     @Query("""
            SELECT CASE WHEN COUNT(a) > 0 THEN TRUE ELSE FALSE END
            FROM Appointment a
            WHERE a.doctor.id = :doctorId
+             AND a.partitionKey IN :partitions
+             AND a.startTime >= :earliestStart
              AND a.startTime < :end
              AND a.endTime   > :start
            """)
-    boolean existsOverlapForDoctor(@Param("doctorId") Long doctorId,
-                                   @Param("start") LocalDateTime start,
-                                   @Param("end") LocalDateTime end);
+    boolean existsOverlapForDoctorInPartitions(@Param("doctorId") Long doctorId,
+                                               @Param("partitions") Collection<Integer> partitions,
+                                               @Param("earliestStart") LocalDateTime earliestStart,
+                                               @Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end);
 
     @Query("""
            SELECT CASE WHEN COUNT(a) > 0 THEN TRUE ELSE FALSE END
            FROM Appointment a
            WHERE a.room.id = :roomId
+             AND a.partitionKey IN :partitions
+             AND a.startTime >= :earliestStart
              AND a.startTime < :end
              AND a.endTime   > :start
            """)
-    boolean existsOverlapForRoom(@Param("roomId") Long roomId,
-                                 @Param("start") LocalDateTime start,
-                                 @Param("end") LocalDateTime end);
+    boolean existsOverlapForRoomInPartitions(@Param("roomId") Long roomId,
+                                             @Param("partitions") Collection<Integer> partitions,
+                                             @Param("earliestStart") LocalDateTime earliestStart,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
 
     @NonNull
     Page<Appointment> findAll(@NonNull Pageable pageable);
+
+    // Joint-statement mode: picks, locks and books a doctor and a room in one round trip (see JointAllocationRoutine)
+    @Query(nativeQuery = true,
+           value = "SELECT * FROM BOOK_APPOINTMENT(:specialty, :start, :end, :patientId)")
+    JointBooking bookJointly(@Param("specialty") String specialty,
+                             @Param("start") LocalDateTime start,
+                             @Param("end") LocalDateTime end,
+                             @Param("patientId") Long patientId);
+
+    // Only appointments that did not end yet matter for availability, so the history is never loaded
+    default Stream<BookedWindow> streamBookedWindowsEndingAfter(LocalDateTime from) {
+        LocalDateTime earliestStart = AppointmentPartitions.earliestOverlappingStart(from);
+        return streamBookedWindowsEndingAfter(AppointmentPartitions.keyOf(earliestStart), earliestStart, from);
+    }
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("""
+           SELECT a.doctor.id AS doctorId, a.room.id AS roomId, a.startTime AS startTime, a.endTime AS endTime
+           FROM Appointment a
+           WHERE a.partitionKey >= :fromPartition
+             AND a.startTime >= :earliestStart
+             AND a.endTime > :from
+           """)
+    Stream<BookedWindow> streamBookedWindowsEndingAfter(@Param("fromPartition") int fromPartition,
+                                                        @Param("earliestStart") LocalDateTime earliestStart,
+                                                        @Param("from") LocalDateTime from);
+
+    default List<BookedWindow> findBookedWindowsOverlapping(LocalDateTime start, LocalDateTime end) {
+        return findBookedWindowsOverlappingInPartitions(AppointmentPartitions.spanning(start, end),
+                AppointmentPartitions.earliestOverlappingStart(start), start, end);
+    }
+
+    @Query("""
+           SELECT a.doctor.id AS doctorId, a.room.id AS roomId, a.startTime AS startTime, a.endTime AS endTime
+           FROM Appointment a
+           WHERE a.partitionKey IN :partitions
+             AND a.startTime >= :earliestStart
+             AND a.startTime < :end
+             AND a.endTime   > :start
+           """)
+    List<BookedWindow> findBookedWindowsOverlappingInPartitions(@Param("partitions") Collection<Integer> partitions,
+                                                                @Param("earliestStart") LocalDateTime earliestStart,
+                                                                @Param("start") LocalDateTime start,
+                                                                @Param("end") LocalDateTime end);
+
+    @Query("""
+           SELECT a FROM Appointment a
+           JOIN FETCH a.doctor
+           JOIN FETCH a.room
+           JOIN FETCH a.patient
+           WHERE a.id IN :ids
+           """)
+    List<Appointment> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Schedules of a few doctors/rooms over a window, used to rank candidates by how busy they already are
+    default List<BookedWindow> findBookedWindowsForDoctors(Collection<Long> doctorIds, LocalDateTime start,
+                                                           LocalDateTime end) {
+        return findBookedWindowsForDoctorsInPartitions(doctorIds, AppointmentPartitions.spanning(start, end),
+                AppointmentPartitions.earliestOverlappingStart(start), start, end);
+    }
+
+    @Query("""
+           SELECT a.doctor.id AS doctorId, a.room.id AS roomId, a.startTime AS startTime, a.endTime AS endTime
+           FROM Appointment a
+           WHERE a.doctor.id IN :doctorIds
+             AND a.partitionKey IN :partitions
+             AND a.startTime >= :earliestStart
+             AND a.startTime < :end
+             AND a.endTime   > :start
+           """)
+    List<BookedWindow> findBookedWindowsForDoctorsInPartitions(@Param("doctorIds") Collection<Long> doctorIds,
+                                                               @Param("partitions") Collection<Integer> partitions,
+                                                               @Param("earliestStart") LocalDateTime earliestStart,
+                                                               @Param("start") LocalDateTime start,
+                                                               @Param("end") LocalDateTime end);
+
+    default List<BookedWindow> findBookedWindowsForRooms(Collection<Long> roomIds, LocalDateTime start,
+                                                         LocalDateTime end) {
+        return findBookedWindowsForRoomsInPartitions(roomIds, AppointmentPartitions.spanning(start, end),
+                AppointmentPartitions.earliestOverlappingStart(start), start, end);
+    }
+
+    @Query("""
+           SELECT a.doctor.id AS doctorId, a.room.id AS roomId, a.startTime AS startTime, a.endTime AS endTime
+           FROM Appointment a
+           WHERE a.room.id IN :roomIds
+             AND a.partitionKey IN :partitions
+             AND a.startTime >= :earliestStart
+             AND a.startTime < :end
+             AND a.endTime   > :start
+           """)
+    List<BookedWindow> findBookedWindowsForRoomsInPartitions(@Param("roomIds") Collection<Long> roomIds,
+                                                             @Param("partitions") Collection<Integer> partitions,
+                                                             @Param("earliestStart") LocalDateTime earliestStart,
+                                                             @Param("start") LocalDateTime start,
+                                                             @Param("end") LocalDateTime end);
+
+    // The bookings of the doctors and rooms a batch chunk picked, re-read in one query once their rows are locked
+    default List<BookedWindow> findBookedWindowsForDoctorsOrRooms(Collection<Long> doctorIds, Collection<Long> roomIds,
+                                                                  LocalDateTime start, LocalDateTime end) {
+        return findBookedWindowsForDoctorsOrRoomsInPartitions(doctorIds, roomIds,
+                AppointmentPartitions.spanning(start, end), AppointmentPartitions.earliestOverlappingStart(start),
+                start, end);
+    }
+
+    @Query("""
+           SELECT a.doctor.id AS doctorId, a.room.id AS roomId, a.startTime AS startTime, a.endTime AS endTime
+           FROM Appointment a
+           WHERE (a.doctor.id IN :doctorIds OR a.room.id IN :roomIds)
+             AND a.partitionKey IN :partitions
+             AND a.startTime >= :earliestStart
+             AND a.startTime < :end
+             AND a.endTime   > :start
+           """)
+    List<BookedWindow> findBookedWindowsForDoctorsOrRoomsInPartitions(@Param("doctorIds") Collection<Long> doctorIds,
+                                                                      @Param("roomIds") Collection<Long> roomIds,
+                                                                      @Param("partitions") Collection<Integer> partitions,
+                                                                      @Param("earliestStart") LocalDateTime earliestStart,
+                                                                      @Param("start") LocalDateTime start,
+                                                                      @Param("end") LocalDateTime end);
 }
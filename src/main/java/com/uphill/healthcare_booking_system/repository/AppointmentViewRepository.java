@@ -0,0 +1,83 @@
+package com.uphill.healthcare_booking_system.repository;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentSummary;
+import com.uphill.healthcare_booking_system.repository.entity.AppointmentView;
+
+import jakarta.persistence.QueryHint;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Every appointment read goes through here; none of these queries touches the appointment, doctor, room or
+// patient tables
+public interface AppointmentViewRepository extends JpaRepository<AppointmentView, Long> {
+
+    @Query(value = """
+           SELECT new com.uphill.healthcare_booking_system.domain.AppointmentSummary(
+                  v.id, v.doctorId, v.doctorName, v.roomId, v.roomName, v.roomLocation, v.patientId, v.patientEmail,
+                  v.startTime, v.endTime, v.status)
+           FROM AppointmentView v
+           """,
+           countQuery = "SELECT COUNT(v) FROM AppointmentView v")
+    Page<AppointmentSummary> findAllSummaries(Pageable pageable);
+
+    // Keyset paging in (startTime, id) order: seeks straight to the position instead of skipping an offset, and
+    // no count query is needed
+    @Query("""
+           SELECT new com.uphill.healthcare_booking_system.domain.AppointmentSummary(
+                  v.id, v.doctorId, v.doctorName, v.roomId, v.roomName, v.roomLocation, v.patientId, v.patientEmail,
+                  v.startTime, v.endTime, v.status)
+           FROM AppointmentView v
+           ORDER BY v.startTime ASC, v.id ASC
+           """)
+    List<AppointmentSummary> findFirstPageByStartTime(Limit limit);
+
+    @Query("""
+           SELECT new com.uphill.healthcare_booking_system.domain.AppointmentSummary(
+                  v.id, v.doctorId, v.doctorName, v.roomId, v.roomName, v.roomLocation, v.patientId, v.patientEmail,
+                  v.startTime, v.endTime, v.status)
+           FROM AppointmentView v
+           WHERE v.startTime > :startTime
+              OR (v.startTime = :startTime AND v.id > :id)
+           ORDER BY v.startTime ASC, v.id ASC
+           """)
+    List<AppointmentSummary> findPageAfter(@Param("startTime") LocalDateTime startTime,
+                                           @Param("id") Long id,
+                                           Limit limit);
+
+    // Export walks the table once in keyset order through a forward-only cursor; the rows are not entities, so
+    // nothing accumulates in the persistence context however many there are
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("""
+           SELECT new com.uphill.healthcare_booking_system.domain.AppointmentSummary(
+                  v.id, v.doctorId, v.doctorName, v.roomId, v.roomName, v.roomLocation, v.patientId, v.patientEmail,
+                  v.startTime, v.endTime, v.status)
+           FROM AppointmentView v
+           ORDER BY v.startTime ASC, v.id ASC
+           """)
+    Stream<AppointmentSummary> streamAllSummaries();
+
+    // Fills in the view for appointments written without it (rows that predate the view, bulk loads)
+    @Modifying
+    @Query(nativeQuery = true, value = """
+           INSERT INTO appointment_view (id, doctor_id, doctor_name, room_id, room_name, room_location, patient_id,
+                                         patient_email, start_time, end_time, status)
+           SELECT a.id, d.id, d.name, r.id, r.name, r.location, p.id, p.email, a.start_time, a.end_time, a.status
+           FROM appointment a
+           JOIN doctor d ON d.id = a.doctor_id
+           JOIN room r ON r.id = a.room_id
+           JOIN patient p ON p.id = a.patient_id
+           WHERE NOT EXISTS (SELECT 1 FROM appointment_view v WHERE v.id = a.id)
+           """)
+    int backfillMissing();
+}
@@ -3,29 +3,45 @@ package com.uphill.healthcare_booking_system.repository;
 import com.uphill.healthcare_booking_system.repository.entity.Doctor;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.QueryHint;
 
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+    default List<Doctor> findFirstAvailableBySpecialtyAndWindow(String specialty, LocalDateTime start,
+                                                                LocalDateTime end, Pageable pageable) {
+        return findFirstAvailableBySpecialtyAndWindow(specialty, AppointmentPartitions.spanning(start, end),
+                AppointmentPartitions.earliestOverlappingStart(start), start, end, pageable);
+    }
+
     @Query("""
            SELECT d FROM Doctor d
            WHERE d.specialty = :specialty
              AND NOT EXISTS (
                  SELECT a.id FROM Appointment a
                  WHERE a.doctor = d
+                   AND a.partitionKey IN :partitions
+                   AND a.startTime >= :earliestStart
                    AND a.startTime < :end
                    AND a.endTime   > :start
              )
            ORDER BY d.id ASC
            """)
     List<Doctor> findFirstAvailableBySpecialtyAndWindow(@Param("specialty") String specialty,
+                                                        @Param("partitions") Collection<Integer> partitions,
+                                                        @Param("earliestStart") LocalDateTime earliestStart,
                                                         @Param("start") LocalDateTime start,
                                                         @Param("end") LocalDateTime end,
                                                         Pageable pageable);
@@ -33,4 +49,29 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT d FROM Doctor d WHERE d.id = :id")
     Doctor lockById(@Param("id") Long id);
+
+    // Skip-locked allocation mode: null instead of waiting when another transaction holds the row. Only used where
+    // SkipLockedSupport says the database has the syntax; lockByIdNoWait is the fallback elsewhere.
+    @Query(nativeQuery = true, value = "SELECT * FROM doctor WHERE id = :id FOR UPDATE SKIP LOCKED")
+    Doctor lockByIdSkipLocked(@Param("id") Long id);
+
+    // A lock timeout is a statement-level failure, so it must not doom the surrounding booking transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0"))
+    @Transactional(noRollbackFor = {LockTimeoutException.class, PessimisticLockingFailureException.class})
+    @Query("SELECT d FROM Doctor d WHERE d.id = :id")
+    Doctor lockByIdNoWait(@Param("id") Long id);
+
+    List<Doctor> findBySpecialtyInOrderByIdAsc(Collection<String> specialties);
+
+    // Locked in id order, see BatchAppointmentService
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Doctor d WHERE d.id IN :ids ORDER BY d.id ASC")
+    List<Doctor> lockAllById(@Param("ids") Collection<Long> ids);
+
+    // Claim for the optimistic allocation mode: takes no row lock. The version this transaction read is checked and
+    // bumped only when it commits, which fails if another booking claimed the doctor in the meantime
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT d FROM Doctor d WHERE d.id = :id")
+    Doctor claimById(@Param("id") Long id);
 }
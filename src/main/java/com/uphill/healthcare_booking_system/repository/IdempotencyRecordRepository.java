@@ -0,0 +1,34 @@
+package com.uphill.healthcare_booking_system.repository;
+
+import com.uphill.healthcare_booking_system.repository.entity.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // A plain INSERT (save() would merge): a key another booking recorded first fails here with a duplicate key,
+    // which rolls back the booking it was written with
+    @Modifying
+    @Query(nativeQuery = true, value = """
+           INSERT INTO idempotency_record (idempotency_key, request_fingerprint, appointment_id, created_at, expires_at)
+           VALUES (:key, :fingerprint, :appointmentId, :createdAt, :expiresAt)
+           """)
+    void insert(@Param("key") String key,
+                @Param("fingerprint") String fingerprint,
+                @Param("appointmentId") Long appointmentId,
+                @Param("createdAt") LocalDateTime createdAt,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.expiresAt <= :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,32 @@
+package com.uphill.healthcare_booking_system.repository;
+
+import com.uphill.healthcare_booking_system.enums.OutboxStatus;
+import com.uphill.healthcare_booking_system.repository.entity.OutboxMessage;
+
+import jakarta.persistence.LockModeType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // Locked so that two dispatchers (e.g. two instances) never claim the same messages
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+           SELECT m FROM OutboxMessage m
+           WHERE m.status = :status
+             AND m.nextAttemptAt <= :now
+           ORDER BY m.nextAttemptAt ASC, m.id ASC
+           """)
+    List<OutboxMessage> lockDue(@Param("status") OutboxStatus status,
+                                @Param("now") LocalDateTime now,
+                                Pageable pageable);
+
+    long countByStatus(OutboxStatus status);
+}
@@ -2,8 +2,29 @@ package com.uphill.healthcare_booking_system.repository;
 
 import com.uphill.healthcare_booking_system.repository.entity.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface PatientRepository extends JpaRepository<Patient, Long> {
 
     Patient findByEmail(String email);
+
+    List<Patient> findByEmailIn(Collection<String> emails);
+
+    // Inserts the patient when the email is new and returns the inserted row, in one round trip. An existing row is
+    // neither updated nor locked, and nothing comes back for it (null).
+    @Transactional
+    @Query(nativeQuery = true, value = """
+           SELECT id, name, email FROM FINAL TABLE (
+               MERGE INTO patient p
+               USING (VALUES (CAST(:email AS VARCHAR(255)), CAST(:name AS VARCHAR(255)))) s(email, name)
+               ON p.email = s.email
+               WHEN NOT MATCHED THEN INSERT (id, email, name) VALUES (NEXT VALUE FOR patient_seq, s.email, s.name)
+           )
+           """)
+    Patient insertIfAbsent(@Param("email") String email, @Param("name") String name);
 }
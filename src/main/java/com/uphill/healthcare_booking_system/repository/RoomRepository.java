@@ -3,32 +3,68 @@ package com.uphill.healthcare_booking_system.repository;
 import com.uphill.healthcare_booking_system.repository.entity.Room;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.QueryHint;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface RoomRepository extends JpaRepository<Room, Long> {
+    default List<Room> findFirstAvailableByWindow(LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        return findFirstAvailableByWindow(AppointmentPartitions.spanning(start, end),
+                AppointmentPartitions.earliestOverlappingStart(start), start, end, pageable);
+    }
+
     @Query("""
            SELECT r FROM Room r
            WHERE NOT EXISTS (
                SELECT a.id FROM Appointment a
                WHERE a.room = r
+                 AND a.partitionKey IN :partitions
+                 AND a.startTime >= :earliestStart
                  AND a.startTime < :end
                  AND a.endTime   > :start
            )
            ORDER BY r.id ASC
            """)
-    List<Room> findFirstAvailableByWindow(@Param("start") LocalDateTime start,
+    List<Room> findFirstAvailableByWindow(@Param("partitions") Collection<Integer> partitions,
+                                          @Param("earliestStart") LocalDateTime earliestStart,
+                                          @Param("start") LocalDateTime start,
                                           @Param("end") LocalDateTime end,
                                           Pageable pageable);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT r FROM Room r WHERE r.id = :id")
     Room lockById(@Param("id") Long id);
+
+    // see DoctorRepository#lockByIdSkipLocked
+    @Query(nativeQuery = true, value = "SELECT * FROM room WHERE id = :id FOR UPDATE SKIP LOCKED")
+    Room lockByIdSkipLocked(@Param("id") Long id);
+
+    // see DoctorRepository#lockByIdNoWait
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0"))
+    @Transactional(noRollbackFor = {LockTimeoutException.class, PessimisticLockingFailureException.class})
+    @Query("SELECT r FROM Room r WHERE r.id = :id")
+    Room lockByIdNoWait(@Param("id") Long id);
+
+    // Locked in id order, see BatchAppointmentService
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.id IN :ids ORDER BY r.id ASC")
+    List<Room> lockAllById(@Param("ids") Collection<Long> ids);
+
+    // see DoctorRepository#claimById
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT r FROM Room r WHERE r.id = :id")
+    Room claimById(@Param("id") Long id);
 }
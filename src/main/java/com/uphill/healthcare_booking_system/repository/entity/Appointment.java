@@ -3,10 +3,12 @@ package com.uphill.healthcare_booking_system.repository.entity;
 import java.time.LocalDateTime;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.persistence.Column;
@@ -14,17 +16,25 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.EnumType;
 
 import com.uphill.healthcare_booking_system.enums.AppointmentStatus;
+import com.uphill.healthcare_booking_system.repository.AppointmentPartitions;
 
 @Entity
+@EntityListeners(AppointmentEntityListener.class)
 @Table(
     uniqueConstraints = {
         @UniqueConstraint(columnNames = {"doctor_id", "start_time", "end_time"}),
         @UniqueConstraint(columnNames = {"room_id", "start_time", "end_time"})
+    },
+    indexes = {
+        // Overlap checks seek by resource, then month bucket, then a bounded start_time range
+        @Index(name = "idx_appointment_doctor_partition_start", columnList = "doctor_id, partition_key, start_time"),
+        @Index(name = "idx_appointment_room_partition_start", columnList = "room_id, partition_key, start_time"),
+        @Index(name = "idx_appointment_partition_start", columnList = "partition_key, start_time")
     }
 )
 public class Appointment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("appointment_seq")
     private Long id;
 
     @ManyToOne(optional = false)
@@ -45,6 +55,16 @@ public class Appointment {
     @Enumerated(EnumType.STRING)
     private AppointmentStatus status;
 
+    // Month the appointment starts in (yyyymm), derived from startTime on every write
+    @Column(nullable = false)
+    private Integer partitionKey;
+
+    @PrePersist
+    @PreUpdate
+    void assignPartitionKey() {
+        partitionKey = AppointmentPartitions.keyOf(startTime);
+    }
+
     public Long getId() {
         return id;
     }
@@ -101,5 +121,7 @@ public class Appointment {
         this.status = status;
     }
 
-    
+    public Integer getPartitionKey() {
+        return partitionKey;
+    }
 }
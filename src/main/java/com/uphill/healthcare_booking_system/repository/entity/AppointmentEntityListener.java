@@ -0,0 +1,30 @@
+package com.uphill.healthcare_booking_system.repository.entity;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.uphill.healthcare_booking_system.domain.events.AppointmentBookedEvent;
+
+import jakarta.persistence.PostPersist;
+
+// Hibernate resolves this listener through Spring, so every repository write of an Appointment
+// (single save, saveAll, ...) is turned into an AppointmentBookedEvent.
+@Component
+public class AppointmentEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AppointmentEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onPersist(Appointment appointment) {
+        eventPublisher.publishEvent(new AppointmentBookedEvent(
+                appointment.getId(),
+                appointment.getDoctor().getId(),
+                appointment.getRoom().getId(),
+                appointment.getStartTime(),
+                appointment.getEndTime()));
+    }
+}
@@ -0,0 +1,178 @@
+package com.uphill.healthcare_booking_system.repository.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import com.uphill.healthcare_booking_system.enums.AppointmentStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+// Read model of an appointment: the doctor, room and patient details listings show are copied in as flat columns
+// when the appointment is booked (same transaction), so reads never join the normalized tables. Keyed by the
+// appointment id, which is assigned, hence Persistable: save() inserts right away instead of merging.
+@Entity
+@Table(name = "appointment_view",
+    indexes = {
+        // Backs the keyset paging order
+        @Index(name = "idx_appointment_view_start_time_id", columnList = "start_time, id")
+    }
+)
+public class AppointmentView implements Persistable<Long> {
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long doctorId;
+
+    private String doctorName;
+
+    @Column(nullable = false)
+    private Long roomId;
+
+    private String roomName;
+
+    private String roomLocation;
+
+    @Column(nullable = false)
+    private Long patientId;
+
+    private String patientEmail;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    @Enumerated(EnumType.STRING)
+    private AppointmentStatus status;
+
+    @Transient
+    private boolean isNew = true;
+
+    public static AppointmentView of(Appointment appointment) {
+        AppointmentView view = new AppointmentView();
+        view.setId(appointment.getId());
+        view.setDoctorId(appointment.getDoctor().getId());
+        view.setDoctorName(appointment.getDoctor().getName());
+        view.setRoomId(appointment.getRoom().getId());
+        view.setRoomName(appointment.getRoom().getName());
+        view.setRoomLocation(appointment.getRoom().getLocation());
+        view.setPatientId(appointment.getPatient().getId());
+        view.setPatientEmail(appointment.getPatient().getEmail());
+        view.setStartTime(appointment.getStartTime());
+        view.setEndTime(appointment.getEndTime());
+        view.setStatus(appointment.getStatus());
+        return view;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public void setDoctorName(String doctorName) {
+        this.doctorName = doctorName;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public String getRoomName() {
+        return roomName;
+    }
+
+    public void setRoomName(String roomName) {
+        this.roomName = roomName;
+    }
+
+    public String getRoomLocation() {
+        return roomLocation;
+    }
+
+    public void setRoomLocation(String roomLocation) {
+        this.roomLocation = roomLocation;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public String getPatientEmail() {
+        return patientEmail;
+    }
+
+    public void setPatientEmail(String patientEmail) {
+        this.patientEmail = patientEmail;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AppointmentStatus status) {
+        this.status = status;
+    }
+}
@@ -2,14 +2,15 @@ package com.uphill.healthcare_booking_system.repository.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 public class Doctor {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("doctor_seq")
     private Long id;
 
     private String name;
@@ -17,6 +18,12 @@ public class Doctor {
     @Column(nullable = false)
     private String specialty;
 
+    // Only bumped by the optimistic allocation mode to claim the row with a compare-and-set
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -41,5 +48,13 @@ public class Doctor {
         this.specialty = specialty;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     
 }
@@ -0,0 +1,99 @@
+package com.uphill.healthcare_booking_system.repository.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import com.uphill.healthcare_booking_system.enums.OutboxStatus;
+import com.uphill.healthcare_booking_system.enums.SideEffect;
+
+// One pending side effect of a booking. It only points at the appointment, which is already committed next to it,
+// so the dispatcher rebuilds the call from the current appointment data.
+@Entity
+@Table(indexes = @Index(name = "idx_outbox_message_status_due", columnList = "status, next_attempt_at"))
+public class OutboxMessage {
+    @Id
+    @PooledSequence("outbox_message_seq")
+    private Long id;
+
+    @Column(nullable = false)
+    private Long appointmentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SideEffect sideEffect;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public SideEffect getSideEffect() {
+        return sideEffect;
+    }
+
+    public void setSideEffect(SideEffect sideEffect) {
+        this.sideEffect = sideEffect;
+    }
+
+    public OutboxStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OutboxStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -1,8 +1,6 @@
 package com.uphill.healthcare_booking_system.repository.entity;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.persistence.Column;
@@ -12,7 +10,7 @@ import jakarta.persistence.Table;
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = "email"))
 public class Patient {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("patient_seq")
     private Long id;
 
     private String name;
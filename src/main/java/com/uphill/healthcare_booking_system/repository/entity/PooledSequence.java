@@ -0,0 +1,19 @@
+package com.uphill.healthcare_booking_system.repository.entity;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+// Id drawn from the named database sequence through the pooled-lo optimizer, so a whole block of ids costs one
+// sequence call and inserts can be batched. The block size is booking.ids.allocation-size (see PooledSequenceGenerator).
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledSequence {
+
+    // Name of the database sequence
+    String value();
+}
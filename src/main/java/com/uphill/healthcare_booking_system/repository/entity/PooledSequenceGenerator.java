@@ -0,0 +1,45 @@
+package com.uphill.healthcare_booking_system.repository.entity;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+
+// A sequence generator whose increment (and so the number of ids handed out per sequence call) comes from the
+// Hibernate setting booking.ids.allocation-size instead of being fixed in the mapping. The sequence itself is
+// created with the same increment. It uses the pooled-lo optimizer: every sequence value is the first id of its own
+// block, taken with a single call. Native inserts that use NEXT VALUE FOR as the id therefore take the first id of
+// a block nobody else gets. The plain pooled optimizer reads the value as the end of a block and makes two calls
+// when it starts, so a native insert landing between those calls could reuse one of its ids.
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "booking.ids.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    private final String sequenceName;
+
+    public PooledSequenceGenerator(PooledSequence config, Member member, GeneratorCreationContext context) {
+        this.sequenceName = config.value();
+    }
+
+    @Override
+    public void configure(GeneratorCreationContext creationContext, Properties parameters) throws MappingException {
+        int allocationSize = creationContext.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+        if (allocationSize <= 0) {
+            throw new MappingException("Id allocation size must be positive, got " + allocationSize);
+        }
+        parameters.put(SEQUENCE_PARAM, sequenceName);
+        parameters.put(OptimizableGenerator.INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.put(OptimizableGenerator.OPT_PARAM, allocationSize > 1
+                ? StandardOptimizerDescriptor.POOLED_LO.getExternalName()
+                : StandardOptimizerDescriptor.NONE.getExternalName());
+        super.configure(creationContext, parameters);
+    }
+}
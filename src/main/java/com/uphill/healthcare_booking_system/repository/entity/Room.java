@@ -1,20 +1,28 @@
 package com.uphill.healthcare_booking_system.repository.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 public class Room {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("room_seq")
     private Long id;
 
     private String name;
 
     private String location;
 
+    // Only bumped by the optimistic allocation mode to claim the row with a compare-and-set
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -39,5 +47,13 @@ public class Room {
         this.location = location;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     
 }
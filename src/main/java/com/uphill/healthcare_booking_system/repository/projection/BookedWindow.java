@@ -0,0 +1,14 @@
+package com.uphill.healthcare_booking_system.repository.projection;
+
+import java.time.LocalDateTime;
+
+// Lightweight view of an appointment used to warm up the in-memory availability indexes
+public interface BookedWindow {
+    Long getDoctorId();
+
+    Long getRoomId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+}
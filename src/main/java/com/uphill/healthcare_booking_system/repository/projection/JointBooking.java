@@ -0,0 +1,21 @@
+package com.uphill.healthcare_booking_system.repository.projection;
+
+// Row returned by the joint allocation routine: the outcome (BOOKED, NO_DOCTOR or NO_ROOM) and, once booked, the new
+// appointment with the doctor and room it claimed
+public interface JointBooking {
+    String getOutcome();
+
+    Long getAppointmentId();
+
+    Long getDoctorId();
+
+    String getDoctorName();
+
+    String getDoctorSpecialty();
+
+    Long getRoomId();
+
+    String getRoomName();
+
+    String getRoomLocation();
+}
@@ -0,0 +1,41 @@
+package com.uphill.healthcare_booking_system.service;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentSummary;
+import com.uphill.healthcare_booking_system.repository.AppointmentViewRepository;
+
+// Hands every appointment to the sink as it comes off the database cursor, so memory use does not depend on how
+// many rows there are. The read-only transaction keeps the cursor open for the whole export.
+@Service
+public class AppointmentExportService {
+
+    private final AppointmentViewRepository appointmentViewRepository;
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentExportService.class);
+
+    public AppointmentExportService(AppointmentViewRepository appointmentViewRepository) {
+        this.appointmentViewRepository = appointmentViewRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportAppointments(Consumer<AppointmentSummary> sink) {
+        long exported = 0;
+        try (Stream<AppointmentSummary> appointments = appointmentViewRepository.streamAllSummaries()) {
+            Iterator<AppointmentSummary> rows = appointments.iterator();
+            while (rows.hasNext()) {
+                sink.accept(rows.next());
+                exported++;
+            }
+        }
+        log.info("Appointments exported: count={}", exported);
+        return exported;
+    }
+}
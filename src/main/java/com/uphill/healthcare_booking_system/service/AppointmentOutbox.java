@@ -0,0 +1,43 @@
+package com.uphill.healthcare_booking_system.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.uphill.healthcare_booking_system.enums.OutboxStatus;
+import com.uphill.healthcare_booking_system.enums.SideEffect;
+import com.uphill.healthcare_booking_system.repository.OutboxMessageRepository;
+import com.uphill.healthcare_booking_system.repository.entity.OutboxMessage;
+
+// Records the side effects of a booking in the booking transaction itself: they exist if and only if the
+// appointment was committed, and OutboxDispatcher delivers them later.
+@Service
+@ConditionalOnProperty(name = "booking.side-effects.mode", havingValue = "outbox", matchIfMissing = true)
+public class AppointmentOutbox {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+
+    public AppointmentOutbox(OutboxMessageRepository outboxMessageRepository) {
+        this.outboxMessageRepository = outboxMessageRepository;
+    }
+
+    public void enqueue(Collection<Long> appointmentIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> messages = new ArrayList<>(appointmentIds.size() * SideEffect.values().length);
+        for (Long appointmentId : appointmentIds) {
+            for (SideEffect sideEffect : SideEffect.values()) {
+                OutboxMessage message = new OutboxMessage();
+                message.setAppointmentId(appointmentId);
+                message.setSideEffect(sideEffect);
+                message.setStatus(OutboxStatus.PENDING);
+                message.setNextAttemptAt(now);
+                messages.add(message);
+            }
+        }
+        outboxMessageRepository.saveAll(messages);
+    }
+}
@@ -1,28 +1,45 @@
 package com.uphill.healthcare_booking_system.service;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.uphill.healthcare_booking_system.domain.AppointmentCursor;
+import com.uphill.healthcare_booking_system.domain.AppointmentCursorPage;
 import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.domain.AppointmentSummary;
 import com.uphill.healthcare_booking_system.domain.DoctorDomain;
 import com.uphill.healthcare_booking_system.domain.PatientDomain;
 import com.uphill.healthcare_booking_system.domain.RoomDomain;
 import com.uphill.healthcare_booking_system.domain.exceptions.InvalidAppointmentWindowException;
 import com.uphill.healthcare_booking_system.enums.AppointmentStatus;
+import com.uphill.healthcare_booking_system.enums.BookingStage;
+import com.uphill.healthcare_booking_system.enums.SideEffect;
+import com.uphill.healthcare_booking_system.repository.AppointmentPartitions;
 import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.AppointmentViewRepository;
 import com.uphill.healthcare_booking_system.repository.entity.Appointment;
+import com.uphill.healthcare_booking_system.repository.entity.AppointmentView;
 import com.uphill.healthcare_booking_system.repository.entity.Doctor;
 import com.uphill.healthcare_booking_system.repository.entity.Patient;
 import com.uphill.healthcare_booking_system.repository.entity.Room;
 
 import com.uphill.healthcare_booking_system.integration.DoctorCalendarClient;
 import com.uphill.healthcare_booking_system.integration.EmailClient;
+import com.uphill.healthcare_booking_system.integration.EmailTemplate;
 import com.uphill.healthcare_booking_system.integration.RoomReservationClient;
+import com.uphill.healthcare_booking_system.monitoring.BookingMetrics;
+import com.uphill.healthcare_booking_system.service.allocation.JointAllocator;
 
 import jakarta.transaction.Transactional;
 
@@ -30,31 +47,48 @@ import jakarta.transaction.Transactional;
 public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
+    private final AppointmentViewRepository appointmentViewRepository;
     private final PatientService patientService;
     private final DoctorCalendarClient doctorCalendarClient;
     private final RoomReservationClient roomReservationClient;
     private final EmailClient emailClient;
     private final DoctorService doctorService;
     private final RoomService roomService;
+    private final BookingMetrics bookingMetrics;
+    private final AppointmentOutbox appointmentOutbox;
+    private final JointAllocator jointAllocator;
 
     public AppointmentService(AppointmentRepository appointmentRepository,
+            AppointmentViewRepository appointmentViewRepository,
             PatientService patientService,
             DoctorCalendarClient doctorCalendarClient,
             RoomReservationClient roomReservationClient,
             EmailClient emailClient,
             DoctorService doctorService,
-            RoomService roomService) {
+            RoomService roomService,
+            BookingMetrics bookingMetrics,
+            @Nullable AppointmentOutbox appointmentOutbox,
+            @Nullable JointAllocator jointAllocator) {
         this.appointmentRepository = appointmentRepository;
+        this.appointmentViewRepository = appointmentViewRepository;
         this.patientService = patientService;
         this.doctorCalendarClient = doctorCalendarClient;
         this.roomReservationClient = roomReservationClient;
         this.emailClient = emailClient;
         this.doctorService = doctorService;
         this.roomService = roomService;
+        this.bookingMetrics = bookingMetrics;
+        this.appointmentOutbox = appointmentOutbox;
+        this.jointAllocator = jointAllocator;
     }
 
     private static final Logger log = LoggerFactory.getLogger(AppointmentService.class);
 
+    private static final String CONFIRMATION_SUBJECT = "Appointment confirmed";
+    private static final EmailTemplate CONFIRMATION_BODY = EmailTemplate.compile(
+            "Dear {patient}, your appointment with Dr. {doctor} is confirmed for {start} - {end}",
+            "patient", "doctor", "start", "end");
+
     @Transactional
     public AppointmentDomain bookAppointment(AppointmentDomain req) {
         final var start = req.getStartTime();
@@ -65,13 +99,23 @@ public class AppointmentService {
         checkTimeWindow(start, end);
 
         // Best scenario is to pass a PatientDomain object to the service, passing only those two params for simplification purposes
-        Patient patient = patientService.findOrCreatePatient(req.getPatient().getEmail(), req.getPatient().getName());
+        Patient patient = bookingMetrics.time(BookingStage.PATIENT_RESOLVE,
+                () -> patientService.findOrCreatePatient(req.getPatient().getEmail(), req.getPatient().getName()));
         log.debug("Patient resolved: id={}, email={}", patient.getId(), patient.getEmail());
 
-        Doctor doctor = doctorService.findAndLockAvailableDoctor(req.getSpecialty(), start, end);
+        if (jointAllocator != null) {
+            Appointment booked = bookingMetrics.time(BookingStage.ALLOCATE,
+                    () -> jointAllocator.book(req.getSpecialty(), start, end, patient));
+            AppointmentDomain domain = convertToDomain(booked);
+            bookingMetrics.run(BookingStage.DISPATCH, () -> publishSideEffects(List.of(domain)));
+            return domain;
+        }
+
+        Doctor doctor = doctorService.findAndLockAvailableDoctor(req.getSpecialty(), start, end,
+                req.getPatient().getEmail());
         log.debug("Doctor resolved: id={}, name={}", doctor.getId(), doctor.getName());
 
-        Room room = roomService.findAndLockAvailableRoom(start, end);
+        Room room = roomService.findAndLockAvailableRoom(start, end, req.getPatient().getEmail());
         log.debug("Room resolved: id={}, name={}", room.getId(), room.getName());
 
         // This can be refactored to a mapper method
@@ -83,34 +127,48 @@ public class AppointmentService {
         appt.setStartTime(start);
         appt.setEndTime(end);
 
-        Appointment savedAppointment = appointmentRepository.save(appt);
+        Appointment savedAppointment = bookingMetrics.time(BookingStage.SAVE, () -> {
+            Appointment saved = appointmentRepository.save(appt);
+            recordViews(List.of(saved));
+            return saved;
+        });
         log.info("Appointment persisted with id={}", savedAppointment.getId());
 
         AppointmentDomain domain = convertToDomain(savedAppointment);
 
-        // Those are async calls that do not interfere with the transactional context of the bookAppointment method.
-        // For even more of a scalable solution, the ideal solution would use an event-driven approach to make this loosely coupled, more scalabe
-        // and easier to debug.
-        log.info("Dispatching async tasks for appointment id={}", domain.getId());
-        updateDoctorCalendar(domain);
-        reserveRoom(domain);
-        sendConfirmationEmail(domain);
+        // The calendar, room reservation and email only go out if this transaction commits
+        bookingMetrics.run(BookingStage.DISPATCH, () -> publishSideEffects(List.of(domain)));
 
         return domain;
     }
 
-    public Page<AppointmentDomain> getAllAppointments(Pageable pageable) {
-        Page<Appointment> appointmentsPage = appointmentRepository.findAll(pageable);
-        return appointmentsPage.map(this::convertToDomain);
+    // Listings read the appointment_view read model only: one query, no joins, no entities
+    public Page<AppointmentSummary> getAllAppointments(Pageable pageable) {
+        return appointmentViewRepository.findAllSummaries(pageable);
+    }
+
+    // A null cursor starts from the beginning. One extra row is read to know whether there is a next page.
+    public AppointmentCursorPage getAppointmentsAfter(AppointmentCursor cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<AppointmentSummary> rows = cursor == null
+                ? appointmentViewRepository.findFirstPageByStartTime(limit)
+                : appointmentViewRepository.findPageAfter(cursor.getStartTime(), cursor.getId(), limit);
+
+        List<AppointmentSummary> appointments = rows.size() > size ? rows.subList(0, size) : rows;
+        AppointmentCursor next = rows.size() > size ? AppointmentCursor.after(appointments.get(size - 1)) : null;
+        return new AppointmentCursorPage(appointments, next);
     }
 
-    private void checkTimeWindow(LocalDateTime start, LocalDateTime end) {
-        if (start == null || end == null || !end.isAfter(start) || !start.isAfter(LocalDateTime.now())) {
+    // The length cap is what lets overlap queries bound their start_time range (see AppointmentPartitions)
+    void checkTimeWindow(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || !end.isAfter(start) || !start.isAfter(LocalDateTime.now())
+                || end.isAfter(start.plus(AppointmentPartitions.MAX_DURATION))) {
             throw new InvalidAppointmentWindowException();
         }
     }
 
-    private AppointmentDomain convertToDomain(Appointment appointment) {
+    // Package-private so the jmh mapping benchmark can call it directly
+    AppointmentDomain convertToDomain(Appointment appointment) {
         // Ideally, this doctor part should be on it's own domain
         DoctorDomain doctorDomain = new DoctorDomain();
         doctorDomain.setId(appointment.getDoctor().getId());
@@ -140,30 +198,71 @@ public class AppointmentService {
         return domain;
     }
 
-    private void updateDoctorCalendar(AppointmentDomain appointment) {
-        doctorCalendarClient.reserveSlot(
+    // Must run inside the transaction that persisted the appointments, so the read model never shows a booking that
+    // rolled back nor misses one that committed
+    void recordViews(List<Appointment> appointments) {
+        appointmentViewRepository.saveAll(appointments.stream().map(AppointmentView::of).toList());
+    }
+
+    // Must run inside the transaction that persisted the appointments. In outbox mode the side effects are written
+    // to the outbox in that transaction; otherwise the clients are called once it commits.
+    void publishSideEffects(List<AppointmentDomain> appointments) {
+        if (appointmentOutbox != null) {
+            appointmentOutbox.enqueue(appointments.stream().map(AppointmentDomain::getId).toList());
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appointments.forEach(this::dispatchAsyncTasks);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                appointments.forEach(AppointmentService.this::dispatchAsyncTasks);
+            }
+        });
+    }
+
+    // Without an outbox nothing retries a side effect that gave up; the integration guards log it
+    void dispatchAsyncTasks(AppointmentDomain appointment) {
+        log.info("Dispatching async tasks for appointment id={}", appointment.getId());
+        for (SideEffect sideEffect : SideEffect.values()) {
+            deliverSideEffect(sideEffect, appointment);
+        }
+    }
+
+    // Completes once the partner confirmed the side effect, exceptionally if it could not be delivered
+    CompletableFuture<Void> deliverSideEffect(SideEffect sideEffect, AppointmentDomain appointment) {
+        return switch (sideEffect) {
+            case DOCTOR_CALENDAR -> updateDoctorCalendar(appointment);
+            case ROOM_RESERVATION -> reserveRoom(appointment);
+            case CONFIRMATION_EMAIL -> sendConfirmationEmail(appointment);
+        };
+    }
+
+    private CompletableFuture<Void> updateDoctorCalendar(AppointmentDomain appointment) {
+        return doctorCalendarClient.reserveSlot(
                 appointment.getDoctor().getId(),
                 appointment.getStartTime(),
-                appointment.getEndTime());
-        log.info("Doctor calendar updated for appointment id={}", appointment.getId());
+                appointment.getEndTime())
+                .thenRun(() -> log.info("Doctor calendar updated for appointment id={}", appointment.getId()));
     }
 
-    private void reserveRoom(AppointmentDomain appointment) {
-        roomReservationClient.reserveRoom(
+    private CompletableFuture<Void> reserveRoom(AppointmentDomain appointment) {
+        return roomReservationClient.reserveRoom(
                 appointment.getRoom().getId(),
                 appointment.getStartTime(),
-                appointment.getEndTime());
-        log.info("Room reserved for appointment id={}", appointment.getId());
+                appointment.getEndTime())
+                .thenRun(() -> log.info("Room reserved for appointment id={}", appointment.getId()));
     }
 
-    private void sendConfirmationEmail(AppointmentDomain appointment) {
-        String subject = "Appointment confirmed";
-        String body = String.format("Dear %s, your appointment with Dr. %s is confirmed for %s - %s",
+    private CompletableFuture<Void> sendConfirmationEmail(AppointmentDomain appointment) {
+        String body = CONFIRMATION_BODY.render(
                 appointment.getPatient().getName(),
                 appointment.getDoctor().getName(),
                 appointment.getStartTime(),
                 appointment.getEndTime());
-        emailClient.sendAppointmentConfirmation(appointment.getPatient().getEmail(), subject, body);
-        log.info("Email sent for appointment id={}", appointment.getId());
+        return emailClient.sendAppointmentConfirmation(appointment.getPatient().getEmail(), CONFIRMATION_SUBJECT, body)
+                .thenRun(() -> log.info("Email sent for appointment id={}", appointment.getId()));
     }
 }
@@ -0,0 +1,32 @@
+package com.uphill.healthcare_booking_system.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.uphill.healthcare_booking_system.repository.AppointmentViewRepository;
+
+// Bookings write their appointment_view row themselves; this only catches up appointments that exist without one,
+// e.g. rows from before the view was introduced. Idempotent, so it simply runs on every startup.
+@Component
+public class AppointmentViewBackfill {
+
+    private final AppointmentViewRepository appointmentViewRepository;
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentViewBackfill.class);
+
+    public AppointmentViewBackfill(AppointmentViewRepository appointmentViewRepository) {
+        this.appointmentViewRepository = appointmentViewRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public int backfill() {
+        int inserted = appointmentViewRepository.backfillMissing();
+        log.info("Appointment view backfilled: rows={}", inserted);
+        return inserted;
+    }
+}
@@ -0,0 +1,56 @@
+package com.uphill.healthcare_booking_system.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import com.uphill.healthcare_booking_system.domain.FreeSlot;
+import com.uphill.healthcare_booking_system.domain.exceptions.AvailabilityDisabledException;
+import com.uphill.healthcare_booking_system.domain.exceptions.AvailabilityNotReadyException;
+import com.uphill.healthcare_booking_system.domain.exceptions.InvalidAppointmentWindowException;
+import com.uphill.healthcare_booking_system.repository.AppointmentPartitions;
+import com.uphill.healthcare_booking_system.service.availability.FreeSlotIndex;
+
+// Answers "when could I book" from memory, so clients can pick a free window instead of probing with bookings
+@Service
+public class AvailabilityService {
+
+    private final FreeSlotIndex freeSlotIndex;
+    private final Duration maxRange;
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityService.class);
+
+    public AvailabilityService(@Nullable FreeSlotIndex freeSlotIndex,
+            @Value("${booking.availability.free-slots.max-range-days:14}") int maxRangeDays) {
+        this.freeSlotIndex = freeSlotIndex;
+        this.maxRange = Duration.ofDays(maxRangeDays);
+    }
+
+    public List<FreeSlot> findFreeSlots(String specialty, LocalDateTime from, LocalDateTime to, Duration duration,
+            int limit) {
+        if (from == null || to == null || duration == null || duration.isNegative() || duration.isZero()
+                || duration.compareTo(AppointmentPartitions.MAX_DURATION) > 0
+                || !to.isAfter(from) || to.isAfter(from.plus(maxRange))) {
+            throw new InvalidAppointmentWindowException();
+        }
+        if (freeSlotIndex == null) {
+            throw new AvailabilityDisabledException();
+        }
+        if (!freeSlotIndex.isReady()) {
+            throw new AvailabilityNotReadyException();
+        }
+
+        // Past windows can not be booked anyway
+        LocalDateTime now = LocalDateTime.now();
+        List<FreeSlot> slots = freeSlotIndex.findFreeSlots(specialty, from.isBefore(now) ? now : from, to, duration, limit);
+        log.debug("Free slots found: specialty={}, from={}, to={}, duration={}, count={}",
+                specialty, from, to, duration, slots.size());
+        return slots;
+    }
+}
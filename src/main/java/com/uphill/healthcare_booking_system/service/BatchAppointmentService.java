@@ -0,0 +1,270 @@
+package com.uphill.healthcare_booking_system.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.domain.BatchBookingResult;
+import com.uphill.healthcare_booking_system.domain.exceptions.InvalidAppointmentWindowException;
+import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableDoctorException;
+import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableRoomException;
+import com.uphill.healthcare_booking_system.enums.AppointmentStatus;
+import com.uphill.healthcare_booking_system.enums.BatchItemStatus;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.DoctorRepository;
+import com.uphill.healthcare_booking_system.repository.RoomRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Appointment;
+import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.entity.Patient;
+import com.uphill.healthcare_booking_system.repository.entity.Room;
+import com.uphill.healthcare_booking_system.repository.projection.BookedWindow;
+import com.uphill.healthcare_booking_system.service.availability.IntervalSet;
+
+// Books many appointments at once. Instead of running the single-booking flow per item, the items are sorted by start
+// time and cut into chunks spanning at most max-span-hours. Every chunk reads the schedule of its span in one query,
+// assigns doctors and rooms in memory, locks only what it picked, re-reads just those doctors' and rooms' bookings
+// under the locks and saves everything with one saveAll. Each item gets its own result.
+@Service
+public class BatchAppointmentService {
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final RoomRepository roomRepository;
+    private final PatientService patientService;
+    private final AppointmentService appointmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration maxSpan;
+
+    private static final Logger log = LoggerFactory.getLogger(BatchAppointmentService.class);
+
+    public BatchAppointmentService(AppointmentRepository appointmentRepository,
+            DoctorRepository doctorRepository,
+            RoomRepository roomRepository,
+            PatientService patientService,
+            AppointmentService appointmentService,
+            PlatformTransactionManager transactionManager,
+            @Value("${booking.batch.chunk-size:100}") int chunkSize,
+            @Value("${booking.batch.max-span-hours:24}") long maxSpanHours) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.roomRepository = roomRepository;
+        this.patientService = patientService;
+        this.appointmentService = appointmentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxSpan = Duration.ofHours(maxSpanHours);
+    }
+
+    public List<BatchBookingResult> bookAppointments(List<AppointmentDomain> requests) {
+        log.info("Batch booking requested for {} appointments", requests.size());
+        BatchBookingResult[] results = new BatchBookingResult[requests.size()];
+
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                appointmentService.checkTimeWindow(requests.get(i).getStartTime(), requests.get(i).getEndTime());
+                valid.add(i);
+            } catch (InvalidAppointmentWindowException e) {
+                results[i] = BatchBookingResult.rejected(i, BatchItemStatus.INVALID, e.getMessage());
+            }
+        }
+
+        Map<String, Patient> patients = resolvePatients(requests, valid);
+
+        for (List<Integer> chunk : chunksByStartTime(requests, valid)) {
+            try {
+                Map<Integer, BatchBookingResult> chunkResults = transactionTemplate.execute(
+                        status -> bookChunk(requests, chunk, patients));
+                chunkResults.forEach((index, result) -> results[index] = result);
+            } catch (RuntimeException e) {
+                log.error("Batch chunk of {} appointments failed", chunk.size(), e);
+                chunk.forEach(index -> results[index] = BatchBookingResult.rejected(
+                        index, BatchItemStatus.FAILED, "Appointment could not be persisted, try again later"));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // Items in start time order, cut whenever a chunk is full or would span more than maxSpan, so each chunk's
+    // schedule read stays small however far apart the batch's windows are
+    private List<List<Integer>> chunksByStartTime(List<AppointmentDomain> requests, List<Integer> indexes) {
+        List<Integer> ordered = indexes.stream()
+                .sorted(Comparator.comparing((Integer i) -> requests.get(i).getStartTime()).thenComparing(i -> i))
+                .toList();
+        List<List<Integer>> chunks = new ArrayList<>();
+        List<Integer> chunk = new ArrayList<>();
+        LocalDateTime chunkStart = null;
+        for (Integer i : ordered) {
+            LocalDateTime start = requests.get(i).getStartTime();
+            if (!chunk.isEmpty() && (chunk.size() == chunkSize || !start.isBefore(chunkStart.plus(maxSpan)))) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+            }
+            if (chunk.isEmpty()) {
+                chunkStart = start;
+            }
+            chunk.add(i);
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private Map<String, Patient> resolvePatients(List<AppointmentDomain> requests, List<Integer> indexes) {
+        Map<String, String> namesByEmail = new LinkedHashMap<>();
+        indexes.forEach(i -> namesByEmail.putIfAbsent(
+                requests.get(i).getPatient().getEmail(), requests.get(i).getPatient().getName()));
+        if (namesByEmail.isEmpty()) {
+            return Map.of();
+        }
+        return patientService.findOrCreatePatients(namesByEmail);
+    }
+
+    // The chunk's items come in start time order, see chunksByStartTime
+    private Map<Integer, BatchBookingResult> bookChunk(List<AppointmentDomain> requests, List<Integer> ordered,
+            Map<String, Patient> patients) {
+        Map<Integer, BatchBookingResult> results = new HashMap<>();
+        LocalDateTime spanStart = requests.get(ordered.get(0)).getStartTime();
+        LocalDateTime spanEnd = ordered.stream().map(i -> requests.get(i).getEndTime())
+                .max(Comparator.naturalOrder()).orElseThrow();
+
+        Set<String> specialties = ordered.stream().map(i -> requests.get(i).getSpecialty()).collect(Collectors.toSet());
+        Map<String, List<Doctor>> doctorsBySpecialty = doctorRepository.findBySpecialtyInOrderByIdAsc(specialties).stream()
+                .collect(Collectors.groupingBy(Doctor::getSpecialty, LinkedHashMap::new, Collectors.toList()));
+        List<Room> rooms = roomRepository.findAll(Sort.by("id"));
+
+        // Assign in memory against the schedule of the whole span, including what this chunk already picked
+        Schedule planned = Schedule.of(appointmentRepository.findBookedWindowsOverlapping(spanStart, spanEnd));
+        Map<Integer, Doctor> doctorByItem = new HashMap<>();
+        Map<Integer, Room> roomByItem = new HashMap<>();
+        for (Integer i : ordered) {
+            AppointmentDomain req = requests.get(i);
+            Doctor doctor = doctorsBySpecialty.getOrDefault(req.getSpecialty(), List.of()).stream()
+                    .filter(d -> planned.isDoctorFree(d.getId(), req.getStartTime(), req.getEndTime()))
+                    .findFirst()
+                    .orElse(null);
+            if (doctor == null) {
+                results.put(i, BatchBookingResult.rejected(i, BatchItemStatus.CONFLICT,
+                        new NoAvailableDoctorException(req.getSpecialty(), req.getStartTime(), req.getEndTime()).getMessage()));
+                continue;
+            }
+            Room room = rooms.stream()
+                    .filter(r -> planned.isRoomFree(r.getId(), req.getStartTime(), req.getEndTime()))
+                    .findFirst()
+                    .orElse(null);
+            if (room == null) {
+                results.put(i, BatchBookingResult.rejected(i, BatchItemStatus.CONFLICT,
+                        new NoAvailableRoomException(req.getStartTime(), req.getEndTime()).getMessage()));
+                continue;
+            }
+            planned.book(doctor.getId(), room.getId(), req.getStartTime(), req.getEndTime());
+            doctorByItem.put(i, doctor);
+            roomByItem.put(i, room);
+        }
+        if (doctorByItem.isEmpty()) {
+            return results;
+        }
+
+        // Lock only what was picked, then re-check their bookings under the locks: only these rows matter now, so the
+        // whole span is not read again. Every booking locks doctors before rooms, and each kind in id order, so
+        // concurrent batches and single bookings cannot deadlock on each other
+        TreeSet<Long> doctorIds = new TreeSet<>(doctorByItem.values().stream().map(Doctor::getId).toList());
+        TreeSet<Long> roomIds = new TreeSet<>(roomByItem.values().stream().map(Room::getId).toList());
+        doctorRepository.lockAllById(doctorIds);
+        roomRepository.lockAllById(roomIds);
+        Schedule committed = Schedule.of(
+                appointmentRepository.findBookedWindowsForDoctorsOrRooms(doctorIds, roomIds, spanStart, spanEnd));
+
+        List<Integer> bookedItems = new ArrayList<>();
+        List<Appointment> appointments = new ArrayList<>();
+        for (Integer i : ordered) {
+            Doctor doctor = doctorByItem.get(i);
+            if (doctor == null) {
+                continue;
+            }
+            AppointmentDomain req = requests.get(i);
+            Room room = roomByItem.get(i);
+            if (!committed.isDoctorFree(doctor.getId(), req.getStartTime(), req.getEndTime())
+                    || !committed.isRoomFree(room.getId(), req.getStartTime(), req.getEndTime())) {
+                results.put(i, BatchBookingResult.rejected(i, BatchItemStatus.CONFLICT,
+                        "Doctor or room was taken by a concurrent booking"));
+                continue;
+            }
+            committed.book(doctor.getId(), room.getId(), req.getStartTime(), req.getEndTime());
+
+            Appointment appt = new Appointment();
+            appt.setDoctor(doctor);
+            appt.setRoom(room);
+            appt.setPatient(patients.get(req.getPatient().getEmail()));
+            appt.setStatus(AppointmentStatus.SCHEDULED);
+            appt.setStartTime(req.getStartTime());
+            appt.setEndTime(req.getEndTime());
+            appointments.add(appt);
+            bookedItems.add(i);
+        }
+
+        List<Appointment> saved = appointmentRepository.saveAll(appointments);
+        appointmentService.recordViews(saved);
+        List<AppointmentDomain> booked = new ArrayList<>(saved.size());
+        for (int k = 0; k < saved.size(); k++) {
+            int index = bookedItems.get(k);
+            AppointmentDomain domain = appointmentService.convertToDomain(saved.get(k));
+            booked.add(domain);
+            results.put(index, BatchBookingResult.booked(index, domain));
+        }
+        // Side effects are tied to this chunk's commit, like for a single booking
+        if (!booked.isEmpty()) {
+            appointmentService.publishSideEffects(booked);
+        }
+        log.info("Batch chunk persisted: booked={}, rejected={}", saved.size(), results.size() - saved.size());
+        return results;
+    }
+
+    private static class Schedule {
+        private final Map<Long, IntervalSet> doctors = new HashMap<>();
+        private final Map<Long, IntervalSet> rooms = new HashMap<>();
+
+        static Schedule of(List<BookedWindow> windows) {
+            Schedule schedule = new Schedule();
+            for (BookedWindow window : windows) {
+                schedule.book(window.getDoctorId(), window.getRoomId(), window.getStartTime(), window.getEndTime());
+            }
+            return schedule;
+        }
+
+        boolean isDoctorFree(Long doctorId, LocalDateTime start, LocalDateTime end) {
+            IntervalSet booked = doctors.get(doctorId);
+            return booked == null || !booked.overlaps(start, end);
+        }
+
+        boolean isRoomFree(Long roomId, LocalDateTime start, LocalDateTime end) {
+            IntervalSet booked = rooms.get(roomId);
+            return booked == null || !booked.overlaps(start, end);
+        }
+
+        void book(Long doctorId, Long roomId, LocalDateTime start, LocalDateTime end) {
+            doctors.computeIfAbsent(doctorId, key -> new IntervalSet()).add(start, end);
+            rooms.computeIfAbsent(roomId, key -> new IntervalSet()).add(start, end);
+        }
+    }
+}
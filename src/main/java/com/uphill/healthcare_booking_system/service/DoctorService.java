@@ -1,51 +1,176 @@
 package com.uphill.healthcare_booking_system.service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableDoctorException;
+import com.uphill.healthcare_booking_system.enums.AllocationLockMode;
+import com.uphill.healthcare_booking_system.enums.BookingStage;
+import com.uphill.healthcare_booking_system.monitoring.BookingMetrics;
 import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
 import com.uphill.healthcare_booking_system.repository.DoctorRepository;
 import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.projection.BookedWindow;
+import com.uphill.healthcare_booking_system.service.allocation.CandidateSpreader;
+import com.uphill.healthcare_booking_system.service.allocation.SkipLockedSupport;
+import com.uphill.healthcare_booking_system.service.availability.DoctorAvailabilityIndex;
 
 @Service
 public class DoctorService {
     @Autowired private DoctorRepository doctorRepository;
     @Autowired private AppointmentRepository appointmentRepository;
+    @Autowired(required = false) private DoctorAvailabilityIndex doctorAvailabilityIndex;
+    @Autowired private BookingMetrics bookingMetrics;
+    @Autowired private CandidateSpreader candidateSpreader;
+    @Autowired private SkipLockedSupport skipLockedSupport;
+    @Value("${booking.allocation.lock-mode:pessimistic}") private AllocationLockMode lockMode = AllocationLockMode.PESSIMISTIC;
+    @Value("${booking.allocation.skip-locked.candidates:10}") private int skipLockedCandidates = 10;
     private static final Logger log = LoggerFactory.getLogger(DoctorService.class);
 
     // For simplicity reasons, this will return a Doctor instead of a DoctorDomain, but it should return a domain on the service layer
     public Doctor findAndLockAvailableDoctor(String specialty, LocalDateTime start, LocalDateTime end) {
-        Doctor candidate = doctorRepository
-                .findFirstAvailableBySpecialtyAndWindow(specialty, start, end, PageRequest.of(0, 1))
-                .stream()
-                .findFirst()
-                .orElseThrow(() -> new NoAvailableDoctorException(specialty, start, end));
+        return findAndLockAvailableDoctor(specialty, start, end, null);
+    }
+
+    // spreadKey (the patient email) is only used by the patient-hash selection policy
+    public Doctor findAndLockAvailableDoctor(String specialty, LocalDateTime start, LocalDateTime end, String spreadKey) {
+        if (lockMode == AllocationLockMode.OPTIMISTIC) {
+            return claimAvailableDoctor(specialty, start, end, spreadKey);
+        }
+        if (lockMode == AllocationLockMode.SKIP_LOCKED) {
+            return lockFirstUnheldDoctor(specialty, start, end, spreadKey);
+        }
+        if (doctorAvailabilityIndex != null && doctorAvailabilityIndex.isReady()) {
+            Doctor indexed = lockIndexedCandidate(specialty, start, end, spreadKey);
+            if (indexed != null) {
+                return indexed;
+            }
+            bookingMetrics.recordFallback("doctor", "stale_index");
+        }
 
-        Doctor locked = doctorRepository.lockById(candidate.getId());
+        Doctor candidate = bookingMetrics.time(BookingStage.DOCTOR_SELECT,
+                () -> selectAvailableDoctor(specialty, start, end, spreadKey));
+        Doctor locked = lockDoctor(candidate.getId());
         log.info("Doctor locked: id={}, name={}", locked.getId(), locked.getName());
 
         // This was an improvement suggested by ChatGPT in order to confirm that the doctor is still available for the appointment
-        boolean stillFree = appointmentRepository.existsOverlapForDoctor(locked.getId(), start, end);
+        Long lockedId = locked.getId();
+        boolean stillFree = bookingMetrics.time(BookingStage.DOCTOR_SELECT,
+                () -> appointmentRepository.existsOverlapForDoctor(lockedId, start, end));
         if (stillFree) {
-            candidate = doctorRepository
-                    .findFirstAvailableBySpecialtyAndWindow(specialty, start, end, PageRequest.of(0, 1))
-                    .stream()
-                    .findFirst()
-                    .orElseThrow(() -> new NoAvailableDoctorException(specialty, start, end));
+            bookingMetrics.recordFallback("doctor", "requery");
+            candidate = bookingMetrics.time(BookingStage.DOCTOR_SELECT,
+                    () -> selectAvailableDoctor(specialty, start, end, spreadKey));
 
-            locked = doctorRepository.lockById(candidate.getId());
+            locked = lockDoctor(candidate.getId());
             log.info("Doctor locked: id={}, name={}", locked.getId(), locked.getName());
-            if (appointmentRepository.existsOverlapForDoctor(locked.getId(), start, end)) {
+            Long relockedId = locked.getId();
+            if (bookingMetrics.time(BookingStage.DOCTOR_SELECT,
+                    () -> appointmentRepository.existsOverlapForDoctor(relockedId, start, end))) {
                 log.error("Doctor is still free for appointment id={}", locked.getId());
                 throw new NoAvailableDoctorException(specialty, start, end);
             }
         }
         return locked;
     }
+
+    private Doctor selectAvailableDoctor(String specialty, LocalDateTime start, LocalDateTime end, String spreadKey) {
+        List<Doctor> free = doctorRepository.findFirstAvailableBySpecialtyAndWindow(specialty, start, end,
+                PageRequest.of(0, candidateSpreader.getCandidates()));
+        return candidateSpreader.arrange(free, Doctor::getId, spreadKey, ids -> bookedMinutesOnDay(ids, start))
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new NoAvailableDoctorException(specialty, start, end));
+    }
+
+    private Map<Long, Long> bookedMinutesOnDay(Collection<Long> doctorIds, LocalDateTime start) {
+        LocalDateTime dayStart = start.toLocalDate().atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+        List<BookedWindow> windows = appointmentRepository.findBookedWindowsForDoctors(doctorIds, dayStart, dayEnd);
+        return CandidateSpreader.bookedMinutes(windows, BookedWindow::getDoctorId, dayStart, dayEnd);
+    }
+
+    private Doctor lockDoctor(Long doctorId) {
+        return bookingMetrics.time(BookingStage.DOCTOR_LOCK,
+                () -> bookingMetrics.timeDoctorLockWait(() -> doctorRepository.lockById(doctorId)));
+    }
+
+    // The index answers "who is free" without touching the appointments table; the database is only used to lock
+    // the pick and confirm it. Returns null when the index was stale, including when it knows no free doctor (it may
+    // not have seen a doctor added since its last roster refresh), so the caller can fall back to the query path.
+    private Doctor lockIndexedCandidate(String specialty, LocalDateTime start, LocalDateTime end, String spreadKey) {
+        Long candidateId = bookingMetrics.time(BookingStage.DOCTOR_SELECT, () -> candidateSpreader.arrange(
+                        doctorAvailabilityIndex.findFreeDoctors(specialty, start, end, candidateSpreader.getCandidates()),
+                        id -> id, spreadKey, ids -> bookedMinutesOnDay(ids, start)))
+                .stream()
+                .findFirst()
+                .orElse(null);
+        if (candidateId == null) {
+            return null;
+        }
+
+        Doctor locked = lockDoctor(candidateId);
+        if (locked != null && !bookingMetrics.time(BookingStage.DOCTOR_SELECT,
+                () -> appointmentRepository.existsOverlapForDoctor(locked.getId(), start, end))) {
+            log.info("Doctor locked from index: id={}, name={}", locked.getId(), locked.getName());
+            return locked;
+        }
+        log.info("Doctor availability index is stale for doctor id={}, falling back to query", candidateId);
+        return null;
+    }
+
+    // Optimistic mode: claims the first candidate without a row lock; a booking that lost the race fails its commit
+    // and is retried from the start by ClaimBackoff.retryOnConflict
+    private Doctor claimAvailableDoctor(String specialty, LocalDateTime start, LocalDateTime end, String spreadKey) {
+        Doctor candidate = bookingMetrics.time(BookingStage.DOCTOR_SELECT,
+                () -> selectAvailableDoctor(specialty, start, end, spreadKey));
+        Doctor claimed = bookingMetrics.time(BookingStage.DOCTOR_LOCK, () -> doctorRepository.claimById(candidate.getId()));
+        log.info("Doctor claimed: id={}, name={}", claimed.getId(), claimed.getName());
+        return claimed;
+    }
+
+    // Skip-locked mode: locks the first candidate no other booking holds, moving on past held or meanwhile booked ones
+    private Doctor lockFirstUnheldDoctor(String specialty, LocalDateTime start, LocalDateTime end, String spreadKey) {
+        List<Long> candidateIds = bookingMetrics.time(BookingStage.DOCTOR_SELECT, () -> candidateSpreader.arrange(
+                doctorAvailabilityIndex != null && doctorAvailabilityIndex.isReady()
+                        ? doctorAvailabilityIndex.findFreeDoctors(specialty, start, end, skipLockedCandidates)
+                        : doctorRepository.findFirstAvailableBySpecialtyAndWindow(specialty, start, end,
+                                PageRequest.of(0, skipLockedCandidates)).stream().map(Doctor::getId).toList(),
+                id -> id, spreadKey, ids -> bookedMinutesOnDay(ids, start)));
+
+        for (Long candidateId : candidateIds) {
+            Doctor locked = bookingMetrics.time(BookingStage.DOCTOR_LOCK, () -> tryLockDoctor(candidateId));
+            if (locked == null) {
+                bookingMetrics.recordFallback("doctor", "skipped_locked");
+                continue;
+            }
+            if (!bookingMetrics.time(BookingStage.DOCTOR_SELECT,
+                    () -> appointmentRepository.existsOverlapForDoctor(locked.getId(), start, end))) {
+                log.info("Doctor locked without waiting: id={}, name={}", locked.getId(), locked.getName());
+                return locked;
+            }
+        }
+        throw new NoAvailableDoctorException(specialty, start, end);
+    }
+
+    private Doctor tryLockDoctor(Long doctorId) {
+        if (skipLockedSupport.isSupported()) {
+            return doctorRepository.lockByIdSkipLocked(doctorId);
+        }
+        try {
+            return doctorRepository.lockByIdNoWait(doctorId);
+        } catch (PessimisticLockingFailureException e) {
+            return null;
+        }
+    }
 }
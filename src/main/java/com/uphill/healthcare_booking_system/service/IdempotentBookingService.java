@@ -0,0 +1,217 @@
+package com.uphill.healthcare_booking_system.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.domain.exceptions.IdempotencyKeyReuseException;
+import com.uphill.healthcare_booking_system.domain.exceptions.InvalidIdempotencyKeyException;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.IdempotencyRecordRepository;
+import com.uphill.healthcare_booking_system.repository.entity.IdempotencyRecord;
+import com.uphill.healthcare_booking_system.service.allocation.ClaimBackoff;
+import com.uphill.healthcare_booking_system.service.allocation.ResourceLockManager;
+import com.uphill.healthcare_booking_system.service.cache.LruCache;
+import com.uphill.healthcare_booking_system.service.cache.LruCacheMetrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Bookings made under a client Idempotency-Key. A retry gets the appointment its key already booked without going
+// near the allocator: recent keys are answered from a bounded in-memory map, older ones (or after a restart) from
+// the idempotency_record table, which is written in the booking transaction and purged once the TTL passes.
+// Duplicates arriving while the first one is still booking wait for it and share its outcome. Failed bookings are
+// not recorded, so retrying one after a 409/503 allocates again.
+@Service
+public class IdempotentBookingService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final AppointmentService appointmentService;
+    private final AppointmentRepository appointmentRepository;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ResourceLockManager resourceLockManager;
+    private final ClaimBackoff claimBackoff;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final LruCache<String, StoredBooking> recentBookings;
+    private final Map<String, InFlightBooking> inFlight = new ConcurrentHashMap<>();
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentBookingService.class);
+
+    public IdempotentBookingService(AppointmentService appointmentService,
+            AppointmentRepository appointmentRepository,
+            IdempotencyRecordRepository idempotencyRecordRepository,
+            ResourceLockManager resourceLockManager,
+            ClaimBackoff claimBackoff,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${booking.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${booking.idempotency.cache-size:10000}") int cacheSize) {
+        if (ttlHours <= 0) {
+            throw new IllegalArgumentException("Idempotency TTL must be positive, got " + ttlHours + " hours");
+        }
+        this.appointmentService = appointmentService;
+        this.appointmentRepository = appointmentRepository;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.resourceLockManager = resourceLockManager;
+        this.claimBackoff = claimBackoff;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.recentBookings = new LruCache<>(cacheSize);
+        new LruCacheMetrics(recentBookings, "idempotency-keys").bindTo(meterRegistry);
+    }
+
+    public AppointmentDomain bookAppointment(String key, AppointmentDomain req) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException();
+        }
+        String fingerprint = fingerprint(req);
+
+        StoredBooking recent = recentBookings.get(key);
+        if (recent != null && recent.expiresAt.isAfter(LocalDateTime.now())) {
+            log.info("Idempotent replay from memory: key={}, appointmentId={}", key, recent.appointment.getId());
+            return recent.replay(fingerprint);
+        }
+
+        InFlightBooking mine = new InFlightBooking(fingerprint);
+        InFlightBooking running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            log.info("Idempotent duplicate joined the booking in flight: key={}", key);
+            return running.await(fingerprint);
+        }
+        try {
+            StoredBooking stored = bookOnce(key, fingerprint, req);
+            recentBookings.put(key, stored);
+            mine.future.complete(stored.appointment);
+            return stored.replay(fingerprint);
+        } catch (RuntimeException e) {
+            mine.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Expired keys are also deleted on reuse, so the purge only keeps the table small
+    @Scheduled(fixedDelayString = "${booking.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        Integer purged = transactionTemplate.execute(
+                status -> idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (purged != null && purged > 0) {
+            log.info("Expired idempotency keys purged: count={}", purged);
+        }
+    }
+
+    private StoredBooking bookOnce(String key, String fingerprint, AppointmentDomain req) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyRecord> recorded = idempotencyRecordRepository.findById(key);
+        if (recorded.isPresent() && recorded.get().getExpiresAt().isAfter(now)) {
+            log.info("Idempotent replay from table: key={}, appointmentId={}", key, recorded.get().getAppointmentId());
+            return load(recorded.get());
+        }
+        boolean expired = recorded.isPresent();
+        try {
+            AppointmentDomain booked = claimBackoff.retryOnConflict(() -> resourceLockManager.callForBooking(
+                    req.getSpecialty(), req.getStartTime(), req.getEndTime(), () -> transactionTemplate.execute(status -> {
+                        if (expired) {
+                            idempotencyRecordRepository.deleteIfExpired(key, now);
+                        }
+                        AppointmentDomain appointment = appointmentService.bookAppointment(req);
+                        idempotencyRecordRepository.insert(key, fingerprint, appointment.getId(), now, now.plus(ttl));
+                        return appointment;
+                    })));
+            return new StoredBooking(fingerprint, now.plus(ttl), booked);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance recorded the key while this one was booking; its booking stands and this one rolled back
+            IdempotencyRecord winner = idempotencyRecordRepository.findById(key)
+                    .filter(record -> record.getExpiresAt().isAfter(LocalDateTime.now()))
+                    .orElseThrow(() -> e);
+            log.info("Idempotency key recorded concurrently, replaying: key={}, appointmentId={}", key,
+                    winner.getAppointmentId());
+            return load(winner);
+        }
+    }
+
+    private StoredBooking load(IdempotencyRecord record) {
+        AppointmentDomain appointment = appointmentRepository.findAllWithDetailsByIdIn(List.of(record.getAppointmentId()))
+                .stream()
+                .findFirst()
+                .map(appointmentService::convertToDomain)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Appointment " + record.getAppointmentId() + " recorded for an idempotency key is missing"));
+        return new StoredBooking(record.getRequestFingerprint(), record.getExpiresAt(), appointment);
+    }
+
+    // Same specialty, window and patient means the same request; SHA-256 keeps the column a fixed size
+    static String fingerprint(AppointmentDomain req) {
+        String canonical = String.join("|", req.getSpecialty(), String.valueOf(req.getStartTime()),
+                String.valueOf(req.getEndTime()), req.getPatient().getEmail(), req.getPatient().getName());
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class StoredBooking {
+        private final String fingerprint;
+        private final LocalDateTime expiresAt;
+        private final AppointmentDomain appointment;
+
+        private StoredBooking(String fingerprint, LocalDateTime expiresAt, AppointmentDomain appointment) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+            this.appointment = appointment;
+        }
+
+        private AppointmentDomain replay(String requestFingerprint) {
+            if (!fingerprint.equals(requestFingerprint)) {
+                throw new IdempotencyKeyReuseException();
+            }
+            return appointment;
+        }
+    }
+
+    private static final class InFlightBooking {
+        private final String fingerprint;
+        private final CompletableFuture<AppointmentDomain> future = new CompletableFuture<>();
+
+        private InFlightBooking(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private AppointmentDomain await(String requestFingerprint) {
+            if (!fingerprint.equals(requestFingerprint)) {
+                throw new IdempotencyKeyReuseException();
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
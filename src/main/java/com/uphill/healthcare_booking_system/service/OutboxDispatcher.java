@@ -0,0 +1,171 @@
+package com.uphill.healthcare_booking_system.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.enums.OutboxStatus;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.OutboxMessageRepository;
+import com.uphill.healthcare_booking_system.repository.entity.OutboxMessage;
+
+// Drains the outbox in batches. A batch is claimed in a short transaction by pushing its next attempt one lease
+// ahead, so a dispatcher that dies mid-batch only delays those messages. The whole batch is handed to the clients
+// at once (each partner runs on its own bulkhead) and the dispatcher waits until every partner confirmed or failed,
+// at most one lease. Only confirmed messages are deleted; failed ones come back with an exponential, jittered delay
+// and are parked as DEAD after the last attempt.
+@Component
+@ConditionalOnProperty(name = "booking.side-effects.mode", havingValue = "outbox", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentService appointmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final long leaseMillis;
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    public OutboxDispatcher(OutboxMessageRepository outboxMessageRepository,
+            AppointmentRepository appointmentRepository,
+            AppointmentService appointmentService,
+            PlatformTransactionManager transactionManager,
+            @Value("${booking.outbox.batch-size:500}") int batchSize,
+            @Value("${booking.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${booking.outbox.retry-base-ms:1000}") long retryBaseMillis,
+            @Value("${booking.outbox.lease-ms:60000}") long leaseMillis) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentService = appointmentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseMillis = retryBaseMillis;
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.outbox.poll-interval-ms:200}")
+    public void drain() {
+        int dispatched;
+        do {
+            dispatched = dispatchBatch();
+        } while (dispatched == batchSize);
+    }
+
+    // Returns how many messages were claimed, so drain() keeps going while there is a backlog
+    int dispatchBatch() {
+        List<OutboxMessage> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, AppointmentDomain> appointments = appointmentRepository
+                .findAllWithDetailsByIdIn(batch.stream().map(OutboxMessage::getAppointmentId).collect(Collectors.toSet()))
+                .stream()
+                .map(appointmentService::convertToDomain)
+                .collect(Collectors.toMap(AppointmentDomain::getId, Function.identity()));
+
+        Map<Long, String> failures = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            deliveries.add(deliver(message, appointments.get(message.getAppointmentId()))
+                    .orTimeout(leaseMillis, TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> {
+                        failures.put(message.getId(), String.valueOf(unwrap(e)));
+                        return null;
+                    }));
+        }
+        // Nothing is deleted before the partners answered: a message counts as delivered only once confirmed
+        CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new)).join();
+
+        transactionTemplate.executeWithoutResult(status -> recordOutcome(batch, failures));
+        log.info("Outbox batch dispatched: delivered={}, failed={}", batch.size() - failures.size(), failures.size());
+        return batch.size();
+    }
+
+    private CompletableFuture<Void> deliver(OutboxMessage message, AppointmentDomain appointment) {
+        if (appointment == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Appointment " + message.getAppointmentId() + " not found"));
+        }
+        try {
+            return appointmentService.deliverSideEffect(message.getSideEffect(), appointment);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static String unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof TimeoutException ? "Not confirmed within the lease" : cause.getMessage();
+    }
+
+    private List<OutboxMessage> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> batch = outboxMessageRepository.lockDue(OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+        for (OutboxMessage message : batch) {
+            message.setAttempts(message.getAttempts() + 1);
+            message.setNextAttemptAt(now.plusNanos(leaseMillis * 1_000_000));
+        }
+        return batch;
+    }
+
+    private void recordOutcome(List<OutboxMessage> batch, Map<Long, String> failures) {
+        List<Long> delivered = new ArrayList<>();
+        List<OutboxMessage> failed = new ArrayList<>();
+        for (OutboxMessage message : batch) {
+            String error = failures.get(message.getId());
+            if (error == null) {
+                delivered.add(message.getId());
+                continue;
+            }
+            message.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+            if (message.getAttempts() >= maxAttempts) {
+                message.setStatus(OutboxStatus.DEAD);
+                log.error("Outbox message gave up after {} attempts: id={}, appointmentId={}, sideEffect={}",
+                        message.getAttempts(), message.getId(), message.getAppointmentId(), message.getSideEffect());
+            } else {
+                message.setNextAttemptAt(LocalDateTime.now().plusNanos(retryDelayMillis(message.getAttempts()) * 1_000_000));
+            }
+            failed.add(message);
+        }
+        if (!delivered.isEmpty()) {
+            outboxMessageRepository.deleteAllByIdInBatch(delivered);
+        }
+        if (!failed.isEmpty()) {
+            outboxMessageRepository.saveAll(failed);
+        }
+    }
+
+    // base * 2^(attempt - 1), with up to 50% of random jitter on top
+    private long retryDelayMillis(int attempt) {
+        long delay = retryBaseMillis << Math.min(attempt - 1, 16);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+}
@@ -1,35 +1,122 @@
 package com.uphill.healthcare_booking_system.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.uphill.healthcare_booking_system.repository.PatientRepository;
 import com.uphill.healthcare_booking_system.repository.entity.Patient;
+import com.uphill.healthcare_booking_system.service.cache.PatientCache;
 
 @Service
 public class PatientService {
     @Autowired
     private PatientRepository patientRepository;
+    @Autowired(required = false)
+    private PatientCache patientCache;
     private static final Logger log = LoggerFactory.getLogger(PatientService.class);
 
     // For simplicity reasons, this will return a Patient instead of a PatientDomain, but it should return a domain on the service layer
     public Patient findOrCreatePatient(String email, String name) {
+        if (patientCache != null) {
+            Patient cached = patientCache.get(email);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // Returning patients are the common case: one plain select, and the insert only for an email never seen
         Patient patient = patientRepository.findByEmail(email);
-        if (patient == null) {
+        if (patient != null) {
+            cacheOnceCommitted(patient);
+            return patient;
+        }
+        try {
+            patient = patientRepository.insertIfAbsent(email, name);
+            if (patient == null) {
+                // Inserted by another booking between the select and the insert
+                patient = patientRepository.findByEmail(email);
+            }
+            log.info("Patient resolved: id={}, email={}, name={}", patient.getId(), patient.getEmail(), patient.getName());
+        } catch (DataIntegrityViolationException e) {
+            // Two first-time bookings for the same email can both try to insert it
+            log.info("Patient already exists: email={}", email);
+            patient = patientRepository.findByEmail(email);
+        }
+        cacheOnceCommitted(patient);
+        return patient;
+    }
+
+    // Set-wise variant for batch bookings: cached patients first, one query for the rest and one batched insert for
+    // the emails never seen before. If another booking inserts one of those concurrently the insert fails as a
+    // whole, and the new emails go through the race-safe single path instead.
+    public Map<String, Patient> findOrCreatePatients(Map<String, String> namesByEmail) {
+        Map<String, Patient> patients = new HashMap<>();
+        Map<String, String> unresolved = new LinkedHashMap<>();
+        namesByEmail.forEach((email, name) -> {
+            Patient cached = patientCache == null ? null : patientCache.get(email);
+            if (cached != null) {
+                patients.put(email, cached);
+            } else {
+                unresolved.put(email, name);
+            }
+        });
+        if (unresolved.isEmpty()) {
+            return patients;
+        }
+
+        List<Patient> resolved = new ArrayList<>(patientRepository.findByEmailIn(unresolved.keySet()));
+        resolved.forEach(patient -> unresolved.remove(patient.getEmail()));
+        if (!unresolved.isEmpty()) {
+            List<Patient> created = unresolved.entrySet().stream()
+                    .map(entry -> newPatient(entry.getKey(), entry.getValue()))
+                    .toList();
             try {
-                patient = new Patient();
-                patient.setName(name);
-                patient.setEmail(email);
-                patientRepository.save(patient);
-                log.info("Patient created: id={}, email={}, name={}", patient.getId(), patient.getEmail(), patient.getName());
+                resolved.addAll(patientRepository.saveAll(created));
+                log.info("Patients created in bulk: count={}", created.size());
             } catch (DataIntegrityViolationException e) {
-                log.info("Patient already exists: email={}", email);
-                patient = patientRepository.findByEmail(email);
+                log.info("Patient created concurrently, resolving {} new patients one by one", unresolved.size());
+                unresolved.forEach((email, name) -> patients.put(email, findOrCreatePatient(email, name)));
             }
         }
+        resolved.forEach(patient -> {
+            patients.put(patient.getEmail(), patient);
+            cacheOnceCommitted(patient);
+        });
+        return patients;
+    }
+
+    private static Patient newPatient(String email, String name) {
+        Patient patient = new Patient();
+        patient.setEmail(email);
+        patient.setName(name);
         return patient;
     }
+
+    // A patient inserted by a booking that later rolls back must not stay in the cache
+    private void cacheOnceCommitted(Patient patient) {
+        if (patientCache == null || patient == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            patientCache.put(patient);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                patientCache.put(patient);
+            }
+        });
+    }
 }
@@ -1,51 +1,171 @@
 package com.uphill.healthcare_booking_system.service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableRoomException;
+import com.uphill.healthcare_booking_system.enums.AllocationLockMode;
+import com.uphill.healthcare_booking_system.enums.BookingStage;
+import com.uphill.healthcare_booking_system.monitoring.BookingMetrics;
 import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
 import com.uphill.healthcare_booking_system.repository.RoomRepository;
 import com.uphill.healthcare_booking_system.repository.entity.Room;
+import com.uphill.healthcare_booking_system.repository.projection.BookedWindow;
+import com.uphill.healthcare_booking_system.service.allocation.CandidateSpreader;
+import com.uphill.healthcare_booking_system.service.allocation.SkipLockedSupport;
+import com.uphill.healthcare_booking_system.service.availability.RoomSlotCalendar;
 
 @Service
 public class RoomService {
     @Autowired private RoomRepository roomRepository;
     @Autowired private AppointmentRepository appointmentRepository;
+    @Autowired(required = false) private RoomSlotCalendar roomSlotCalendar;
+    @Autowired private BookingMetrics bookingMetrics;
+    @Autowired private CandidateSpreader candidateSpreader;
+    @Autowired private SkipLockedSupport skipLockedSupport;
+    @Value("${booking.allocation.lock-mode:pessimistic}") private AllocationLockMode lockMode = AllocationLockMode.PESSIMISTIC;
+    @Value("${booking.allocation.skip-locked.candidates:10}") private int skipLockedCandidates = 10;
     private static final Logger log = LoggerFactory.getLogger(RoomService.class);
 
     // For simplicity reasons, this will return a Room instead of a RoomDomain, but it should return a domain on the service layer
     public Room findAndLockAvailableRoom(LocalDateTime start, LocalDateTime end) {
-        Room candidate = roomRepository
-                .findFirstAvailableByWindow(start, end, PageRequest.of(0, 1))
-                .stream()
-                .findFirst()
-                .orElseThrow(() -> new NoAvailableRoomException(start, end));
+        return findAndLockAvailableRoom(start, end, null);
+    }
+
+    // spreadKey (the patient email) is only used by the patient-hash selection policy
+    public Room findAndLockAvailableRoom(LocalDateTime start, LocalDateTime end, String spreadKey) {
+        if (lockMode == AllocationLockMode.OPTIMISTIC) {
+            return claimAvailableRoom(start, end, spreadKey);
+        }
+        if (lockMode == AllocationLockMode.SKIP_LOCKED) {
+            return lockFirstUnheldRoom(start, end, spreadKey);
+        }
+        if (roomSlotCalendar != null && roomSlotCalendar.isReady()) {
+            Room fromCalendar = lockCalendarCandidate(start, end, spreadKey);
+            if (fromCalendar != null) {
+                return fromCalendar;
+            }
+            bookingMetrics.recordFallback("room", "stale_index");
+        }
 
-        Room locked = roomRepository.lockById(candidate.getId());
+        Room candidate = bookingMetrics.time(BookingStage.ROOM_SELECT, () -> selectAvailableRoom(start, end, spreadKey));
+        Room locked = lockRoom(candidate.getId());
         log.info("Room locked: id={}, name={}", locked.getId(), locked.getName());
 
         // This was an improvement suggested by ChatGPT in order to confirm that the room is still available for the appointment
-        boolean stillFree = appointmentRepository.existsOverlapForRoom(locked.getId(), start, end);
+        Long lockedId = locked.getId();
+        boolean stillFree = bookingMetrics.time(BookingStage.ROOM_SELECT,
+                () -> appointmentRepository.existsOverlapForRoom(lockedId, start, end));
         if (stillFree) {
-            candidate = roomRepository
-                    .findFirstAvailableByWindow(start, end, PageRequest.of(0, 1))
-                    .stream()
-                    .findFirst()
-                    .orElseThrow(() -> new NoAvailableRoomException(start, end));
+            bookingMetrics.recordFallback("room", "requery");
+            candidate = bookingMetrics.time(BookingStage.ROOM_SELECT, () -> selectAvailableRoom(start, end, spreadKey));
 
-            locked = roomRepository.lockById(candidate.getId());
+            locked = lockRoom(candidate.getId());
             log.info("Room locked: id={}, name={}", locked.getId(), locked.getName());
-            if (appointmentRepository.existsOverlapForRoom(locked.getId(), start, end)) {
+            Long relockedId = locked.getId();
+            if (bookingMetrics.time(BookingStage.ROOM_SELECT,
+                    () -> appointmentRepository.existsOverlapForRoom(relockedId, start, end))) {
                 log.error("Room is still free for appointment id={}", locked.getId());
                 throw new NoAvailableRoomException(start, end);
             }
         }
         return locked;
     }
+
+    private Room selectAvailableRoom(LocalDateTime start, LocalDateTime end, String spreadKey) {
+        List<Room> free = roomRepository.findFirstAvailableByWindow(start, end,
+                PageRequest.of(0, candidateSpreader.getCandidates()));
+        return candidateSpreader.arrange(free, Room::getId, spreadKey, ids -> bookedMinutesOnDay(ids, start))
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new NoAvailableRoomException(start, end));
+    }
+
+    private Map<Long, Long> bookedMinutesOnDay(Collection<Long> roomIds, LocalDateTime start) {
+        LocalDateTime dayStart = start.toLocalDate().atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+        List<BookedWindow> windows = appointmentRepository.findBookedWindowsForRooms(roomIds, dayStart, dayEnd);
+        return CandidateSpreader.bookedMinutes(windows, BookedWindow::getRoomId, dayStart, dayEnd);
+    }
+
+    private Room lockRoom(Long roomId) {
+        return bookingMetrics.time(BookingStage.ROOM_LOCK,
+                () -> bookingMetrics.timeRoomLockWait(() -> roomRepository.lockById(roomId)));
+    }
+
+    // The slot calendar only proves that a room is free, so an empty answer or a stale pick returns null and the
+    // caller falls back to the query path, which is also the one able to fit windows that are not slot-aligned.
+    private Room lockCalendarCandidate(LocalDateTime start, LocalDateTime end, String spreadKey) {
+        Long candidateId = bookingMetrics.time(BookingStage.ROOM_SELECT, () -> candidateSpreader.arrange(
+                        roomSlotCalendar.findFreeRooms(start, end, candidateSpreader.getCandidates()),
+                        id -> id, spreadKey, ids -> bookedMinutesOnDay(ids, start)))
+                .stream()
+                .findFirst()
+                .orElse(null);
+        if (candidateId == null) {
+            return null;
+        }
+
+        Room locked = lockRoom(candidateId);
+        if (locked != null && !bookingMetrics.time(BookingStage.ROOM_SELECT,
+                () -> appointmentRepository.existsOverlapForRoom(locked.getId(), start, end))) {
+            log.info("Room locked from slot calendar: id={}, name={}", locked.getId(), locked.getName());
+            return locked;
+        }
+        log.info("Room slot calendar is stale for room id={}, falling back to query", candidateId);
+        return null;
+    }
+
+    // Optimistic mode, see DoctorService#claimAvailableDoctor
+    private Room claimAvailableRoom(LocalDateTime start, LocalDateTime end, String spreadKey) {
+        Room candidate = bookingMetrics.time(BookingStage.ROOM_SELECT, () -> selectAvailableRoom(start, end, spreadKey));
+        Room claimed = bookingMetrics.time(BookingStage.ROOM_LOCK, () -> roomRepository.claimById(candidate.getId()));
+        log.info("Room claimed: id={}, name={}", claimed.getId(), claimed.getName());
+        return claimed;
+    }
+
+    // Skip-locked mode, see DoctorService#lockFirstUnheldDoctor
+    private Room lockFirstUnheldRoom(LocalDateTime start, LocalDateTime end, String spreadKey) {
+        List<Long> candidateIds = bookingMetrics.time(BookingStage.ROOM_SELECT, () -> candidateSpreader.arrange(
+                roomSlotCalendar != null && roomSlotCalendar.isReady()
+                        ? roomSlotCalendar.findFreeRooms(start, end, skipLockedCandidates)
+                        : roomRepository.findFirstAvailableByWindow(start, end, PageRequest.of(0, skipLockedCandidates))
+                                .stream().map(Room::getId).toList(),
+                id -> id, spreadKey, ids -> bookedMinutesOnDay(ids, start)));
+
+        for (Long candidateId : candidateIds) {
+            Room locked = bookingMetrics.time(BookingStage.ROOM_LOCK, () -> tryLockRoom(candidateId));
+            if (locked == null) {
+                bookingMetrics.recordFallback("room", "skipped_locked");
+                continue;
+            }
+            if (!bookingMetrics.time(BookingStage.ROOM_SELECT,
+                    () -> appointmentRepository.existsOverlapForRoom(locked.getId(), start, end))) {
+                log.info("Room locked without waiting: id={}, name={}", locked.getId(), locked.getName());
+                return locked;
+            }
+        }
+        throw new NoAvailableRoomException(start, end);
+    }
+
+    private Room tryLockRoom(Long roomId) {
+        if (skipLockedSupport.isSupported()) {
+            return roomRepository.lockByIdSkipLocked(roomId);
+        }
+        try {
+            return roomRepository.lockByIdNoWait(roomId);
+        } catch (PessimisticLockingFailureException e) {
+            return null;
+        }
+    }
 }
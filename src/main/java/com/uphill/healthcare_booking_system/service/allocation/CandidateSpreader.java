@@ -0,0 +1,88 @@
+package com.uphill.healthcare_booking_system.service.allocation;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.uphill.healthcare_booking_system.enums.SelectionPolicy;
+import com.uphill.healthcare_booking_system.repository.projection.BookedWindow;
+
+// Decides in which order the free doctors/rooms of a window are tried. With "first" every concurrent request for
+// the same window picks the lowest id and queues on its row lock; the other policies look at a few free candidates
+// and start each request somewhere else: "random", "patient-hash" (the same patient keeps landing on the same
+// candidate) or "least-loaded" (fewest booked minutes that day, random among ties). Spreading only works when
+// there are more candidates than concurrent requests; "least-loaded" balances the day but herds under contention.
+@Component
+public class CandidateSpreader {
+
+    private final SelectionPolicy policy;
+    private final int candidates;
+
+    public CandidateSpreader(@Value("${booking.allocation.selection-policy:first}") SelectionPolicy policy,
+            @Value("${booking.allocation.selection-candidates:16}") int candidates) {
+        if (candidates <= 0) {
+            throw new IllegalArgumentException("At least one candidate is required, got " + candidates);
+        }
+        this.policy = policy;
+        this.candidates = candidates;
+    }
+
+    public SelectionPolicy getPolicy() {
+        return policy;
+    }
+
+    // How many free candidates to read; "first" only ever needs one
+    public int getCandidates() {
+        return policy == SelectionPolicy.FIRST ? 1 : candidates;
+    }
+
+    // Returns the candidates in the order they should be tried. loadOf is only called for "least-loaded".
+    public <T> List<T> arrange(List<T> free, Function<T, Long> idOf, String spreadKey,
+            Function<Collection<Long>, Map<Long, Long>> loadOf) {
+        if (free.size() < 2) {
+            return free;
+        }
+        return switch (policy) {
+            case FIRST -> free;
+            case RANDOM -> rotate(free, ThreadLocalRandom.current().nextInt(free.size()));
+            case PATIENT_HASH -> spreadKey == null ? free : rotate(free, Math.floorMod(spreadKey.hashCode(), free.size()));
+            case LEAST_LOADED -> {
+                Map<Long, Long> loads = loadOf.apply(free.stream().map(idOf).toList());
+                List<T> ordered = rotate(free, ThreadLocalRandom.current().nextInt(free.size()));
+                ordered.sort(Comparator.comparingLong(candidate -> loads.getOrDefault(idOf.apply(candidate), 0L)));
+                yield ordered;
+            }
+        };
+    }
+
+    // Booked minutes per owner (doctor or room) that fall inside [from, to)
+    public static Map<Long, Long> bookedMinutes(List<BookedWindow> windows, Function<BookedWindow, Long> ownerOf,
+            LocalDateTime from, LocalDateTime to) {
+        Map<Long, Long> minutes = new HashMap<>();
+        for (BookedWindow window : windows) {
+            LocalDateTime start = window.getStartTime().isBefore(from) ? from : window.getStartTime();
+            LocalDateTime end = window.getEndTime().isAfter(to) ? to : window.getEndTime();
+            if (end.isAfter(start)) {
+                minutes.merge(ownerOf.apply(window), Duration.between(start, end).toMinutes(), Long::sum);
+            }
+        }
+        return minutes;
+    }
+
+    private static <T> List<T> rotate(List<T> items, int offset) {
+        List<T> rotated = new ArrayList<>(items.size());
+        rotated.addAll(items.subList(offset, items.size()));
+        rotated.addAll(items.subList(0, offset));
+        return rotated;
+    }
+}
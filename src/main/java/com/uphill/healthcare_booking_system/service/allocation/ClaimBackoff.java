@@ -0,0 +1,85 @@
+package com.uphill.healthcare_booking_system.service.allocation;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import com.uphill.healthcare_booking_system.monitoring.BookingMetrics;
+
+// Runs a booking again when its optimistic claim lost at commit, with bounded exponential backoff and full jitter
+// between attempts, so bookings that lost the same row do not all come back at the same instant and collide again.
+@Component
+public class ClaimBackoff {
+
+    private final BookingMetrics bookingMetrics;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    private static final Logger log = LoggerFactory.getLogger(ClaimBackoff.class);
+
+    public ClaimBackoff(BookingMetrics bookingMetrics,
+            @Value("${booking.allocation.optimistic.max-attempts:5}") int maxAttempts,
+            @Value("${booking.allocation.optimistic.base-backoff-ms:2}") long baseDelayMillis,
+            @Value("${booking.allocation.optimistic.max-backoff-ms:50}") long maxDelayMillis) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("At least one claim attempt is required, got " + maxAttempts);
+        }
+        this.bookingMetrics = bookingMetrics;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    // The booking must open and commit its own transaction: the version check only happens at commit, and a failed
+    // one has rolled everything back, so the whole booking is safe to run again. The last conflict is rethrown.
+    // The lost attempt and the pause after it are what the contention cost, so they count as lock wait.
+    public <T> T retryOnConflict(Supplier<T> booking) {
+        for (int attempt = 1; ; attempt++) {
+            long started = System.nanoTime();
+            try {
+                return booking.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt < maxAttempts) {
+                    log.info("Booking lost its optimistic claim, retrying: attempt={}", attempt);
+                    pause(attempt);
+                }
+                recordWait(e, System.nanoTime() - started);
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void recordWait(OptimisticLockingFailureException e, long nanos) {
+        if (e instanceof ObjectOptimisticLockingFailureException conflict && conflict.getPersistentClassName() != null) {
+            String entity = conflict.getPersistentClassName();
+            bookingMetrics.recordClaimWait(entity.substring(entity.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT), nanos);
+        }
+    }
+
+    // Sleeps a random time between zero and base * 2^attempt, capped at the configured maximum
+    public void pause(int attempt) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.uphill.healthcare_booking_system.service.allocation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import com.uphill.healthcare_booking_system.repository.AppointmentPartitions;
+
+// H2 stored routine (CREATE ALIAS BOOK_APPOINTMENT) that books a whole appointment inside the database: it picks the
+// lowest free doctor of the specialty and the lowest free room, locks each row and re-checks it under the lock (like
+// the pessimistic mode), then inserts the appointment and its appointment_view row. It runs on the caller's own
+// connection and transaction, so the locks are held until the booking commits, and the caller pays one round trip.
+// Used as a table function, which H2 also calls once while parsing just to learn the result columns.
+public final class JointAllocationRoutine {
+
+    public static final String ALIAS = "BOOK_APPOINTMENT";
+
+    static final String BOOKED = "BOOKED";
+    static final String NO_DOCTOR = "NO_DOCTOR";
+    static final String NO_ROOM = "NO_ROOM";
+
+    private static final String COLUMN_LIST_URL = "jdbc:columnlist:connection";
+
+    private static final String FREE_DOCTORS = """
+            SELECT d.id FROM doctor d
+            WHERE d.specialty = ?
+              AND NOT EXISTS (
+                  SELECT 1 FROM appointment a
+                  WHERE a.doctor_id = d.id
+                    AND a.partition_key BETWEEN ? AND ?
+                    AND a.start_time >= ? AND a.start_time < ? AND a.end_time > ?)
+            ORDER BY d.id
+            """;
+    private static final String FREE_ROOMS = """
+            SELECT r.id FROM room r
+            WHERE NOT EXISTS (
+                  SELECT 1 FROM appointment a
+                  WHERE a.room_id = r.id
+                    AND a.partition_key BETWEEN ? AND ?
+                    AND a.start_time >= ? AND a.start_time < ? AND a.end_time > ?)
+            ORDER BY r.id
+            """;
+    private static final String LOCK_DOCTOR = "SELECT name, specialty FROM doctor WHERE id = ? FOR UPDATE";
+    private static final String LOCK_ROOM = "SELECT name, location FROM room WHERE id = ? FOR UPDATE";
+    private static final String DOCTOR_BUSY = """
+            SELECT 1 FROM appointment
+            WHERE doctor_id = ? AND partition_key BETWEEN ? AND ? AND start_time >= ? AND start_time < ? AND end_time > ?
+            FETCH FIRST 1 ROWS ONLY
+            """;
+    private static final String ROOM_BUSY = """
+            SELECT 1 FROM appointment
+            WHERE room_id = ? AND partition_key BETWEEN ? AND ? AND start_time >= ? AND start_time < ? AND end_time > ?
+            FETCH FIRST 1 ROWS ONLY
+            """;
+    private static final String INSERT_APPOINTMENT = """
+            SELECT id FROM FINAL TABLE (
+                INSERT INTO appointment (id, doctor_id, room_id, patient_id, start_time, end_time, status, partition_key)
+                VALUES (NEXT VALUE FOR appointment_seq, ?, ?, ?, ?, ?, 'SCHEDULED', ?)
+            )
+            """;
+    private static final String INSERT_VIEW = """
+            INSERT INTO appointment_view (id, doctor_id, doctor_name, room_id, room_name, room_location, patient_id,
+                                          patient_email, start_time, end_time, status)
+            SELECT ?, ?, ?, ?, ?, ?, p.id, p.email, ?, ?, 'SCHEDULED' FROM patient p WHERE p.id = ?
+            """;
+    private static final String RESULT = """
+            SELECT CAST(? AS VARCHAR(16)) AS "outcome",
+                   CAST(? AS BIGINT) AS "appointmentId",
+                   CAST(? AS BIGINT) AS "doctorId",
+                   CAST(? AS VARCHAR(255)) AS "doctorName",
+                   CAST(? AS VARCHAR(255)) AS "doctorSpecialty",
+                   CAST(? AS BIGINT) AS "roomId",
+                   CAST(? AS VARCHAR(255)) AS "roomName",
+                   CAST(? AS VARCHAR(255)) AS "roomLocation"
+            """;
+
+    private JointAllocationRoutine() {
+    }
+
+    public static ResultSet book(Connection connection, String specialty, Timestamp start, Timestamp end,
+            Long patientId) throws SQLException {
+        if (COLUMN_LIST_URL.equals(connection.getMetaData().getURL())) {
+            return result(connection, null, null, null, null);
+        }
+        Window window = new Window(start.toLocalDateTime(), end.toLocalDateTime());
+
+        Claimed doctor = null;
+        try (PreparedStatement free = connection.prepareStatement(FREE_DOCTORS)) {
+            free.setString(1, specialty);
+            window.bind(free, 2);
+            try (ResultSet candidates = free.executeQuery()) {
+                while (doctor == null && candidates.next()) {
+                    doctor = lockIfStillFree(connection, LOCK_DOCTOR, DOCTOR_BUSY, candidates.getLong(1), window);
+                }
+            }
+        }
+        if (doctor == null) {
+            return result(connection, NO_DOCTOR, null, null, null);
+        }
+
+        Claimed room = null;
+        try (PreparedStatement free = connection.prepareStatement(FREE_ROOMS)) {
+            window.bind(free, 1);
+            try (ResultSet candidates = free.executeQuery()) {
+                while (room == null && candidates.next()) {
+                    room = lockIfStillFree(connection, LOCK_ROOM, ROOM_BUSY, candidates.getLong(1), window);
+                }
+            }
+        }
+        if (room == null) {
+            return result(connection, NO_ROOM, null, null, null);
+        }
+
+        long appointmentId;
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_APPOINTMENT)) {
+            insert.setLong(1, doctor.id);
+            insert.setLong(2, room.id);
+            insert.setLong(3, patientId);
+            insert.setTimestamp(4, start);
+            insert.setTimestamp(5, end);
+            insert.setInt(6, AppointmentPartitions.keyOf(window.start));
+            try (ResultSet inserted = insert.executeQuery()) {
+                inserted.next();
+                appointmentId = inserted.getLong(1);
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_VIEW)) {
+            insert.setLong(1, appointmentId);
+            insert.setLong(2, doctor.id);
+            insert.setString(3, doctor.name);
+            insert.setLong(4, room.id);
+            insert.setString(5, room.name);
+            insert.setString(6, room.detail);
+            insert.setTimestamp(7, start);
+            insert.setTimestamp(8, end);
+            insert.setLong(9, patientId);
+            insert.executeUpdate();
+        }
+        return result(connection, BOOKED, appointmentId, doctor, room);
+    }
+
+    // The candidate once locked, or null when it was booked meanwhile
+    private static Claimed lockIfStillFree(Connection connection, String lockSql, String busySql, long id,
+            Window window) throws SQLException {
+        Claimed locked;
+        try (PreparedStatement lock = connection.prepareStatement(lockSql)) {
+            lock.setLong(1, id);
+            try (ResultSet row = lock.executeQuery()) {
+                if (!row.next()) {
+                    return null;
+                }
+                locked = new Claimed(id, row.getString(1), row.getString(2));
+            }
+        }
+        try (PreparedStatement busy = connection.prepareStatement(busySql)) {
+            busy.setLong(1, id);
+            window.bind(busy, 2);
+            try (ResultSet row = busy.executeQuery()) {
+                return row.next() ? null : locked;
+            }
+        }
+    }
+
+    private static ResultSet result(Connection connection, String outcome, Long appointmentId, Claimed doctor,
+            Claimed room) throws SQLException {
+        PreparedStatement select = connection.prepareStatement(RESULT);
+        select.setString(1, outcome);
+        select.setObject(2, appointmentId);
+        select.setObject(3, doctor == null ? null : doctor.id);
+        select.setString(4, doctor == null ? null : doctor.name);
+        select.setString(5, doctor == null ? null : doctor.detail);
+        select.setObject(6, room == null ? null : room.id);
+        select.setString(7, room == null ? null : room.name);
+        select.setString(8, room == null ? null : room.detail);
+        select.closeOnCompletion();
+        return select.executeQuery();
+    }
+
+    // A locked doctor (detail = specialty) or room (detail = location)
+    private static final class Claimed {
+        private final long id;
+        private final String name;
+        private final String detail;
+
+        Claimed(long id, String name, String detail) {
+            this.id = id;
+            this.name = name;
+            this.detail = detail;
+        }
+    }
+
+    // The overlap bounds of the window, in the order every overlap check above takes them
+    private static final class Window {
+        private final LocalDateTime start;
+        private final int fromPartition;
+        private final int toPartition;
+        private final Timestamp earliestStart;
+        private final Timestamp startTimestamp;
+        private final Timestamp endTimestamp;
+
+        Window(LocalDateTime start, LocalDateTime end) {
+            LocalDateTime earliest = AppointmentPartitions.earliestOverlappingStart(start);
+            this.start = start;
+            this.fromPartition = AppointmentPartitions.keyOf(earliest);
+            this.toPartition = AppointmentPartitions.keyOf(end);
+            this.earliestStart = Timestamp.valueOf(earliest);
+            this.startTimestamp = Timestamp.valueOf(start);
+            this.endTimestamp = Timestamp.valueOf(end);
+        }
+
+        void bind(PreparedStatement statement, int firstIndex) throws SQLException {
+            statement.setInt(firstIndex, fromPartition);
+            statement.setInt(firstIndex + 1, toPartition);
+            statement.setTimestamp(firstIndex + 2, earliestStart);
+            statement.setTimestamp(firstIndex + 3, endTimestamp);
+            statement.setTimestamp(firstIndex + 4, startTimestamp);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.uphill.healthcare_booking_system.service.allocation;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.uphill.healthcare_booking_system.domain.events.AppointmentBookedEvent;
+import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableDoctorException;
+import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableRoomException;
+import com.uphill.healthcare_booking_system.enums.AppointmentStatus;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Appointment;
+import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.entity.Patient;
+import com.uphill.healthcare_booking_system.repository.entity.Room;
+import com.uphill.healthcare_booking_system.repository.projection.JointBooking;
+
+// Joint-statement mode: the doctor and room are picked, locked and booked by one call to JointAllocationRoutine
+// instead of separate select/lock/check/save statements per resource. The routine bypasses JPA, so the
+// AppointmentBookedEvent the entity listener would publish is published here.
+@Component
+@ConditionalOnProperty(name = "booking.allocation.lock-mode", havingValue = "joint-statement")
+public class JointAllocator {
+
+    private final AppointmentRepository appointmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final Logger log = LoggerFactory.getLogger(JointAllocator.class);
+
+    public JointAllocator(AppointmentRepository appointmentRepository,
+            ApplicationEventPublisher eventPublisher,
+            DataSource dataSource) throws SQLException {
+        this.appointmentRepository = appointmentRepository;
+        this.eventPublisher = eventPublisher;
+        registerRoutine(dataSource);
+    }
+
+    // Must run inside the booking transaction. Returns the new appointment, detached, with the doctor and room it got.
+    public Appointment book(String specialty, LocalDateTime start, LocalDateTime end, Patient patient) {
+        JointBooking booking = appointmentRepository.bookJointly(specialty, start, end, patient.getId());
+        switch (booking.getOutcome()) {
+            case JointAllocationRoutine.NO_DOCTOR -> throw new NoAvailableDoctorException(specialty, start, end);
+            case JointAllocationRoutine.NO_ROOM -> throw new NoAvailableRoomException(start, end);
+            default -> { }
+        }
+
+        Doctor doctor = new Doctor();
+        doctor.setId(booking.getDoctorId());
+        doctor.setName(booking.getDoctorName());
+        doctor.setSpecialty(booking.getDoctorSpecialty());
+        Room room = new Room();
+        room.setId(booking.getRoomId());
+        room.setName(booking.getRoomName());
+        room.setLocation(booking.getRoomLocation());
+
+        Appointment appointment = new Appointment();
+        appointment.setId(booking.getAppointmentId());
+        appointment.setDoctor(doctor);
+        appointment.setRoom(room);
+        appointment.setPatient(patient);
+        appointment.setStatus(AppointmentStatus.SCHEDULED);
+        appointment.setStartTime(start);
+        appointment.setEndTime(end);
+        eventPublisher.publishEvent(new AppointmentBookedEvent(appointment.getId(), doctor.getId(), room.getId(),
+                start, end));
+        log.info("Appointment booked jointly: id={}, doctor={}, room={}", appointment.getId(), doctor.getId(),
+                room.getId());
+        return appointment;
+    }
+
+    private static void registerRoutine(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            String database = connection.getMetaData().getDatabaseProductName();
+            if (!"H2".equals(database)) {
+                throw new IllegalStateException("Joint-statement allocation needs the H2 routine, not available on "
+                        + database);
+            }
+            statement.execute("CREATE ALIAS IF NOT EXISTS " + JointAllocationRoutine.ALIAS + " FOR \""
+                    + JointAllocationRoutine.class.getName() + ".book\"");
+        }
+    }
+}
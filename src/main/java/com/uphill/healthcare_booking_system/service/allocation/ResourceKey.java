@@ -0,0 +1,54 @@
+package com.uphill.healthcare_booking_system.service.allocation;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+import com.uphill.healthcare_booking_system.enums.ResourceType;
+
+// One doctor or room on one day: the unit two bookings can contend on
+public final class ResourceKey {
+
+    private final ResourceType type;
+    private final Long id;
+    private final LocalDate day;
+
+    public ResourceKey(ResourceType type, Long id, LocalDate day) {
+        this.type = type;
+        this.id = id;
+        this.day = day;
+    }
+
+    public ResourceType getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ResourceKey key)) {
+            return false;
+        }
+        return type == key.type && id.equals(key.id) && day.equals(key.day);
+    }
+
+    // Built from the ordinal rather than the enum's identity hash, so a key maps to the same stripe on every run
+    @Override
+    public int hashCode() {
+        return Objects.hash(type.ordinal(), id, day);
+    }
+
+    @Override
+    public String toString() {
+        return type + ":" + id + "@" + day;
+    }
+}
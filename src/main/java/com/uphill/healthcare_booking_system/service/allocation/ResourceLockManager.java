@@ -0,0 +1,142 @@
+package com.uphill.healthcare_booking_system.service.allocation;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.uphill.healthcare_booking_system.domain.FreeSlot;
+import com.uphill.healthcare_booking_system.enums.BookingStage;
+import com.uphill.healthcare_booking_system.enums.ResourceType;
+import com.uphill.healthcare_booking_system.monitoring.BookingMetrics;
+import com.uphill.healthcare_booking_system.service.availability.FreeSlotIndex;
+
+// Queues bookings that would fight over the same doctor or room on the same day in memory, before they open a
+// transaction, so waiting no longer holds a pooled connection. The doctor and room a booking will most likely lock
+// are predicted from the free slot index (lowest free ids, as the default "first" policy picks them) and mapped to a
+// fixed set of fair locks. Once the locks are held the prediction is checked again, because the booking ahead may
+// have taken those resources; if it changed, the locks are swapped for the new ones. Row locks in the transaction
+// stay the correctness backstop: a wrong prediction costs some queueing, never a double booking. Without the free
+// slot index nothing is predicted and bookings go straight to the database.
+@Component
+public class ResourceLockManager {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final FreeSlotIndex freeSlotIndex;
+    private final BookingMetrics bookingMetrics;
+    private final boolean enabled;
+    private final ReentrantLock[] stripes;
+    private final long waitMillis;
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceLockManager.class);
+
+    public ResourceLockManager(@Nullable FreeSlotIndex freeSlotIndex,
+            BookingMetrics bookingMetrics,
+            @Value("${booking.allocation.local-locks.enabled:true}") boolean enabled,
+            @Value("${booking.allocation.local-locks.stripes:1024}") int stripes,
+            @Value("${booking.allocation.local-locks.wait-ms:5000}") long waitMillis) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Lock stripes must be positive, got " + stripes);
+        }
+        this.freeSlotIndex = freeSlotIndex;
+        this.bookingMetrics = bookingMetrics;
+        this.enabled = enabled;
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+        this.waitMillis = waitMillis;
+    }
+
+    // Runs the booking (which opens its own transaction) while holding the locks of its predicted doctor and room;
+    // its stage timings, queueing included, are recorded once the booking ends
+    public <T> T callForBooking(String specialty, LocalDateTime start, LocalDateTime end, Supplier<T> booking) {
+        if (!enabled) {
+            return bookingMetrics.timeBooking(booking);
+        }
+        return bookingMetrics.timeBooking(() -> callWithLocks(() -> predictedClaims(specialty, start, end), booking));
+    }
+
+    // The keys are read again once their locks are held and the locks retaken if they changed, at most a few times
+    <T> T callWithLocks(Supplier<List<ResourceKey>> keys, Supplier<T> action) {
+        List<ResourceKey> expected = keys.get();
+        for (int attempt = 1; ; attempt++) {
+            if (expected.isEmpty()) {
+                return action.get();
+            }
+            TreeSet<Integer> indexes = stripesOf(expected);
+            List<ReentrantLock> held = bookingMetrics.time(BookingStage.QUEUE, () -> acquire(indexes));
+            try {
+                List<ResourceKey> current = keys.get();
+                if (current.equals(expected) || attempt == MAX_ATTEMPTS) {
+                    return action.get();
+                }
+                log.debug("Predicted claims moved while queueing: {} -> {}", expected, current);
+                expected = current;
+            } finally {
+                held.forEach(ReentrantLock::unlock);
+            }
+        }
+    }
+
+    private List<ResourceKey> predictedClaims(String specialty, LocalDateTime start, LocalDateTime end) {
+        if (freeSlotIndex == null || !freeSlotIndex.isReady() || start == null || end == null || !end.isAfter(start)) {
+            return List.of();
+        }
+        return freeSlotIndex.findFirstFree(specialty, start, end)
+                .map(ResourceLockManager::keysOf)
+                .orElse(List.of());
+    }
+
+    private static List<ResourceKey> keysOf(FreeSlot slot) {
+        List<ResourceKey> keys = new ArrayList<>();
+        for (LocalDate day = slot.getStartTime().toLocalDate(); day.atStartOfDay().isBefore(slot.getEndTime());
+                day = day.plusDays(1)) {
+            keys.add(new ResourceKey(ResourceType.DOCTOR, slot.getDoctorId(), day));
+            keys.add(new ResourceKey(ResourceType.ROOM, slot.getRoomId(), day));
+        }
+        return keys;
+    }
+
+    // Distinct stripes in ascending order, so two bookings never wait on each other's locks in opposite orders
+    private TreeSet<Integer> stripesOf(List<ResourceKey> keys) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (ResourceKey key : keys) {
+            indexes.add(Math.floorMod(key.hashCode(), stripes.length));
+        }
+        return indexes;
+    }
+
+    private List<ReentrantLock> acquire(TreeSet<Integer> indexes) {
+        List<ReentrantLock> held = new ArrayList<>(indexes.size());
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock(waitMillis, TimeUnit.MILLISECONDS)) {
+                    throw new CannotAcquireLockException("Timed out queueing for a doctor/room after " + waitMillis + " ms");
+                }
+                held.add(lock);
+            }
+            return held;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            held.forEach(ReentrantLock::unlock);
+            throw new CannotAcquireLockException("Interrupted while queueing for a doctor/room", e);
+        } catch (RuntimeException e) {
+            held.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+    }
+}
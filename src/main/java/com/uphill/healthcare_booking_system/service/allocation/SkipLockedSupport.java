@@ -0,0 +1,33 @@
+package com.uphill.healthcare_booking_system.service.allocation;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.OracleDialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Whether the database understands a native "FOR UPDATE SKIP LOCKED". Hibernate's H2 dialect does not advertise
+// it, but H2 supports it since 2.2; the other databases listed here use the same syntax. Everything else falls
+// back to a zero lock timeout (NOWAIT), which fails instead of skipping.
+@Component
+public class SkipLockedSupport {
+
+    private final boolean supported;
+
+    public SkipLockedSupport(EntityManagerFactory entityManagerFactory) {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.supported = dialect instanceof H2Dialect
+                ? dialect.getVersion().isSameOrAfter(2, 2)
+                : dialect.supportsSkipLocked() && (dialect instanceof PostgreSQLDialect
+                        || dialect instanceof MySQLDialect
+                        || dialect instanceof OracleDialect);
+    }
+
+    public boolean isSupported() {
+        return supported;
+    }
+}
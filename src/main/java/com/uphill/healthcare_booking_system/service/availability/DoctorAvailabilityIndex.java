@@ -0,0 +1,141 @@
+package com.uphill.healthcare_booking_system.service.availability;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.uphill.healthcare_booking_system.domain.events.AppointmentBookedEvent;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.DoctorRepository;
+import com.uphill.healthcare_booking_system.repository.RoomRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.entity.Room;
+import com.uphill.healthcare_booking_system.repository.projection.BookedWindow;
+
+// In-process view of every doctor's upcoming schedule, grouped by specialty, and of every room's. It is only a
+// hint for the allocator: the chosen doctor is still locked and re-checked against the database before booking.
+// FreeSlotIndex reads its free windows from here too, so there is a single in-memory copy of the schedule.
+@Component
+@ConditionalOnProperty(name = "booking.availability.doctor-index.enabled", havingValue = "true", matchIfMissing = true)
+public class DoctorAvailabilityIndex {
+
+    private final DoctorRepository doctorRepository;
+    private final RoomRepository roomRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final Map<String, List<Long>> doctorsBySpecialty = new ConcurrentHashMap<>();
+    private final Map<Long, IntervalSet> bookedByDoctor = new ConcurrentHashMap<>();
+    private final Map<Long, IntervalSet> bookedByRoom = new ConcurrentHashMap<>();
+    private volatile List<Long> roomIds = List.of();
+    private volatile boolean ready;
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorAvailabilityIndex.class);
+
+    public DoctorAvailabilityIndex(DoctorRepository doctorRepository,
+            RoomRepository roomRepository,
+            AppointmentRepository appointmentRepository) {
+        this.doctorRepository = doctorRepository;
+        this.roomRepository = roomRepository;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        loadRoster();
+
+        try (Stream<BookedWindow> windows = appointmentRepository.streamBookedWindowsEndingAfter(LocalDateTime.now())) {
+            windows.forEach(window -> book(window.getDoctorId(), window.getRoomId(),
+                    window.getStartTime(), window.getEndTime()));
+        }
+        ready = true;
+        log.info("Doctor availability index loaded: specialties={}, doctors={}, rooms={}", doctorsBySpecialty.size(),
+                bookedByDoctor.size(), roomIds.size());
+    }
+
+    // Doctors and rooms are added outside the booking flow (seed scripts, admin inserts), so both lists are read
+    // again periodically. Their bookings reach the index through onAppointmentBooked either way, and until the next
+    // refresh a new doctor is still found by the allocator's query fallback.
+    @Scheduled(fixedDelayString = "${booking.availability.doctor-index.roster-refresh-ms:60000}",
+            initialDelayString = "${booking.availability.doctor-index.roster-refresh-ms:60000}")
+    @Transactional(readOnly = true)
+    public void refreshRoster() {
+        if (ready) {
+            loadRoster();
+        }
+    }
+
+    private void loadRoster() {
+        Map<String, List<Long>> grouped = new HashMap<>();
+        for (Doctor doctor : doctorRepository.findAll()) {
+            grouped.computeIfAbsent(doctor.getSpecialty(), key -> new ArrayList<>()).add(doctor.getId());
+            bookedByDoctor.computeIfAbsent(doctor.getId(), key -> new IntervalSet());
+        }
+        grouped.replaceAll((specialty, ids) -> ids.stream().sorted().toList());
+        doctorsBySpecialty.putAll(grouped);
+        doctorsBySpecialty.keySet().retainAll(grouped.keySet());
+
+        List<Long> rooms = roomRepository.findAll().stream().map(Room::getId).sorted().toList();
+        rooms.forEach(id -> bookedByRoom.computeIfAbsent(id, key -> new IntervalSet()));
+        roomIds = rooms;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentBooked(AppointmentBookedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        bookedByDoctor.computeIfAbsent(event.getDoctorId(), key -> new IntervalSet()).removeEndingBefore(now);
+        bookedByRoom.computeIfAbsent(event.getRoomId(), key -> new IntervalSet()).removeEndingBefore(now);
+        book(event.getDoctorId(), event.getRoomId(), event.getStartTime(), event.getEndTime());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Walks the specialty in id order, the same order the database query uses, so both paths agree on the pick
+    public Optional<Long> findFreeDoctor(String specialty, LocalDateTime start, LocalDateTime end) {
+        return findFreeDoctors(specialty, start, end, 1).stream().findFirst();
+    }
+
+    public List<Long> findFreeDoctors(String specialty, LocalDateTime start, LocalDateTime end, int limit) {
+        return findFree(doctorsBySpecialty.getOrDefault(specialty, List.of()), bookedByDoctor, start, end, limit);
+    }
+
+    public List<Long> findFreeRooms(LocalDateTime start, LocalDateTime end, int limit) {
+        return findFree(roomIds, bookedByRoom, start, end, limit);
+    }
+
+    private void book(Long doctorId, Long roomId, LocalDateTime start, LocalDateTime end) {
+        bookedByDoctor.computeIfAbsent(doctorId, key -> new IntervalSet()).add(start, end);
+        bookedByRoom.computeIfAbsent(roomId, key -> new IntervalSet()).add(start, end);
+    }
+
+    private static List<Long> findFree(List<Long> ids, Map<Long, IntervalSet> booked, LocalDateTime start,
+            LocalDateTime end, int limit) {
+        List<Long> free = new ArrayList<>(limit);
+        for (Long id : ids) {
+            IntervalSet intervals = booked.get(id);
+            if (intervals == null || !intervals.overlaps(start, end)) {
+                free.add(id);
+                if (free.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return free;
+    }
+}
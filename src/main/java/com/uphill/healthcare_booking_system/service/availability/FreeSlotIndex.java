@@ -0,0 +1,70 @@
+package com.uphill.healthcare_booking_system.service.availability;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.uphill.healthcare_booking_system.domain.FreeSlot;
+
+// Free windows read off the doctor availability index, which also tracks rooms, so availability searches never hit
+// the database and the schedule is kept in memory only once. Candidate windows start on a fixed grid (step-minutes
+// from midnight) and each one is answered with the first free doctor of the specialty and the first free room.
+// It needs the doctor index, so turning that off turns this off as well.
+@Component
+@ConditionalOnProperty(name = {"booking.availability.doctor-index.enabled", "booking.availability.free-slots.enabled"},
+        havingValue = "true", matchIfMissing = true)
+public class FreeSlotIndex {
+
+    private final DoctorAvailabilityIndex schedule;
+    private final Duration step;
+
+    public FreeSlotIndex(DoctorAvailabilityIndex schedule,
+            @Value("${booking.availability.free-slots.step-minutes:15}") int stepMinutes) {
+        if (stepMinutes <= 0) {
+            throw new IllegalArgumentException("Free slot step must be positive, got " + stepMinutes + " minutes");
+        }
+        this.schedule = schedule;
+        this.step = Duration.ofMinutes(stepMinutes);
+    }
+
+    public boolean isReady() {
+        return schedule.isReady();
+    }
+
+    // Free windows of the given duration starting on the grid inside [from, to), earliest first
+    public List<FreeSlot> findFreeSlots(String specialty, LocalDateTime from, LocalDateTime to, Duration duration,
+            int limit) {
+        List<FreeSlot> slots = new ArrayList<>();
+        for (LocalDateTime start = firstGridPoint(from); !start.plus(duration).isAfter(to) && slots.size() < limit;
+                start = start.plus(step)) {
+            findFirstFree(specialty, start, start.plus(duration)).ifPresent(slots::add);
+        }
+        return slots;
+    }
+
+    // The lowest free doctor of the specialty and the lowest free room for exactly this window
+    public Optional<FreeSlot> findFirstFree(String specialty, LocalDateTime start, LocalDateTime end) {
+        List<Long> doctorIds = schedule.findFreeDoctors(specialty, start, end, 1);
+        if (doctorIds.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Long> roomIds = schedule.findFreeRooms(start, end, 1);
+        return roomIds.isEmpty()
+                ? Optional.empty()
+                : Optional.of(new FreeSlot(start, end, doctorIds.get(0), roomIds.get(0)));
+    }
+
+    private LocalDateTime firstGridPoint(LocalDateTime from) {
+        LocalDateTime midnight = from.toLocalDate().atStartOfDay();
+        long stepNanos = step.toNanos();
+        long sinceMidnight = Duration.between(midnight, from).toNanos();
+        long stepsToGrid = (sinceMidnight + stepNanos - 1) / stepNanos;
+        return midnight.plusNanos(stepsToGrid * stepNanos);
+    }
+}
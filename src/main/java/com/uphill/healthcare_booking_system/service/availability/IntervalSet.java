@@ -0,0 +1,47 @@
+package com.uphill.healthcare_booking_system.service.availability;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Booked time of a single resource, kept as disjoint [start, end) intervals ordered by start.
+// Because intervals never overlap each other, the only one that can overlap a window is the last one
+// starting before the window ends, which makes every lookup a single O(log n) floor search.
+public class IntervalSet {
+    private final TreeMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+
+    public synchronized boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> floor = intervals.lowerEntry(end);
+        return floor != null && floor.getValue().isAfter(start);
+    }
+
+    public synchronized void add(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime mergedStart = start;
+        LocalDateTime mergedEnd = end;
+
+        // Absorb every interval touching [start, end) so the set stays disjoint
+        Map.Entry<LocalDateTime, LocalDateTime> floor = intervals.floorEntry(end);
+        while (floor != null && !floor.getValue().isBefore(mergedStart)) {
+            if (floor.getKey().isBefore(mergedStart)) {
+                mergedStart = floor.getKey();
+            }
+            if (floor.getValue().isAfter(mergedEnd)) {
+                mergedEnd = floor.getValue();
+            }
+            intervals.remove(floor.getKey());
+            floor = intervals.floorEntry(mergedEnd);
+        }
+        intervals.put(mergedStart, mergedEnd);
+    }
+
+    // Drops intervals that are already over, keeping memory proportional to the upcoming schedule
+    public synchronized void removeEndingBefore(LocalDateTime cutoff) {
+        while (!intervals.isEmpty() && !intervals.firstEntry().getValue().isAfter(cutoff)) {
+            intervals.pollFirstEntry();
+        }
+    }
+
+    public synchronized int size() {
+        return intervals.size();
+    }
+}
@@ -0,0 +1,174 @@
+package com.uphill.healthcare_booking_system.service.availability;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.uphill.healthcare_booking_system.domain.events.AppointmentBookedEvent;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.RoomRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Room;
+import com.uphill.healthcare_booking_system.repository.projection.BookedWindow;
+
+// Room availability kept as one bitset per room per day, one bit per fixed-size slot. A slot is marked busy
+// as soon as any appointment touches it, so a window that fits here is guaranteed free, while a window that
+// does not fit may still be free when bookings are not aligned to slots (the caller falls back to the query).
+@Component
+@ConditionalOnProperty(name = "booking.availability.room-engine", havingValue = "bitmap")
+public class RoomSlotCalendar {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final RoomRepository roomRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final int slotMinutes;
+    private final int wordsPerDay;
+    private final Map<Long, Map<LocalDate, long[]>> busySlotsByRoom = new ConcurrentHashMap<>();
+    private volatile List<Long> roomIds = List.of();
+    private volatile boolean ready;
+
+    private static final Logger log = LoggerFactory.getLogger(RoomSlotCalendar.class);
+
+    public RoomSlotCalendar(RoomRepository roomRepository,
+            AppointmentRepository appointmentRepository,
+            @Value("${booking.availability.room-bitmap.slot-minutes:15}") int slotMinutes) {
+        if (slotMinutes <= 0 || MINUTES_PER_DAY % slotMinutes != 0) {
+            throw new IllegalArgumentException("Slot size must divide a day evenly, got " + slotMinutes + " minutes");
+        }
+        this.roomRepository = roomRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.slotMinutes = slotMinutes;
+        this.wordsPerDay = (MINUTES_PER_DAY / slotMinutes + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        loadRooms();
+
+        try (Stream<BookedWindow> windows = appointmentRepository.streamBookedWindowsEndingAfter(LocalDateTime.now())) {
+            windows.forEach(window -> markBusy(window.getRoomId(), window.getStartTime(), window.getEndTime()));
+        }
+        ready = true;
+        log.info("Room slot calendar loaded: rooms={}, slotMinutes={}", roomIds.size(), slotMinutes);
+    }
+
+    // Rooms are added outside the booking flow, so the room list is read again periodically; until then a new
+    // room is never offered by the calendar and the allocator finds it through its query fallback
+    @Scheduled(fixedDelayString = "${booking.availability.room-bitmap.room-refresh-ms:60000}",
+            initialDelayString = "${booking.availability.room-bitmap.room-refresh-ms:60000}")
+    @Transactional(readOnly = true)
+    public void refreshRooms() {
+        if (ready) {
+            loadRooms();
+        }
+    }
+
+    private void loadRooms() {
+        List<Long> ids = roomRepository.findAll().stream().map(Room::getId).sorted().toList();
+        ids.forEach(id -> busySlotsByRoom.computeIfAbsent(id, key -> new ConcurrentHashMap<>()));
+        roomIds = ids;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentBooked(AppointmentBookedEvent event) {
+        Map<LocalDate, long[]> days = busySlotsByRoom.computeIfAbsent(event.getRoomId(), key -> new ConcurrentHashMap<>());
+        days.keySet().removeIf(day -> day.isBefore(LocalDate.now()));
+        markBusy(event.getRoomId(), event.getStartTime(), event.getEndTime());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Optional<Long> findFreeRoom(LocalDateTime start, LocalDateTime end) {
+        return findFreeRooms(start, end, 1).stream().findFirst();
+    }
+
+    public List<Long> findFreeRooms(LocalDateTime start, LocalDateTime end, int limit) {
+        List<Long> free = new ArrayList<>(limit);
+        for (Long roomId : roomIds) {
+            if (fits(roomId, start, end)) {
+                free.add(roomId);
+                if (free.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return free;
+    }
+
+    public boolean fits(Long roomId, LocalDateTime start, LocalDateTime end) {
+        Map<LocalDate, long[]> days = busySlotsByRoom.getOrDefault(roomId, Map.of());
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            long[] busy = days.get(day);
+            if (busy == null) {
+                continue;
+            }
+            int firstSlot = firstSlot(day, start);
+            int lastSlot = lastSlot(day, end);
+            synchronized (busy) {
+                for (int word = firstSlot / Long.SIZE; word <= lastSlot / Long.SIZE; word++) {
+                    if ((busy[word] & mask(word, firstSlot, lastSlot)) != 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void markBusy(Long roomId, LocalDateTime start, LocalDateTime end) {
+        Map<LocalDate, long[]> days = busySlotsByRoom.computeIfAbsent(roomId, key -> new ConcurrentHashMap<>());
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            long[] busy = days.computeIfAbsent(day, key -> new long[wordsPerDay]);
+            int firstSlot = firstSlot(day, start);
+            int lastSlot = lastSlot(day, end);
+            synchronized (busy) {
+                for (int word = firstSlot / Long.SIZE; word <= lastSlot / Long.SIZE; word++) {
+                    busy[word] |= mask(word, firstSlot, lastSlot);
+                }
+            }
+        }
+    }
+
+    // First slot of the day touched by a window starting at the given time (slot containing the start)
+    private int firstSlot(LocalDate day, LocalDateTime start) {
+        if (start.toLocalDate().isBefore(day)) {
+            return 0;
+        }
+        return (int) (Duration.between(day.atStartOfDay(), start).toMinutes() / slotMinutes);
+    }
+
+    // Last slot of the day touched by a window ending at the given (exclusive) time
+    private int lastSlot(LocalDate day, LocalDateTime end) {
+        long seconds = Duration.between(day.atStartOfDay(), end).toSeconds();
+        long slotSeconds = slotMinutes * 60L;
+        long slotsTouched = (seconds + slotSeconds - 1) / slotSeconds;
+        return (int) Math.min(slotsTouched, MINUTES_PER_DAY / slotMinutes) - 1;
+    }
+
+    // Bits of the given word that fall inside the inclusive slot range
+    private static long mask(int word, int firstSlot, int lastSlot) {
+        int from = Math.max(firstSlot, word * Long.SIZE) - word * Long.SIZE;
+        int to = Math.min(lastSlot, word * Long.SIZE + Long.SIZE - 1) - word * Long.SIZE;
+        return (-1L >>> (Long.SIZE - 1 - (to - from))) << from;
+    }
+}
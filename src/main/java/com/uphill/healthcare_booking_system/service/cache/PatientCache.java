@@ -0,0 +1,45 @@
+package com.uphill.healthcare_booking_system.service.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.uphill.healthcare_booking_system.repository.entity.Patient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Email -> patient cache for returning patients. Patients are never updated or deleted, so entries never go stale;
+// only committed patients must be put here. Callers get their own detached copy, which is enough to reference the
+// patient from a new appointment.
+@Component
+@ConditionalOnProperty(name = "booking.patient-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class PatientCache {
+
+    private final LruCache<String, Patient> patientsByEmail;
+
+    public PatientCache(MeterRegistry meterRegistry, @Value("${booking.patient-cache.max-size:100000}") int maxSize) {
+        this.patientsByEmail = new LruCache<>(maxSize);
+        new LruCacheMetrics(patientsByEmail, "patients").bindTo(meterRegistry);
+    }
+
+    public Patient get(String email) {
+        Patient cached = patientsByEmail.get(email);
+        return cached == null ? null : copyOf(cached);
+    }
+
+    public void put(Patient patient) {
+        patientsByEmail.put(patient.getEmail(), copyOf(patient));
+    }
+
+    public double hitRate() {
+        return patientsByEmail.hitRate();
+    }
+
+    private static Patient copyOf(Patient patient) {
+        Patient copy = new Patient();
+        copy.setId(patient.getId());
+        copy.setName(patient.getName());
+        copy.setEmail(patient.getEmail());
+        return copy;
+    }
+}
@@ -2,14 +2,23 @@ package com.uphill.healthcare_booking_system.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uphill.healthcare_booking_system.controller.input.AppointmentInput;
+import com.uphill.healthcare_booking_system.controller.input.BatchAppointmentInput;
+import com.uphill.healthcare_booking_system.domain.AppointmentCursor;
+import com.uphill.healthcare_booking_system.domain.AppointmentCursorPage;
 import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.domain.AppointmentSummary;
+import com.uphill.healthcare_booking_system.domain.BatchBookingResult;
 import com.uphill.healthcare_booking_system.domain.DoctorDomain;
 import com.uphill.healthcare_booking_system.domain.PatientDomain;
 import com.uphill.healthcare_booking_system.domain.RoomDomain;
 import com.uphill.healthcare_booking_system.domain.exceptions.InvalidAppointmentWindowException;
 import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableDoctorException;
 import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableRoomException;
+import com.uphill.healthcare_booking_system.enums.AppointmentStatus;
+import com.uphill.healthcare_booking_system.enums.BatchItemStatus;
+import com.uphill.healthcare_booking_system.service.AppointmentExportService;
 import com.uphill.healthcare_booking_system.service.AppointmentService;
+import com.uphill.healthcare_booking_system.service.BatchAppointmentService;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -24,14 +33,27 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -48,17 +70,33 @@ class AppointmentControllerIntegrationTest {
         @Autowired
         private AppointmentService appointmentService;
 
+        @Autowired
+        private BatchAppointmentService batchAppointmentService;
+
+        @Autowired
+        private AppointmentExportService appointmentExportService;
+
         @TestConfiguration
         static class MockConfig {
                 @Bean
                 public AppointmentService appointmentService() {
                         return Mockito.mock(AppointmentService.class);
                 }
+
+                @Bean
+                public BatchAppointmentService batchAppointmentService() {
+                        return Mockito.mock(BatchAppointmentService.class);
+                }
+
+                @Bean
+                public AppointmentExportService appointmentExportService() {
+                        return Mockito.mock(AppointmentExportService.class);
+                }
         }
 
         @BeforeEach
         void resetMocks() {
-                Mockito.reset(appointmentService);
+                Mockito.reset(appointmentService, batchAppointmentService, appointmentExportService);
         }
 
         private AppointmentInput buildValidInput() {
@@ -105,7 +143,48 @@ class AppointmentControllerIntegrationTest {
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.appointmentId").value(100L))
                                 .andExpect(jsonPath("$.doctorId").value(1L))
-                                .andExpect(jsonPath("$.roomId").value(10L));
+                                .andExpect(jsonPath("$.doctorName").value("Dr. Strange"))
+                                .andExpect(jsonPath("$.roomId").value(10L))
+                                .andExpect(jsonPath("$.roomLocation").value("First Floor"))
+                                .andExpect(jsonPath("$.patientEmail").value("john.doe@example.com"));
+        }
+
+        @Test
+        @DisplayName("POST /v1/appointments with a repeated Idempotency-Key books only once")
+        void bookAppointment_idempotencyKey_replaysBooking() throws Exception {
+                AppointmentInput input = buildValidInput();
+
+                DoctorDomain doctor = new DoctorDomain();
+                doctor.setId(1L);
+                RoomDomain room = new RoomDomain();
+                room.setId(10L);
+
+                AppointmentDomain domain = new AppointmentDomain();
+                domain.setId(100L);
+                domain.setDoctor(doctor);
+                domain.setRoom(room);
+                domain.setPatient(new PatientDomain());
+
+                when(appointmentService.bookAppointment(any())).thenReturn(domain);
+
+                String key = UUID.randomUUID().toString();
+                for (int attempt = 0; attempt < 2; attempt++) {
+                        mockMvc.perform(post("/v1/appointments")
+                                        .header("Idempotency-Key", key)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(input)))
+                                        .andExpect(status().isOk())
+                                        .andExpect(jsonPath("$.appointmentId").value(100L));
+                }
+                verify(appointmentService, times(1)).bookAppointment(any());
+
+                input.setPatientEmail("someone.else@example.com");
+                mockMvc.perform(post("/v1/appointments")
+                                .header("Idempotency-Key", key)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(input)))
+                                .andExpect(status().isUnprocessableEntity())
+                                .andExpect(jsonPath("$.exception").value("IdempotencyKeyReuseException"));
         }
 
         @Test
@@ -174,30 +253,16 @@ class AppointmentControllerIntegrationTest {
         @Test
         @DisplayName("GET /v1/appointments returns appointments paginated")
         void getAllAppointments_paginated_success() throws Exception {
-                DoctorDomain doctor = new DoctorDomain();
-                doctor.setId(1L);
-                doctor.setName("Dr. Strange");
-
-                RoomDomain room = new RoomDomain();
-                room.setId(10L);
-
-                PatientDomain patient = new PatientDomain();
-                patient.setEmail("john.doe@example.com");
-
-                AppointmentDomain appt1 = new AppointmentDomain();
-                appt1.setId(100L);
-                appt1.setDoctor(doctor);
-                appt1.setRoom(room);
-                appt1.setPatient(patient);
-
-                AppointmentDomain appt2 = new AppointmentDomain();
-                appt2.setId(101L);
-                appt2.setDoctor(doctor);
-                appt2.setRoom(room);
-                appt2.setPatient(patient);
+                LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+                AppointmentSummary appt1 = new AppointmentSummary(100L, 1L, "Dr. Strange", 10L, "Room A", "Floor 1", 20L, "john@example.com",
+                                start, start.plusHours(1),
+                                AppointmentStatus.SCHEDULED);
+                AppointmentSummary appt2 = new AppointmentSummary(101L, 1L, "Dr. Strange", 10L, "Room A", "Floor 1", 20L, "john@example.com",
+                                start.plusHours(1),
+                                start.plusHours(2), AppointmentStatus.SCHEDULED);
 
                 Pageable pageable = PageRequest.of(0, 20, Sort.by("startTime").ascending());
-                PageImpl<AppointmentDomain> page = new PageImpl<>(List.of(appt1, appt2), pageable, 2);
+                PageImpl<AppointmentSummary> page = new PageImpl<>(List.of(appt1, appt2), pageable, 2);
 
                 when(appointmentService.getAllAppointments(any(Pageable.class))).thenReturn(page);
 
@@ -207,14 +272,19 @@ class AppointmentControllerIntegrationTest {
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.content.length()").value(2))
                                 .andExpect(jsonPath("$.content[0].appointmentId").value(100L))
-                                .andExpect(jsonPath("$.content[1].appointmentId").value(101L));
+                                .andExpect(jsonPath("$.content[1].appointmentId").value(101L))
+                                .andExpect(jsonPath("$.content[0].doctorId").value(1L))
+                                .andExpect(jsonPath("$.content[0].doctorName").value("Dr. Strange"))
+                                .andExpect(jsonPath("$.content[0].roomId").value(10L))
+                                .andExpect(jsonPath("$.content[0].roomName").value("Room A"))
+                                .andExpect(jsonPath("$.content[0].patientEmail").value("john@example.com"));
         }
 
         @Test
         @DisplayName("GET /v1/appointments returns empty page")
         void getAllAppointments_paginated_empty() throws Exception {
                 Pageable pageable = PageRequest.of(0, 20, Sort.by("startTime").ascending());
-                PageImpl<AppointmentDomain> empty = new PageImpl<>(List.of(), pageable, 0);
+                PageImpl<AppointmentSummary> empty = new PageImpl<>(List.of(), pageable, 0);
 
                 when(appointmentService.getAllAppointments(any(Pageable.class))).thenReturn(empty);
 
@@ -238,4 +308,139 @@ class AppointmentControllerIntegrationTest {
                                 .andExpect(status().isInternalServerError())
                                 .andExpect(jsonPath("$.message").value("Unexpected error"));
         }
+
+        @Test
+        @DisplayName("POST /v1/appointments/batch returns one result per item")
+        void bookAppointments_batch() throws Exception {
+                BatchAppointmentInput batchInput = new BatchAppointmentInput();
+                batchInput.setAppointments(List.of(buildValidInput(), buildValidInput()));
+
+                DoctorDomain doctor = new DoctorDomain();
+                doctor.setId(1L);
+                RoomDomain room = new RoomDomain();
+                room.setId(10L);
+
+                AppointmentDomain booked = new AppointmentDomain();
+                booked.setId(100L);
+                booked.setDoctor(doctor);
+                booked.setRoom(room);
+                booked.setPatient(new PatientDomain());
+
+                when(batchAppointmentService.bookAppointments(any())).thenReturn(List.of(
+                                BatchBookingResult.booked(0, booked),
+                                BatchBookingResult.rejected(1, BatchItemStatus.CONFLICT, "No available doctor")));
+
+                mockMvc.perform(post("/v1/appointments/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(batchInput)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(2))
+                                .andExpect(jsonPath("$[0].status").value("BOOKED"))
+                                .andExpect(jsonPath("$[0].appointment.appointmentId").value(100L))
+                                .andExpect(jsonPath("$[1].status").value("CONFLICT"))
+                                .andExpect(jsonPath("$[1].message").value("No available doctor"));
+        }
+
+        @Test
+        @DisplayName("GET /v1/appointments?cursor= pages by keyset and hands back an opaque next cursor")
+        void getAppointmentsByCursor_success() throws Exception {
+                LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+                AppointmentSummary appt = new AppointmentSummary(100L, 1L, "Dr. Strange", 10L, "Room A", "Floor 1", 20L, "john@example.com",
+                                start, start.plusHours(1),
+                                AppointmentStatus.SCHEDULED);
+
+                AppointmentCursor next = AppointmentCursor.after(appt);
+                when(appointmentService.getAppointmentsAfter(isNull(), eq(1)))
+                                .thenReturn(new AppointmentCursorPage(List.of(appt), next));
+                when(appointmentService.getAppointmentsAfter(argThat(cursor -> cursor != null && cursor.getId() == 100L
+                                && cursor.getStartTime().equals(start)), eq(1)))
+                                .thenReturn(new AppointmentCursorPage(List.of(), null));
+
+                mockMvc.perform(get("/v1/appointments")
+                                .param("cursor", "")
+                                .param("size", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content.length()").value(1))
+                                .andExpect(jsonPath("$.content[0].appointmentId").value(100L))
+                                .andExpect(jsonPath("$.nextCursor").value(next.encode()));
+
+                mockMvc.perform(get("/v1/appointments")
+                                .param("cursor", next.encode())
+                                .param("size", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content.length()").value(0))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+                verify(appointmentService, never()).getAllAppointments(any());
+        }
+
+        @Test
+        void getAppointmentsByCursor_invalidCursor() throws Exception {
+                mockMvc.perform(get("/v1/appointments")
+                                .param("cursor", "not-a-cursor"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.exception").value("InvalidCursorException"));
+        }
+
+        @Test
+        @DisplayName("GET /v1/appointments/export streams one JSON object per line")
+        void exportAppointments_ndjson() throws Exception {
+                stubExport();
+
+                MvcResult started = mockMvc.perform(get("/v1/appointments/export"))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+                String body = mockMvc.perform(asyncDispatch(started))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType("application/x-ndjson"))
+                                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                                                "attachment; filename=\"appointments.ndjson\""))
+                                .andReturn().getResponse().getContentAsString();
+
+                List<String> lines = body.lines().toList();
+                assertThat(lines).hasSize(2);
+                assertThat(objectMapper.readTree(lines.get(0)).get("appointmentId").asLong()).isEqualTo(100L);
+                assertThat(objectMapper.readTree(lines.get(1)).get("appointmentId").asLong()).isEqualTo(101L);
+        }
+
+        @Test
+        @DisplayName("GET /v1/appointments/export?format=csv streams a header row and one row per appointment")
+        void exportAppointments_csv() throws Exception {
+                stubExport();
+
+                MvcResult started = mockMvc.perform(get("/v1/appointments/export").param("format", "csv"))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+                String body = mockMvc.perform(asyncDispatch(started))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType("text/csv"))
+                                .andReturn().getResponse().getContentAsString();
+
+                assertThat(body.lines().toList()).containsExactly(
+                                "appointment_id,start_time,end_time,doctor_id,room_id,patient_id,status",
+                                "100,2030-01-01T09:00,2030-01-01T10:00,1,10,20,SCHEDULED",
+                                "101,2030-01-01T10:00,2030-01-01T11:00,1,10,20,SCHEDULED");
+        }
+
+        @Test
+        void exportAppointments_unknownFormat() throws Exception {
+                mockMvc.perform(get("/v1/appointments/export").param("format", "xml"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.exception").value("InvalidExportFormatException"));
+                verify(appointmentExportService, never()).exportAppointments(any());
+        }
+
+        @SuppressWarnings("unchecked")
+        private void stubExport() {
+                LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+                doAnswer(invocation -> {
+                        Consumer<AppointmentSummary> sink = invocation.getArgument(0);
+                        sink.accept(new AppointmentSummary(100L, 1L, "Dr. Strange", 10L, "Room A", "Floor 1", 20L, "john@example.com",
+                                        start, start.plusHours(1),
+                                        AppointmentStatus.SCHEDULED));
+                        sink.accept(new AppointmentSummary(101L, 1L, "Dr. Strange", 10L, "Room A", "Floor 1", 20L, "john@example.com",
+                                        start.plusHours(1),
+                                        start.plusHours(2), AppointmentStatus.SCHEDULED));
+                        return 2L;
+                }).when(appointmentExportService).exportAppointments(any(Consumer.class));
+        }
 }
@@ -0,0 +1,83 @@
+package com.uphill.healthcare_booking_system.controller;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.domain.PatientDomain;
+import com.uphill.healthcare_booking_system.service.AppointmentService;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+class AvailabilityControllerIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private AppointmentService appointmentService;
+
+        // Far enough ahead that no other test books into it
+        private final LocalDateTime day = LocalDateTime.now().plusYears(3).toLocalDate().atStartOfDay();
+
+        @Test
+        @DisplayName("Booked windows should disappear from availability without a restart")
+        void getFreeSlots_reflectsNewBookings() throws Exception {
+                searchPediatrics(day.plusHours(9), day.plusHours(11))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$", hasSize(5)))
+                                .andExpect(jsonPath("$[0].startTime").value(day.plusHours(9) + ":00"))
+                                .andExpect(jsonPath("$[0].doctorId").isNumber())
+                                .andExpect(jsonPath("$[0].roomId").isNumber());
+
+                appointmentService.bookAppointment(request(day.plusHours(9), day.plusHours(10)));
+
+                // Pediatrics has a single doctor, so every window touching 09:00-10:00 is gone
+                searchPediatrics(day.plusHours(9), day.plusHours(11))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$", hasSize(1)));
+        }
+
+        @Test
+        void getFreeSlots_invalidRange_returnsBadRequest() throws Exception {
+                searchPediatrics(day.plusHours(11), day.plusHours(9))
+                                .andExpect(status().isBadRequest());
+        }
+
+        private ResultActions searchPediatrics(LocalDateTime from, LocalDateTime to) throws Exception {
+                return mockMvc.perform(get("/v1/availability")
+                                .param("specialty", "Pediatrics")
+                                .param("from", String.valueOf(epochSeconds(from)))
+                                .param("to", String.valueOf(epochSeconds(to)))
+                                .param("duration", "60"));
+        }
+
+        private AppointmentDomain request(LocalDateTime start, LocalDateTime end) {
+                PatientDomain patient = new PatientDomain();
+                patient.setName("Jane Roe");
+                patient.setEmail("jane.roe@example.com");
+
+                AppointmentDomain domain = new AppointmentDomain();
+                domain.setStartTime(start);
+                domain.setEndTime(end);
+                domain.setSpecialty("Pediatrics");
+                domain.setPatient(patient);
+                return domain;
+        }
+
+        private static long epochSeconds(LocalDateTime time) {
+                return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+        }
+}
@@ -0,0 +1,108 @@
+package com.uphill.healthcare_booking_system.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.uphill.healthcare_booking_system.integration.impl.BatchingEmailClient;
+import com.uphill.healthcare_booking_system.integration.impl.FakeEmailClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BatchingEmailClientTest {
+
+    private final FakeEmailClient provider = new FakeEmailClient();
+    private BatchingEmailClient client;
+
+    @AfterEach
+    void tearDown() {
+        client.destroy();
+    }
+
+    @Test
+    void fullBatch_isSentAsOneBulkCallRightAway() throws Exception {
+        client = new BatchingEmailClient(provider, new SimpleMeterRegistry(), 100, 3, 60_000);
+
+        send(3);
+
+        awaitTrue(() -> provider.getSentBatches().size() == 1);
+        assertThat(provider.getSentBatches().get(0)).extracting(EmailMessage::getToEmail)
+                .containsExactly("patient0@example.com", "patient1@example.com", "patient2@example.com");
+    }
+
+    @Test
+    void partialBatch_isSentOnTheFlushInterval() throws Exception {
+        client = new BatchingEmailClient(provider, new SimpleMeterRegistry(), 100, 100, 50);
+
+        send(2);
+
+        awaitTrue(() -> provider.getSentBatches().size() == 1);
+        assertThat(provider.getSentBatches().get(0)).hasSize(2);
+    }
+
+    @Test
+    void fullBuffer_callerSendsABatchInsteadOfDropping() {
+        client = new BatchingEmailClient(provider, new SimpleMeterRegistry(), 2, 2, 60_000);
+
+        send(5);
+        client.destroy();
+
+        List<List<EmailMessage>> batches = provider.getSentBatches();
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(2));
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(5);
+    }
+
+    @Test
+    void sentMessage_completesOnceItsBulkCallWasAccepted() throws Exception {
+        client = new BatchingEmailClient(provider, new SimpleMeterRegistry(), 100, 100, 60_000);
+
+        CompletableFuture<Void> sent = client.sendAppointmentConfirmation("john@example.com", "Subject", "Body");
+        assertThat(sent).isNotDone();
+        client.flushAll();
+
+        sent.get(5, TimeUnit.SECONDS);
+        assertThat(provider.getSentBatches()).hasSize(1);
+    }
+
+    @Test
+    void failedBulkSend_failsEveryMessageOfTheBatch() {
+        EmailClient failing = mock(EmailClient.class);
+        when(failing.sendBulk(anyList())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("provider down")));
+        client = new BatchingEmailClient(failing, new SimpleMeterRegistry(), 100, 10, 60_000);
+
+        List<CompletableFuture<Void>> sent = send(3);
+        client.flushAll();
+
+        assertThat(sent).allSatisfy(future -> assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("provider down"));
+    }
+
+    private List<CompletableFuture<Void>> send(int count) {
+        List<CompletableFuture<Void>> sent = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sent.add(client.sendAppointmentConfirmation("patient" + i + "@example.com", "Appointment confirmed", "Body " + i));
+        }
+        return sent;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,115 @@
+package com.uphill.healthcare_booking_system.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.uphill.healthcare_booking_system.integration.impl.CoalescingDoctorCalendarClient;
+import com.uphill.healthcare_booking_system.integration.impl.FakeDoctorCalendarClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CoalescingDoctorCalendarClientTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    private final FakeDoctorCalendarClient partner = new FakeDoctorCalendarClient();
+    private CoalescingDoctorCalendarClient client;
+
+    @AfterEach
+    void tearDown() {
+        client.destroy();
+    }
+
+    @Test
+    void flush_sendsOneMergedCallPerDoctor() {
+        client = new CoalescingDoctorCalendarClient(partner, new SimpleMeterRegistry(), 1000, 60_000);
+
+        client.reserveSlot(1L, NINE.plusMinutes(30), NINE.plusMinutes(60));
+        client.reserveSlot(1L, NINE, NINE.plusMinutes(30));
+        client.reserveSlot(1L, NINE.plusMinutes(45), NINE.plusMinutes(90));
+        client.reserveSlot(1L, NINE.plusHours(3), NINE.plusHours(4));
+        client.reserveSlot(2L, NINE, NINE.plusMinutes(30));
+        client.flush();
+
+        Map<Long, List<CalendarSlot>> calls = callsByDoctor();
+        assertThat(partner.getBatchCalls()).hasSize(2);
+        assertThat(calls.get(1L)).extracting(CalendarSlot::getStart, CalendarSlot::getEnd).containsExactly(
+                tuple(NINE, NINE.plusMinutes(90)),
+                tuple(NINE.plusHours(3), NINE.plusHours(4)));
+        assertThat(calls.get(2L)).hasSize(1);
+    }
+
+    @Test
+    void maxPendingReached_callerSyncsRightAway() {
+        client = new CoalescingDoctorCalendarClient(partner, new SimpleMeterRegistry(), 2, 60_000);
+
+        client.reserveSlot(1L, NINE, NINE.plusMinutes(30));
+        assertThat(partner.getBatchCalls()).isEmpty();
+        client.reserveSlot(1L, NINE.plusHours(1), NINE.plusHours(2));
+
+        assertThat(partner.getBatchCalls()).hasSize(1);
+        assertThat(partner.getBatchCalls().get(0).getValue()).hasSize(2);
+    }
+
+    @Test
+    void flushInterval_syncsPendingSlots() throws Exception {
+        client = new CoalescingDoctorCalendarClient(partner, new SimpleMeterRegistry(), 1000, 20);
+
+        client.reserveSlot(1L, NINE, NINE.plusMinutes(30));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (partner.getBatchCalls().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(partner.getBatchCalls()).hasSize(1);
+    }
+
+    @Test
+    void reservedSlot_completesOnceItsDoctorWasSynced() throws Exception {
+        client = new CoalescingDoctorCalendarClient(partner, new SimpleMeterRegistry(), 1000, 60_000);
+
+        CompletableFuture<Void> reserved = client.reserveSlot(1L, NINE, NINE.plusMinutes(30));
+        assertThat(reserved).isNotDone();
+        client.flush();
+
+        reserved.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void failedSync_failsTheCallersOfThatDoctorOnly() throws Exception {
+        DoctorCalendarClient failing = mock(DoctorCalendarClient.class);
+        when(failing.reserveSlots(eq(1L), anyList()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("calendar down")));
+        when(failing.reserveSlots(eq(2L), anyList())).thenReturn(CompletableFuture.completedFuture(null));
+        client = new CoalescingDoctorCalendarClient(failing, new SimpleMeterRegistry(), 1000, 60_000);
+
+        CompletableFuture<Void> first = client.reserveSlot(1L, NINE, NINE.plusMinutes(30));
+        CompletableFuture<Void> second = client.reserveSlot(1L, NINE.plusHours(1), NINE.plusHours(2));
+        CompletableFuture<Void> other = client.reserveSlot(2L, NINE, NINE.plusMinutes(30));
+        client.flush();
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("calendar down");
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("calendar down");
+        other.get(5, TimeUnit.SECONDS);
+    }
+
+    private Map<Long, List<CalendarSlot>> callsByDoctor() {
+        return partner.getBatchCalls().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+}
@@ -0,0 +1,27 @@
+package com.uphill.healthcare_booking_system.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+class EmailTemplateTest {
+
+    @Test
+    void render_fillsPlaceholdersInDeclaredOrder() {
+        EmailTemplate template = EmailTemplate.compile("Dear {patient}, see Dr. {doctor} at {start}. Bye {patient}",
+                "patient", "doctor", "start");
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+        assertThat(template.render("John", "House", start))
+                .isEqualTo(String.format("Dear %s, see Dr. %s at %s. Bye %s", "John", "House", start, "John"));
+    }
+
+    @Test
+    void compile_rejectsUndeclaredPlaceholder() {
+        assertThatThrownBy(() -> EmailTemplate.compile("Dear {name}", "patient"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,154 @@
+package com.uphill.healthcare_booking_system.integration.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.uphill.healthcare_booking_system.enums.CircuitState;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IntegrationGuardTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private IntegrationGuard guard;
+    private IntegrationGuard other;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        guard.close();
+        if (other != null) {
+            other.close();
+        }
+    }
+
+    @Test
+    void failedAttempts_areRetriedUntilOneSucceeds() throws Exception {
+        guard = guard("flaky", 1, 10, 1_000, 3, 100);
+        AtomicInteger calls = new AtomicInteger();
+
+        guard.execute("op", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IllegalStateException("partner error");
+            }
+        }).get(5, TimeUnit.SECONDS);
+
+        assertThat(calls).hasValue(3);
+        assertThat(count("flaky", "failure")).isEqualTo(2);
+        assertThat(count("flaky", "success")).isEqualTo(1);
+        assertThat(guard.getCircuitState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void slowAttempt_timesOutAndIsDroppedAfterTheLastAttempt() {
+        guard = guard("slow", 2, 10, 50, 2, 100);
+
+        CompletableFuture<Void> result = guard.execute("op", this::block);
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(count("slow", "timeout")).isEqualTo(2);
+        assertThat(count("slow", "dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void fullBulkhead_rejectsAtOnceInsteadOfWaiting() {
+        guard = guard("busy", 1, 1, 10_000, 1, 100);
+        guard.execute("op", this::block);
+        guard.execute("op", this::block);
+
+        long started = System.nanoTime();
+        CompletableFuture<Void> rejected = guard.execute("op", this::block);
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1_000);
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(count("busy", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    void openCircuit_shortCircuitsWithoutCallingThePartner() throws Exception {
+        guard = guard("down", 1, 10, 1_000, 1, 1);
+        AtomicInteger calls = new AtomicInteger();
+        Runnable failing = () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("partner down");
+        };
+        awaitFailure(guard.execute("op", failing));
+        assertThat(guard.getCircuitState()).isEqualTo(CircuitState.OPEN);
+
+        awaitFailure(guard.execute("op", failing));
+
+        assertThat(calls).hasValue(1);
+        assertThat(count("down", "short_circuited")).isEqualTo(1);
+    }
+
+    @Test
+    void degradedPartner_doesNotSlowDownAnotherPartner() throws Exception {
+        guard = guard("degraded", 1, 1, 10_000, 1, 100);
+        other = guard("healthy", 1, 10, 1_000, 1, 100);
+        for (int i = 0; i < 5; i++) {
+            guard.execute("op", this::block);
+        }
+
+        long started = System.nanoTime();
+        other.execute("op", () -> { }).get(5, TimeUnit.SECONDS);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1_000);
+        assertThat(count("healthy", "success")).isEqualTo(1);
+    }
+
+    @Test
+    void retryDelay_growsExponentiallyUpToTheMax() {
+        guard = new IntegrationGuard("backoff", meterRegistry, 1, 1, 1_000, 5, 100, 500, new CircuitBreaker(5, 1_000));
+
+        assertThat(guard.retryDelayMillis(1)).isBetween(100L, 150L);
+        assertThat(guard.retryDelayMillis(2)).isBetween(200L, 300L);
+        assertThat(guard.retryDelayMillis(3)).isBetween(400L, 600L);
+        assertThat(guard.retryDelayMillis(10)).isBetween(500L, 750L);
+    }
+
+    private IntegrationGuard guard(String partner, int threads, int queueCapacity, long timeoutMillis,
+            int maxAttempts, int failureThreshold) {
+        return new IntegrationGuard(partner, meterRegistry, threads, queueCapacity, timeoutMillis, maxAttempts, 10, 20,
+                new CircuitBreaker(failureThreshold, 60_000));
+    }
+
+    private void block() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double count(String partner, String outcome) {
+        var counter = meterRegistry.find("booking.integration.calls").tag("partner", partner).tag("outcome", outcome)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void awaitFailure(CompletableFuture<Void> result) throws InterruptedException {
+        try {
+            result.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException expected) {
+            // the call gave up, as expected
+        } catch (TimeoutException e) {
+            throw new AssertionError("Call did not complete", e);
+        }
+    }
+}
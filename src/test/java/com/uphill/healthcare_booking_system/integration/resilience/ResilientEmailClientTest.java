@@ -0,0 +1,57 @@
+package com.uphill.healthcare_booking_system.integration.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.uphill.healthcare_booking_system.integration.EmailClient;
+import com.uphill.healthcare_booking_system.integration.EmailMessage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ResilientEmailClientTest {
+
+    private final EmailClient provider = mock(EmailClient.class);
+    private final IntegrationGuard guard = new IntegrationGuard("email", new SimpleMeterRegistry(), 1, 10, 1_000, 2,
+            10, 20, new CircuitBreaker(5, 60_000));
+    private final ResilientEmailClient client = new ResilientEmailClient(provider, guard);
+
+    @AfterEach
+    void tearDown() {
+        guard.close();
+    }
+
+    @Test
+    void sendBulk_completesOnceTheProviderAccepted() throws Exception {
+        when(provider.sendBulk(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+        client.sendBulk(List.of(new EmailMessage("john@example.com", "Subject", "Body"))).get(5, TimeUnit.SECONDS);
+
+        verify(provider).sendBulk(anyList());
+    }
+
+    @Test
+    void sendBulk_failingAfterTheLastAttempt_failsTheCallersFuture() {
+        when(provider.sendBulk(anyList())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")));
+
+        CompletableFuture<Void> result = client.sendBulk(List.of(new EmailMessage("john@example.com", "Subject", "Body")));
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("down");
+        assertThat(result).isCompletedExceptionally();
+        verify(provider, times(2)).sendBulk(anyList());
+    }
+}
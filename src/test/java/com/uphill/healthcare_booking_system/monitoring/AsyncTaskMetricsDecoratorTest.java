@@ -0,0 +1,90 @@
+package com.uphill.healthcare_booking_system.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AsyncTaskMetricsDecoratorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AsyncTaskMetricsDecorator decorator = new AsyncTaskMetricsDecorator(registry);
+
+    @Test
+    @DisplayName("Should count a task as queued until it starts and as active while it runs")
+    void decorate_tracksQueuedAndActive() {
+        AtomicReference<Double> activeWhileRunning = new AtomicReference<>();
+        Runnable task = decorator.decorate(() -> activeWhileRunning.set(gauge("booking.async.tasks.active")));
+
+        assertThat(gauge("booking.async.tasks.queued")).isEqualTo(1.0);
+
+        task.run();
+
+        assertThat(activeWhileRunning.get()).isEqualTo(1.0);
+        assertThat(gauge("booking.async.tasks.queued")).isZero();
+        assertThat(gauge("booking.async.tasks.active")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stop counting a task as active when it fails")
+    void decorate_failingTask() {
+        Runnable task = decorator.decorate(() -> {
+            throw new IllegalStateException("partner down");
+        });
+
+        try {
+            task.run();
+        } catch (IllegalStateException expected) {
+            // the executor would log it
+        }
+
+        assertThat(gauge("booking.async.tasks.active")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not count a task the pool rejects as queued")
+    void decorate_rejectedTask() throws InterruptedException {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setTaskDecorator(decorator);
+        decorator.customize(executor);
+        executor.initialize();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> executor.execute(() -> { }))
+                    .isInstanceOf(RejectedExecutionException.class);
+
+            assertThat(gauge("booking.async.tasks.queued")).isZero();
+            assertThat(gauge("booking.async.tasks.active")).isEqualTo(1.0);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+}
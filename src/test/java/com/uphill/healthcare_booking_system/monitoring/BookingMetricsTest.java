@@ -0,0 +1,90 @@
+package com.uphill.healthcare_booking_system.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableRoomException;
+import com.uphill.healthcare_booking_system.enums.BookingStage;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BookingMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BookingMetrics metrics = new BookingMetrics(registry);
+
+    @Test
+    @DisplayName("Should time each stage separately, including stages that fail")
+    void time_recordsPerStage() {
+        assertThat(metrics.time(BookingStage.SAVE, () -> 42)).isEqualTo(42);
+        assertThatThrownBy(() -> metrics.time(BookingStage.DOCTOR_LOCK, () -> {
+            throw new IllegalStateException("lock timeout");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registry.get("booking.stage.duration").tag("stage", "save").timer().count()).isEqualTo(1);
+        assertThat(registry.get("booking.stage.duration").tag("stage", "doctor_lock").timer().count()).isEqualTo(1);
+        assertThat(registry.get("booking.stage.duration").tag("stage", "room_lock").timer().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should record each stage once per booking, with the time of all its visits")
+    void timeBooking_recordsStagesOncePerBooking() {
+        metrics.timeBooking(() -> {
+            metrics.time(BookingStage.DOCTOR_SELECT, () -> sleep(5));
+            metrics.time(BookingStage.DOCTOR_LOCK, () -> 1);
+            return metrics.time(BookingStage.DOCTOR_SELECT, () -> sleep(5));
+        });
+
+        Timer select = registry.get("booking.stage.duration").tag("stage", "doctor_select").timer();
+        assertThat(select.count()).isEqualTo(1);
+        assertThat(select.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(10);
+        assertThat(registry.get("booking.stage.duration").tag("stage", "doctor_lock").timer().count()).isEqualTo(1);
+        assertThat(registry.get("booking.stage.duration").tag("stage", "save").timer().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should record lock waits per resource")
+    void timeLockWait_recordsHistogram() {
+        metrics.timeRoomLockWait(() -> "room");
+
+        assertThat(registry.get("booking.lock.wait").tag("resource", "room").timer().count()).isEqualTo(1);
+        assertThat(registry.get("booking.lock.wait").tag("resource", "doctor").timer().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count fallbacks by reason and conflicts by exception type")
+    void counters() {
+        metrics.recordFallback("doctor", "requery");
+        metrics.recordFallback("doctor", "requery");
+        metrics.recordConflict(new NoAvailableRoomException(null, null));
+
+        assertThat(registry.get("booking.allocation.fallbacks").tag("resource", "doctor").tag("reason", "requery")
+                .counter().count()).isEqualTo(2);
+        assertThat(registry.get("booking.conflicts").tag("exception", "NoAvailableRoomException").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should record optimistic claim waits on the doctor's lock wait timer")
+    void recordClaimWait_sharesLockWaitTimer() {
+        metrics.timeDoctorLockWait(() -> 1);
+        metrics.recordClaimWait("doctor", 5_000_000);
+
+        assertThat(registry.get("booking.lock.wait").tag("resource", "doctor").timer().count()).isEqualTo(2);
+    }
+
+    private static int sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.uphill.healthcare_booking_system.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry, 10);
+    private final Object lock = new Object();
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    @DisplayName("Should count a virtual thread that blocks while holding a monitor")
+    void start_countsPinnedVirtualThread() throws InterruptedException {
+        monitor.start();
+
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        // JFR hands recorded events to the stream about once a second
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (pinnedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(pinnedCount()).isGreaterThanOrEqualTo(1.0);
+        assertThat(registry.get("booking.virtual.threads.pinned.duration").timer().count()).isPositive();
+    }
+
+    private double pinnedCount() {
+        return registry.get("booking.virtual.threads.pinned").counter().count();
+    }
+}
@@ -233,4 +233,89 @@ class AppointmentRepositoryTest {
         assertThat(page.getContent()).hasSize(1);
         assertThat(page.getContent().get(0).getDoctor().getName()).isEqualTo("Dr. Strange");
     }
+
+    @Test
+    @DisplayName("Overlap check should find an appointment that started in the previous month bucket")
+    void existsOverlapForDoctor_acrossMonthBoundary() {
+        // given
+        Patient patient = new Patient();
+        patient.setName("John Doe");
+        patient.setEmail("john.doe@example.com");
+        patientRepository.save(patient);
+
+        LocalDateTime lateJanuary = LocalDateTime.of(2099, 1, 31, 23, 30);
+        Appointment appt = saveAppointment(patient, "Dr. A", "Room A", lateJanuary);
+
+        // when
+        boolean overlaps = appointmentRepository.existsOverlapForDoctor(appt.getDoctor().getId(),
+                LocalDateTime.of(2099, 2, 1, 0, 0), LocalDateTime.of(2099, 2, 1, 0, 30));
+        boolean nextDay = appointmentRepository.existsOverlapForDoctor(appt.getDoctor().getId(),
+                LocalDateTime.of(2099, 2, 1, 0, 0).plusDays(1), LocalDateTime.of(2099, 2, 1, 0, 30).plusDays(1));
+
+        // then
+        assertThat(appt.getPartitionKey()).isEqualTo(209901);
+        assertThat(overlaps).isTrue();
+        assertThat(nextDay).isFalse();
+    }
+
+    @Test
+    @DisplayName("EXPLAIN should show overlap checks seeking the partition index with a bounded start_time range")
+    void overlapQueries_useBoundedPartitionIndex() {
+        String doctorPlan = explain("""
+                SELECT COUNT(*) FROM appointment a
+                WHERE a.doctor_id = 1
+                  AND a.partition_key IN (209901, 209902)
+                  AND a.start_time >= TIMESTAMP '2099-01-31 09:00:00'
+                  AND a.start_time < TIMESTAMP '2099-02-01 10:00:00'
+                  AND a.end_time > TIMESTAMP '2099-02-01 09:00:00'
+                """);
+        String roomPlan = explain("""
+                SELECT COUNT(*) FROM appointment a
+                WHERE a.room_id = 1
+                  AND a.partition_key IN (209902)
+                  AND a.start_time >= TIMESTAMP '2099-02-01 09:00:00'
+                  AND a.start_time < TIMESTAMP '2099-02-02 10:00:00'
+                  AND a.end_time > TIMESTAMP '2099-02-02 09:00:00'
+                """);
+
+        assertThat(indexCondition(doctorPlan)).contains("IDX_APPOINTMENT_DOCTOR_PARTITION_START")
+                .contains("START_TIME >=").contains("START_TIME <");
+        assertThat(indexCondition(roomPlan)).contains("IDX_APPOINTMENT_ROOM_PARTITION_START")
+                .contains("START_TIME >=").contains("START_TIME <");
+    }
+
+    private String explain(String sql) {
+        return em.createNativeQuery("EXPLAIN " + sql).getSingleResult().toString();
+    }
+
+    // H2 prints the chosen index and the conditions it seeks on as a comment under the table
+    private String indexCondition(String plan) {
+        int start = plan.indexOf("/*");
+        return plan.substring(start, plan.indexOf("*/", start));
+    }
+
+    private Appointment saveAppointment(Patient patient, String doctorName, String roomName, LocalDateTime start) {
+        return appointmentRepository.save(newAppointment(patient, doctorName, roomName, start));
+    }
+
+    private Appointment newAppointment(Patient patient, String doctorName, String roomName, LocalDateTime start) {
+        Doctor doctor = new Doctor();
+        doctor.setName(doctorName);
+        doctor.setSpecialty("Cardiology");
+        doctorRepository.save(doctor);
+
+        Room room = new Room();
+        room.setName(roomName);
+        room.setLocation("First Floor");
+        roomRepository.save(room);
+
+        Appointment appt = new Appointment();
+        appt.setDoctor(doctor);
+        appt.setRoom(room);
+        appt.setPatient(patient);
+        appt.setStartTime(start);
+        appt.setEndTime(start.plusHours(1));
+        appt.setStatus(AppointmentStatus.SCHEDULED);
+        return appt;
+    }
 }
@@ -0,0 +1,204 @@
+package com.uphill.healthcare_booking_system.repository;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentSummary;
+import com.uphill.healthcare_booking_system.enums.AppointmentStatus;
+import com.uphill.healthcare_booking_system.repository.entity.Appointment;
+import com.uphill.healthcare_booking_system.repository.entity.AppointmentView;
+import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.entity.Patient;
+import com.uphill.healthcare_booking_system.repository.entity.Room;
+
+import jakarta.persistence.EntityManager;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AppointmentViewRepositoryTest {
+
+    @Autowired
+    private AppointmentViewRepository appointmentViewRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private Patient patient;
+
+    @BeforeEach
+    void cleanDatabase() {
+        em.createQuery("DELETE FROM AppointmentView").executeUpdate();
+        em.createQuery("DELETE FROM Appointment").executeUpdate();
+        em.createQuery("DELETE FROM Doctor").executeUpdate();
+        em.createQuery("DELETE FROM Room").executeUpdate();
+        em.createQuery("DELETE FROM Patient").executeUpdate();
+
+        patient = new Patient();
+        patient.setName("John Doe");
+        patient.setEmail("john.doe@example.com");
+        patientRepository.save(patient);
+    }
+
+    @Test
+    @DisplayName("A saved view row should be listed with the doctor, room and patient details copied in")
+    void findAllSummaries_readsDenormalizedColumns() {
+        // given
+        Appointment appointment = saveAppointment(patient, "Dr. House", "Room A", LocalDateTime.now().plusHours(1));
+        appointmentViewRepository.save(AppointmentView.of(appointment));
+        em.flush();
+        em.clear();
+
+        // when
+        Page<AppointmentSummary> page = appointmentViewRepository.findAllSummaries(PageRequest.of(0, 10));
+
+        // then
+        assertThat(page.getContent()).hasSize(1);
+        AppointmentSummary summary = page.getContent().get(0);
+        assertThat(summary.getId()).isEqualTo(appointment.getId());
+        assertThat(summary.getDoctorName()).isEqualTo("Dr. House");
+        assertThat(summary.getRoomName()).isEqualTo("Room A");
+        assertThat(summary.getRoomLocation()).isEqualTo("First Floor");
+        assertThat(summary.getPatientEmail()).isEqualTo("john.doe@example.com");
+        assertThat(summary.getStatus()).isEqualTo(AppointmentStatus.SCHEDULED);
+    }
+
+    @Test
+    @DisplayName("Backfill should add the appointments that have no view row, and only once")
+    void backfillMissing_insertsOnlyMissingRows() {
+        // given
+        LocalDateTime start = LocalDateTime.now().plusHours(1).withNano(0);
+        Appointment withView = saveAppointment(patient, "Dr. A", "Room A", start);
+        appointmentViewRepository.save(AppointmentView.of(withView));
+        Appointment withoutView = saveAppointment(patient, "Dr. B", "Room B", start.plusHours(1));
+        em.flush();
+
+        // when
+        int inserted = appointmentViewRepository.backfillMissing();
+        int insertedAgain = appointmentViewRepository.backfillMissing();
+
+        // then
+        assertThat(inserted).isEqualTo(1);
+        assertThat(insertedAgain).isZero();
+        em.clear();
+        AppointmentView backfilled = appointmentViewRepository.findById(withoutView.getId()).orElseThrow();
+        assertThat(backfilled.getDoctorName()).isEqualTo("Dr. B");
+        assertThat(backfilled.getRoomName()).isEqualTo("Room B");
+        assertThat(backfilled.getPatientEmail()).isEqualTo("john.doe@example.com");
+        assertThat(backfilled.getStartTime()).isEqualTo(start.plusHours(1));
+    }
+
+    @Test
+    @DisplayName("Keyset paging should walk (startTime, id) order without skipping ties on startTime")
+    void findPageAfter_keysetOrder() {
+        // given
+        LocalDateTime early = LocalDateTime.now().plusHours(1).withNano(0);
+        LocalDateTime late = early.plusHours(2);
+        Appointment first = saveAppointment(patient, "Dr. A", "Room A", early);
+        Appointment tieA = saveAppointment(patient, "Dr. B", "Room B", late);
+        Appointment tieB = saveAppointment(patient, "Dr. C", "Room C", late);
+        appointmentViewRepository.backfillMissing();
+
+        // when
+        List<AppointmentSummary> firstPage = appointmentViewRepository.findFirstPageByStartTime(Limit.of(2));
+        AppointmentSummary last = firstPage.get(firstPage.size() - 1);
+        List<AppointmentSummary> secondPage = appointmentViewRepository.findPageAfter(last.getStartTime(), last.getId(),
+                Limit.of(2));
+
+        // then
+        assertThat(firstPage).extracting(AppointmentSummary::getId).containsExactly(first.getId(), tieA.getId());
+        assertThat(secondPage).extracting(AppointmentSummary::getId).containsExactly(tieB.getId());
+        assertThat(secondPage.get(0).getDoctorId()).isEqualTo(tieB.getDoctor().getId());
+        assertThat(secondPage.get(0).getDoctorName()).isEqualTo("Dr. C");
+    }
+
+    @Test
+    @DisplayName("Listing 1000 appointments should take one statement per page and load no entity")
+    void findAllSummaries_statementCountStaysFlat() {
+        // given
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Patient other = new Patient();
+            other.setName("Patient " + i);
+            other.setEmail("patient" + i + "@example.com");
+            appointments.add(newAppointment(patientRepository.save(other), "Dr. " + i, "Room " + i,
+                    start.plusHours(i)));
+        }
+        appointmentViewRepository.saveAll(appointmentRepository.saveAll(appointments).stream()
+                .map(AppointmentView::of)
+                .toList());
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        Page<AppointmentSummary> page = appointmentViewRepository.findAllSummaries(
+                PageRequest.of(0, 1000, Sort.by("startTime")));
+        long pageStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        List<AppointmentSummary> keysetPage = appointmentViewRepository.findFirstPageByStartTime(Limit.of(1000));
+        long keysetStatements = statistics.getPrepareStatementCount();
+
+        // then: the page query and its count, and nothing per row
+        assertThat(page.getContent()).hasSize(1000);
+        assertThat(page.getContent().get(999).getStartTime()).isEqualTo(start.plusHours(999));
+        assertThat(page.getContent().get(999).getDoctorName()).isEqualTo("Dr. 999");
+        assertThat(pageStatements).isEqualTo(2);
+        assertThat(keysetPage).hasSize(1000);
+        assertThat(keysetStatements).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private Appointment saveAppointment(Patient patient, String doctorName, String roomName, LocalDateTime start) {
+        return appointmentRepository.save(newAppointment(patient, doctorName, roomName, start));
+    }
+
+    private Appointment newAppointment(Patient patient, String doctorName, String roomName, LocalDateTime start) {
+        Doctor doctor = new Doctor();
+        doctor.setName(doctorName);
+        doctor.setSpecialty("Cardiology");
+        doctorRepository.save(doctor);
+
+        Room room = new Room();
+        room.setName(roomName);
+        room.setLocation("First Floor");
+        roomRepository.save(room);
+
+        Appointment appt = new Appointment();
+        appt.setDoctor(doctor);
+        appt.setRoom(room);
+        appt.setPatient(patient);
+        appt.setStartTime(start);
+        appt.setEndTime(start.plusHours(1));
+        appt.setStatus(AppointmentStatus.SCHEDULED);
+        return appt;
+    }
+}
@@ -0,0 +1,61 @@
+package com.uphill.healthcare_booking_system.repository;
+
+import com.uphill.healthcare_booking_system.enums.OutboxStatus;
+import com.uphill.healthcare_booking_system.enums.SideEffect;
+import com.uphill.healthcare_booking_system.repository.entity.OutboxMessage;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class OutboxMessageRepositoryTest {
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @BeforeEach
+    void cleanDatabase() {
+        em.createQuery("DELETE FROM OutboxMessage").executeUpdate();
+    }
+
+    @Test
+    @DisplayName("lockDue should only return pending messages that are due, oldest first, up to the page size")
+    void lockDue_onlyDuePendingMessages() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        OutboxMessage older = save(1L, OutboxStatus.PENDING, now.minusMinutes(2));
+        OutboxMessage newer = save(2L, OutboxStatus.PENDING, now.minusMinutes(1));
+        save(3L, OutboxStatus.PENDING, now.minusSeconds(30));
+        save(4L, OutboxStatus.PENDING, now.plusMinutes(1));
+        save(5L, OutboxStatus.DEAD, now.minusMinutes(5));
+
+        // when
+        List<OutboxMessage> due = outboxMessageRepository.lockDue(OutboxStatus.PENDING, now, PageRequest.of(0, 2));
+
+        // then
+        assertThat(due).extracting(OutboxMessage::getId).containsExactly(older.getId(), newer.getId());
+    }
+
+    private OutboxMessage save(Long appointmentId, OutboxStatus status, LocalDateTime nextAttemptAt) {
+        OutboxMessage message = new OutboxMessage();
+        message.setAppointmentId(appointmentId);
+        message.setSideEffect(SideEffect.CONFIRMATION_EMAIL);
+        message.setStatus(status);
+        message.setNextAttemptAt(nextAttemptAt);
+        return outboxMessageRepository.save(message);
+    }
+}
@@ -1,25 +1,38 @@
 package com.uphill.healthcare_booking_system.repository;
 
 import com.uphill.healthcare_booking_system.repository.entity.Patient;
+import com.uphill.healthcare_booking_system.service.PatientService;
 
 import jakarta.persistence.EntityManager;
 
+import org.hibernate.SessionEventListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session.events.auto="
+        + "com.uphill.healthcare_booking_system.repository.PatientRepositoryTest$JdbcCounter")
+@Import(PatientService.class)
 class PatientRepositoryTest {
 
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private PatientService patientService;
+
     @Autowired
     private EntityManager em;
 
@@ -75,4 +88,93 @@ class PatientRepositoryTest {
         assertThat(found).isPresent();
         assertThat(found.get().getEmail()).isEqualTo("bob@example.com");
     }
+
+    @Test
+    @DisplayName("insertIfAbsent should insert a new patient once and leave the stored one untouched afterwards")
+    void insertIfAbsent_insertsOnceAndKeepsStoredRow() {
+        // when
+        Patient created = patientRepository.insertIfAbsent("carol@example.com", "Carol");
+        em.clear();
+        Patient again = patientRepository.insertIfAbsent("carol@example.com", "Someone Else");
+
+        // then
+        assertThat(created.getId()).isNotNull();
+        assertThat(again).isNull();
+        assertThat(patientRepository.findByEmail("carol@example.com").getName()).isEqualTo("Carol");
+        assertThat(patientRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Ids should stay unique across JPA and native inserts, and JPA inserts should be sent in JDBC batches")
+    void pooledIds_uniqueAcrossJpaAndNativeInserts_andBatched() {
+        // given
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Patient patient = new Patient();
+            patient.setName("Bulk " + i);
+            patient.setEmail("bulk" + i + "@example.com");
+            patients.add(patient);
+        }
+
+        // when
+        Patient nativeBefore = patientRepository.insertIfAbsent("native1@example.com", "Native 1");
+        long batchesBefore = JdbcCounter.BATCHES.get();
+        patientRepository.saveAll(patients);
+        patientRepository.flush();
+        long batches = JdbcCounter.BATCHES.get() - batchesBefore;
+        Patient nativeAfter = patientRepository.insertIfAbsent("native2@example.com", "Native 2");
+
+        // then
+        Set<Long> ids = new HashSet<>();
+        ids.add(nativeBefore.getId());
+        patients.forEach(patient -> ids.add(patient.getId()));
+        ids.add(nativeAfter.getId());
+        assertThat(ids).hasSize(122);
+        assertThat(patientRepository.count()).isEqualTo(122);
+        // 120 rows with hibernate.jdbc.batch_size=50
+        assertThat(batches).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("A patient missing from the cache should cost one statement when returning and two when new")
+    void findOrCreatePatient_statementsOnCacheMiss() {
+        // given
+        Patient existing = new Patient();
+        existing.setName("Alice");
+        existing.setEmail("alice@example.com");
+        patientRepository.saveAndFlush(existing);
+        em.clear();
+
+        // when
+        long before = JdbcCounter.STATEMENTS.get();
+        Patient returning = patientService.findOrCreatePatient("alice@example.com", "Alice");
+        long returningStatements = JdbcCounter.STATEMENTS.get() - before;
+        before = JdbcCounter.STATEMENTS.get();
+        Patient created = patientService.findOrCreatePatient("bob@example.com", "Bob");
+        long newStatements = JdbcCounter.STATEMENTS.get() - before;
+
+        // then
+        assertThat(returning.getId()).isEqualTo(existing.getId());
+        assertThat(returningStatements).isEqualTo(1);
+        assertThat(created.getId()).isNotNull();
+        // the select that misses, then the insert that returns the row
+        assertThat(newStatements).isEqualTo(2);
+    }
+
+    // Registered on every Hibernate session of this test context through hibernate.session.events.auto
+    public static class JdbcCounter implements SessionEventListener {
+
+        static final AtomicLong STATEMENTS = new AtomicLong();
+        static final AtomicLong BATCHES = new AtomicLong();
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            STATEMENTS.incrementAndGet();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            BATCHES.incrementAndGet();
+        }
+    }
 }
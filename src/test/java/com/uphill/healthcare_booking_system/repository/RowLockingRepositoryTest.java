@@ -0,0 +1,126 @@
+package com.uphill.healthcare_booking_system.repository;
+
+import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Row locks and version checks only matter between transactions, so these tests commit their data and hold a lock
+// or a claim from another thread
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RowLockingRepositoryTest {
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Long heldId;
+    private Long freeId;
+
+    @BeforeEach
+    void seedDoctors() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        heldId = transactionTemplate.execute(status -> doctorRepository.save(doctor("Dr. Held")).getId());
+        freeId = transactionTemplate.execute(status -> doctorRepository.save(doctor("Dr. Free")).getId());
+    }
+
+    @AfterEach
+    void cleanDatabase() {
+        transactionTemplate.executeWithoutResult(status -> doctorRepository.deleteAllById(List.of(heldId, freeId)));
+    }
+
+    @Test
+    @DisplayName("Skip-locked lock should pass over a row another transaction holds")
+    void lockByIdSkipLocked_skipsHeldRow() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService holder = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holding = holder.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                doctorRepository.lockById(heldId);
+                locked.countDown();
+                await(release);
+            }));
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+            transactionTemplate.executeWithoutResult(status -> {
+                assertThat(doctorRepository.lockByIdSkipLocked(heldId)).isNull();
+                assertThat(doctorRepository.lockByIdSkipLocked(freeId).getId()).isEqualTo(freeId);
+            });
+
+            release.countDown();
+            holding.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            holder.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Optimistic claim should hold no row lock and fail the later of two conflicting commits")
+    void claimById_checksVersionAtCommit() throws Exception {
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService holder = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holding = holder.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                doctorRepository.claimById(heldId);
+                claimed.countDown();
+                await(release);
+            }));
+            assertThat(claimed.await(5, TimeUnit.SECONDS)).isTrue();
+
+            transactionTemplate.executeWithoutResult(status -> {
+                assertThat(doctorRepository.lockByIdNoWait(heldId)).isNotNull();
+                doctorRepository.claimById(heldId);
+            });
+
+            release.countDown();
+            assertThatThrownBy(() -> holding.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(ObjectOptimisticLockingFailureException.class);
+        } finally {
+            release.countDown();
+            holder.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Doctor doctor(String name) {
+        Doctor doctor = new Doctor();
+        doctor.setName(name);
+        doctor.setSpecialty("Cardiology");
+        return doctor;
+    }
+}
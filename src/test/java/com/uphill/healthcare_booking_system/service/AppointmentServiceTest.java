@@ -1,34 +1,48 @@
 package com.uphill.healthcare_booking_system.service;
 
+import com.uphill.healthcare_booking_system.domain.AppointmentCursorPage;
 import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.domain.AppointmentSummary;
 import com.uphill.healthcare_booking_system.domain.PatientDomain;
 import com.uphill.healthcare_booking_system.domain.exceptions.InvalidAppointmentWindowException;
+import com.uphill.healthcare_booking_system.enums.AppointmentStatus;
+import com.uphill.healthcare_booking_system.enums.BookingStage;
 import com.uphill.healthcare_booking_system.integration.DoctorCalendarClient;
 import com.uphill.healthcare_booking_system.integration.EmailClient;
 import com.uphill.healthcare_booking_system.integration.RoomReservationClient;
+import com.uphill.healthcare_booking_system.monitoring.BookingMetrics;
 import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.AppointmentViewRepository;
 import com.uphill.healthcare_booking_system.repository.entity.Appointment;
+import com.uphill.healthcare_booking_system.repository.entity.AppointmentView;
 import com.uphill.healthcare_booking_system.repository.entity.Doctor;
 import com.uphill.healthcare_booking_system.repository.entity.Patient;
 import com.uphill.healthcare_booking_system.repository.entity.Room;
+import com.uphill.healthcare_booking_system.service.allocation.JointAllocator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -38,6 +52,9 @@ class AppointmentServiceTest {
         @InjectMocks
         private AppointmentService appointmentService;
 
+        @Spy
+        private BookingMetrics bookingMetrics = new BookingMetrics(new SimpleMeterRegistry());
+
         @Mock
         private PatientService patientService;
 
@@ -50,6 +67,9 @@ class AppointmentServiceTest {
         @Mock
         private AppointmentRepository appointmentRepository;
 
+        @Mock
+        private AppointmentViewRepository appointmentViewRepository;
+
         @Mock
         private DoctorCalendarClient doctorCalendarClient;
 
@@ -98,9 +118,10 @@ class AppointmentServiceTest {
                 saved.setEndTime(end);
 
                 when(patientService.findOrCreatePatient(any(), any())).thenReturn(patient);
-                when(doctorService.findAndLockAvailableDoctor(any(), any(), any())).thenReturn(doctor);
-                when(roomService.findAndLockAvailableRoom(any(), any())).thenReturn(room);
+                when(doctorService.findAndLockAvailableDoctor(any(), any(), any(), any())).thenReturn(doctor);
+                when(roomService.findAndLockAvailableRoom(any(), any(), any())).thenReturn(room);
                 when(appointmentRepository.save(any())).thenReturn(saved);
+                stubClientsSucceed();
 
                 // when
                 AppointmentDomain result = appointmentService.bookAppointment(input);
@@ -114,6 +135,97 @@ class AppointmentServiceTest {
                 verify(doctorCalendarClient).reserveSlot(eq(doctor.getId()), eq(start), eq(end));
                 verify(roomReservationClient).reserveRoom(eq(room.getId()), eq(start), eq(end));
                 verify(emailClient).sendAppointmentConfirmation(eq(patient.getEmail()), any(), any());
+                verify(bookingMetrics).time(eq(BookingStage.PATIENT_RESOLVE), any());
+                verify(bookingMetrics).time(eq(BookingStage.SAVE), any());
+                verify(bookingMetrics).run(eq(BookingStage.DISPATCH), any());
+                verify(appointmentViewRepository).saveAll(argThat((List<AppointmentView> views) -> {
+                        AppointmentView view = views.get(0);
+                        return view.getId().equals(100L) && view.getDoctorId().equals(2L) && view.getRoomId().equals(3L);
+                }));
+        }
+
+        @Test
+        void bookAppointment_outboxMode_enqueuesInsteadOfCallingClients() {
+                // given
+                AppointmentOutbox appointmentOutbox = mock(AppointmentOutbox.class);
+                AppointmentService outboxService = new AppointmentService(appointmentRepository, appointmentViewRepository, patientService,
+                                doctorCalendarClient, roomReservationClient, emailClient, doctorService, roomService,
+                                bookingMetrics, appointmentOutbox, null);
+
+                Patient patient = new Patient();
+                patient.setId(1L);
+                Doctor doctor = new Doctor();
+                doctor.setId(2L);
+                Room room = new Room();
+                room.setId(3L);
+
+                Appointment saved = new Appointment();
+                saved.setId(100L);
+                saved.setDoctor(doctor);
+                saved.setRoom(room);
+                saved.setPatient(patient);
+                saved.setStartTime(baseRequest.getStartTime());
+                saved.setEndTime(baseRequest.getEndTime());
+
+                when(patientService.findOrCreatePatient(any(), any())).thenReturn(patient);
+                when(doctorService.findAndLockAvailableDoctor(any(), any(), any(), any())).thenReturn(doctor);
+                when(roomService.findAndLockAvailableRoom(any(), any(), any())).thenReturn(room);
+                when(appointmentRepository.save(any())).thenReturn(saved);
+
+                // when
+                outboxService.bookAppointment(baseRequest);
+
+                // then
+                verify(appointmentOutbox).enqueue(List.of(100L));
+                verifyNoInteractions(doctorCalendarClient, roomReservationClient, emailClient);
+        }
+
+        @Test
+        void bookAppointment_jointStatementMode_allocatesInOneCall() {
+                // given
+                JointAllocator jointAllocator = mock(JointAllocator.class);
+                AppointmentService jointService = new AppointmentService(appointmentRepository, appointmentViewRepository, patientService,
+                                doctorCalendarClient, roomReservationClient, emailClient, doctorService, roomService,
+                                bookingMetrics, null, jointAllocator);
+
+                Patient patient = new Patient();
+                patient.setId(1L);
+                Doctor doctor = new Doctor();
+                doctor.setId(2L);
+                Room room = new Room();
+                room.setId(3L);
+
+                Appointment booked = new Appointment();
+                booked.setId(100L);
+                booked.setDoctor(doctor);
+                booked.setRoom(room);
+                booked.setPatient(patient);
+                booked.setStartTime(baseRequest.getStartTime());
+                booked.setEndTime(baseRequest.getEndTime());
+
+                when(patientService.findOrCreatePatient(any(), any())).thenReturn(patient);
+                when(jointAllocator.book("Cardiology", baseRequest.getStartTime(), baseRequest.getEndTime(), patient))
+                                .thenReturn(booked);
+                stubClientsSucceed();
+
+                // when
+                AppointmentDomain result = jointService.bookAppointment(baseRequest);
+
+                // then
+                assertThat(result.getId()).isEqualTo(100L);
+                assertThat(result.getDoctor().getId()).isEqualTo(2L);
+                assertThat(result.getRoom().getId()).isEqualTo(3L);
+                verify(bookingMetrics).time(eq(BookingStage.ALLOCATE), any());
+                verify(roomReservationClient).reserveRoom(eq(3L), any(), any());
+                // the routine writes the appointment and its view row itself
+                verifyNoInteractions(doctorService, roomService, appointmentRepository, appointmentViewRepository);
+        }
+
+        private void stubClientsSucceed() {
+                when(doctorCalendarClient.reserveSlot(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+                when(roomReservationClient.reserveRoom(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+                when(emailClient.sendAppointmentConfirmation(any(), any(), any()))
+                                .thenReturn(CompletableFuture.completedFuture(null));
         }
 
         @Test
@@ -126,6 +238,15 @@ class AppointmentServiceTest {
                                 .isInstanceOf(InvalidAppointmentWindowException.class);
         }
 
+        @Test
+        void bookAppointment_longerThanMaxDuration_throwsException() {
+                AppointmentDomain input = baseRequest;
+                input.setEndTime(input.getStartTime().plusHours(24).plusMinutes(1));
+
+                assertThatThrownBy(() -> appointmentService.bookAppointment(input))
+                                .isInstanceOf(InvalidAppointmentWindowException.class);
+        }
+
         @Test
         void bookAppointment_patientServiceCalled() {
                 AppointmentDomain input = baseRequest;
@@ -149,8 +270,8 @@ class AppointmentServiceTest {
                 saved.setEndTime(input.getEndTime());
 
                 when(patientService.findOrCreatePatient(any(), any())).thenReturn(patient);
-                when(doctorService.findAndLockAvailableDoctor(any(), any(), any())).thenReturn(doctor);
-                when(roomService.findAndLockAvailableRoom(any(), any())).thenReturn(room);
+                when(doctorService.findAndLockAvailableDoctor(any(), any(), any(), any())).thenReturn(doctor);
+                when(roomService.findAndLockAvailableRoom(any(), any(), any())).thenReturn(room);
                 when(appointmentRepository.save(any())).thenReturn(saved);
 
                 appointmentService.bookAppointment(input);
@@ -170,61 +291,62 @@ class AppointmentServiceTest {
         @DisplayName("getAllAppointments should return paginated appointments")
         void getAllAppointments_success() {
                 // given
-                Doctor doctorEntity = new Doctor();
-                doctorEntity.setId(1L);
-                doctorEntity.setName("Dr. Strange");
-                doctorEntity.setSpecialty("Cardiology");
-
-                Room roomEntity = new Room();
-                roomEntity.setId(10L);
-                roomEntity.setName("Room A");
-                roomEntity.setLocation("First Floor");
-
-                Patient patientEntity = new Patient();
-                patientEntity.setName("John Doe");
-                patientEntity.setEmail("john.doe@example.com");
-
-                Appointment apptEntity1 = new Appointment();
-                apptEntity1.setId(100L);
-                apptEntity1.setDoctor(doctorEntity);
-                apptEntity1.setRoom(roomEntity);
-                apptEntity1.setPatient(patientEntity);
-                apptEntity1.setStartTime(LocalDateTime.now().plusHours(1));
-                apptEntity1.setEndTime(LocalDateTime.now().plusHours(2));
-
-                Appointment apptEntity2 = new Appointment();
-                apptEntity2.setId(101L);
-                apptEntity2.setDoctor(doctorEntity);
-                apptEntity2.setRoom(roomEntity);
-                apptEntity2.setPatient(patientEntity);
-                apptEntity2.setStartTime(LocalDateTime.now().plusHours(3));
-                apptEntity2.setEndTime(LocalDateTime.now().plusHours(4));
-
-                Page<Appointment> page = new PageImpl<>(List.of(apptEntity1, apptEntity2));
-
-                when(appointmentRepository.findAll(PageRequest.of(0, 20))).thenReturn(page);
+                LocalDateTime start = LocalDateTime.now().plusHours(1);
+                Page<AppointmentSummary> page = new PageImpl<>(List.of(summaryAt(100L, start), summaryAt(101L, start.plusHours(2))));
+
+                when(appointmentViewRepository.findAllSummaries(PageRequest.of(0, 20))).thenReturn(page);
 
                 // when
-                Page<AppointmentDomain> result = appointmentService.getAllAppointments(PageRequest.of(0, 20));
+                Page<AppointmentSummary> result = appointmentService.getAllAppointments(PageRequest.of(0, 20));
 
                 // then
                 assertThat(result).hasSize(2);
                 assertThat(result.getContent().get(0).getId()).isEqualTo(100L);
                 assertThat(result.getContent().get(1).getId()).isEqualTo(101L);
+                verify(appointmentRepository, never()).findAll(any(PageRequest.class));
         }
 
         @Test
         @DisplayName("getAllAppointments should return empty list when no appointments exist")
         void getAllAppointments_empty() {
                 // given
-                Page<Appointment> page = new PageImpl<>(List.of());
-                when(appointmentRepository.findAll(PageRequest.of(0, 20))).thenReturn(page);
+                Page<AppointmentSummary> page = new PageImpl<>(List.of());
+                when(appointmentViewRepository.findAllSummaries(PageRequest.of(0, 20))).thenReturn(page);
 
                 // when
-                Page<AppointmentDomain> result = appointmentService.getAllAppointments(PageRequest.of(0, 20));
+                Page<AppointmentSummary> result = appointmentService.getAllAppointments(PageRequest.of(0, 20));
 
                 // then
                 assertThat(result).isEmpty();
         }
 
+        @Test
+        @DisplayName("getAppointmentsAfter should return a next cursor only when more rows exist")
+        void getAppointmentsAfter_returnsNextCursor() {
+                // given
+                LocalDateTime start = LocalDateTime.now().plusHours(1).withNano(0);
+                AppointmentSummary first = summaryAt(100L, start);
+                AppointmentSummary second = summaryAt(101L, start);
+                AppointmentSummary third = summaryAt(102L, start.plusHours(1));
+
+                when(appointmentViewRepository.findFirstPageByStartTime(Limit.of(3))).thenReturn(List.of(first, second, third));
+                when(appointmentViewRepository.findPageAfter(start, 101L, Limit.of(3))).thenReturn(List.of(third));
+
+                // when
+                AppointmentCursorPage firstPage = appointmentService.getAppointmentsAfter(null, 2);
+                AppointmentCursorPage lastPage = appointmentService.getAppointmentsAfter(firstPage.getNextCursor(), 2);
+
+                // then
+                assertThat(firstPage.getAppointments()).extracting(AppointmentSummary::getId).containsExactly(100L, 101L);
+                assertThat(firstPage.getNextCursor().getId()).isEqualTo(101L);
+                assertThat(lastPage.getAppointments()).extracting(AppointmentSummary::getId).containsExactly(102L);
+                assertThat(lastPage.getNextCursor()).isNull();
+                verify(appointmentRepository, never()).count();
+        }
+
+        private AppointmentSummary summaryAt(Long id, LocalDateTime start) {
+                return new AppointmentSummary(id, 1L, "Dr. Strange", 10L, "Room A", "Floor 1", 20L, "john@example.com",
+                                start, start.plusHours(1), AppointmentStatus.SCHEDULED);
+        }
+
 }
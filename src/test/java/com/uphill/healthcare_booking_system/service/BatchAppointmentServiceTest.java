@@ -0,0 +1,172 @@
+package com.uphill.healthcare_booking_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.domain.BatchBookingResult;
+import com.uphill.healthcare_booking_system.domain.PatientDomain;
+import com.uphill.healthcare_booking_system.domain.exceptions.InvalidAppointmentWindowException;
+import com.uphill.healthcare_booking_system.enums.BatchItemStatus;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.DoctorRepository;
+import com.uphill.healthcare_booking_system.repository.RoomRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Appointment;
+import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.entity.Patient;
+import com.uphill.healthcare_booking_system.repository.entity.Room;
+
+class BatchAppointmentServiceTest {
+
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+    private final PatientService patientService = mock(PatientService.class);
+    private final AppointmentService appointmentService = mock(AppointmentService.class);
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    private final LocalDateTime end = start.plusHours(1);
+
+    private BatchAppointmentService batchAppointmentService;
+
+    @BeforeEach
+    void setUp() {
+        batchAppointmentService = new BatchAppointmentService(appointmentRepository, doctorRepository, roomRepository,
+                patientService, appointmentService, mock(PlatformTransactionManager.class), 100, 24);
+
+        when(patientService.findOrCreatePatients(anyMap())).thenAnswer(invocation -> {
+            Map<String, Patient> patients = new HashMap<>();
+            invocation.<Map<String, String>>getArgument(0).forEach((email, name) -> {
+                Patient patient = new Patient();
+                patient.setId((long) patients.size() + 1);
+                patient.setEmail(email);
+                patients.put(email, patient);
+            });
+            return patients;
+        });
+
+        when(doctorRepository.findBySpecialtyInOrderByIdAsc(anyCollection())).thenReturn(List.of(doctor(2L)));
+        when(roomRepository.findAll(any(Sort.class))).thenReturn(List.of(room(3L), room(4L)));
+        when(appointmentRepository.findBookedWindowsOverlapping(any(), any())).thenReturn(List.of());
+        when(appointmentRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(appointmentService.convertToDomain(any())).thenAnswer(invocation -> {
+            AppointmentDomain domain = new AppointmentDomain();
+            domain.setStartTime(invocation.<Appointment>getArgument(0).getStartTime());
+            return domain;
+        });
+    }
+
+    @Test
+    void bookAppointments_sameWindowSingleDoctor_booksOneAndReportsConflict() {
+        List<BatchBookingResult> results = batchAppointmentService.bookAppointments(List.of(
+                request("john.doe@example.com", start, end),
+                request("john.doe@example.com", start, end)));
+
+        assertThat(results).extracting(BatchBookingResult::getStatus)
+                .containsExactly(BatchItemStatus.BOOKED, BatchItemStatus.CONFLICT);
+        verify(doctorRepository).lockAllById(eq(new TreeSet<>(List.of(2L))));
+        verify(appointmentService, times(1)).publishSideEffects(argThat(booked -> booked.size() == 1));
+        // one schedule read per chunk, then only the locked doctor and room are read again
+        verify(appointmentRepository, times(1)).findBookedWindowsOverlapping(any(), any());
+        verify(appointmentRepository).findBookedWindowsForDoctorsOrRooms(
+                eq(new TreeSet<>(List.of(2L))), eq(new TreeSet<>(List.of(3L))), eq(start), eq(end));
+    }
+
+    @Test
+    void bookAppointments_windowsDaysApart_splitIntoChunksByStartTime() {
+        LocalDateTime later = start.plusDays(3);
+
+        List<BatchBookingResult> results = batchAppointmentService.bookAppointments(List.of(
+                request("john.doe@example.com", later, later.plusHours(1)),
+                request("john.doe@example.com", start, end)));
+
+        assertThat(results).extracting(BatchBookingResult::getStatus)
+                .containsExactly(BatchItemStatus.BOOKED, BatchItemStatus.BOOKED);
+        verify(appointmentRepository).findBookedWindowsOverlapping(start, end);
+        verify(appointmentRepository).findBookedWindowsOverlapping(later, later.plusHours(1));
+        verify(appointmentRepository, times(2)).saveAll(any());
+    }
+
+    @Test
+    void bookAppointments_consecutiveWindows_reuseSameDoctor() {
+        List<BatchBookingResult> results = batchAppointmentService.bookAppointments(List.of(
+                request("john.doe@example.com", start, end),
+                request("john.doe@example.com", end, end.plusHours(1))));
+
+        assertThat(results).extracting(BatchBookingResult::getStatus)
+                .containsExactly(BatchItemStatus.BOOKED, BatchItemStatus.BOOKED);
+        verify(appointmentRepository, times(1)).saveAll(any());
+        verify(appointmentService).recordViews(argThat(saved -> saved.size() == 2));
+    }
+
+    @Test
+    void bookAppointments_newPatientAndInvalidWindow_reportedPerItem() {
+        doThrow(new InvalidAppointmentWindowException()).when(appointmentService).checkTimeWindow(end, start);
+
+        List<BatchBookingResult> results = batchAppointmentService.bookAppointments(List.of(
+                request("new@example.com", start, end),
+                request("john.doe@example.com", end, start)));
+
+        assertThat(results).extracting(BatchBookingResult::getStatus)
+                .containsExactly(BatchItemStatus.BOOKED, BatchItemStatus.INVALID);
+        verify(patientService).findOrCreatePatients(Map.of("new@example.com", "Patient"));
+    }
+
+    @Test
+    void bookAppointments_chunkFails_marksChunkAsFailed() {
+        when(appointmentRepository.saveAll(any())).thenThrow(new IllegalStateException("boom"));
+
+        List<BatchBookingResult> results = batchAppointmentService.bookAppointments(List.of(
+                request("john.doe@example.com", start, end)));
+
+        assertThat(results).extracting(BatchBookingResult::getStatus).containsExactly(BatchItemStatus.FAILED);
+        verify(appointmentService, never()).publishSideEffects(any());
+    }
+
+    private AppointmentDomain request(String email, LocalDateTime start, LocalDateTime end) {
+        PatientDomain patient = new PatientDomain();
+        patient.setEmail(email);
+        patient.setName("Patient");
+
+        AppointmentDomain domain = new AppointmentDomain();
+        domain.setPatient(patient);
+        domain.setSpecialty("Cardiology");
+        domain.setStartTime(start);
+        domain.setEndTime(end);
+        return domain;
+    }
+
+    private Doctor doctor(Long id) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setSpecialty("Cardiology");
+        return doctor;
+    }
+
+    private Room room(Long id) {
+        Room room = new Room();
+        room.setId(id);
+        return room;
+    }
+}
@@ -3,7 +3,10 @@ package com.uphill.healthcare_booking_system.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -15,13 +18,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableDoctorException;
+import com.uphill.healthcare_booking_system.enums.AllocationLockMode;
+import com.uphill.healthcare_booking_system.enums.SelectionPolicy;
+import com.uphill.healthcare_booking_system.monitoring.BookingMetrics;
 import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
 import com.uphill.healthcare_booking_system.repository.DoctorRepository;
 import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.projection.BookedWindow;
+import com.uphill.healthcare_booking_system.service.allocation.CandidateSpreader;
+import com.uphill.healthcare_booking_system.service.allocation.SkipLockedSupport;
+import com.uphill.healthcare_booking_system.service.availability.DoctorAvailabilityIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 class DoctorServiceTest {
@@ -29,12 +44,24 @@ class DoctorServiceTest {
     @InjectMocks
     private DoctorService doctorService;
 
+    @Spy
+    private BookingMetrics bookingMetrics = new BookingMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private CandidateSpreader candidateSpreader = new CandidateSpreader(SelectionPolicy.FIRST, 8);
+
     @Mock
     private DoctorRepository doctorRepository;
 
     @Mock
     private AppointmentRepository appointmentRepository;
 
+    @Mock
+    private DoctorAvailabilityIndex doctorAvailabilityIndex;
+
+    @Mock
+    private SkipLockedSupport skipLockedSupport;
+
     private final String specialty = "Cardiology";
     private final LocalDateTime start = LocalDateTime.now().plusHours(1);
     private final LocalDateTime end = LocalDateTime.now().plusHours(2);
@@ -86,6 +113,178 @@ class DoctorServiceTest {
 
         assertThatThrownBy(() -> doctorService.findAndLockAvailableDoctor(specialty, start, end))
                 .isInstanceOf(NoAvailableDoctorException.class);
+        verify(bookingMetrics).recordFallback("doctor", "requery");
+    }
+
+    @Test
+    void findAndLockAvailableDoctor_indexReady_skipsAvailabilityQuery() {
+        Doctor locked = new Doctor();
+        locked.setId(7L);
+
+        when(doctorAvailabilityIndex.isReady()).thenReturn(true);
+        when(doctorAvailabilityIndex.findFreeDoctors(specialty, start, end, 1)).thenReturn(List.of(7L));
+        when(doctorRepository.lockById(7L)).thenReturn(locked);
+        when(appointmentRepository.existsOverlapForDoctor(7L, start, end)).thenReturn(false);
+
+        Doctor result = doctorService.findAndLockAvailableDoctor(specialty, start, end);
+
+        assertThat(result).isEqualTo(locked);
+        verify(doctorRepository, never()).findFirstAvailableBySpecialtyAndWindow(any(), any(), any(), any());
+    }
+
+    @Test
+    void findAndLockAvailableDoctor_indexEmpty_fallsBackToQuery() {
+        // a doctor added after the index last read the roster
+        Doctor added = new Doctor();
+        added.setId(9L);
+
+        when(doctorAvailabilityIndex.isReady()).thenReturn(true);
+        when(doctorAvailabilityIndex.findFreeDoctors(specialty, start, end, 1)).thenReturn(List.of());
+        when(doctorRepository.findFirstAvailableBySpecialtyAndWindow(eq(specialty), eq(start), eq(end),
+                any(PageRequest.class)))
+                .thenReturn(List.of(added));
+        when(doctorRepository.lockById(9L)).thenReturn(added);
+        when(appointmentRepository.existsOverlapForDoctor(9L, start, end)).thenReturn(false);
+
+        Doctor result = doctorService.findAndLockAvailableDoctor(specialty, start, end);
+
+        assertThat(result).isEqualTo(added);
+        verify(bookingMetrics).recordFallback("doctor", "stale_index");
     }
 
+    @Test
+    void findAndLockAvailableDoctor_indexStale_fallsBackToQuery() {
+        Doctor stale = new Doctor();
+        stale.setId(7L);
+        Doctor candidate = new Doctor();
+        candidate.setId(8L);
+
+        when(doctorAvailabilityIndex.isReady()).thenReturn(true);
+        when(doctorAvailabilityIndex.findFreeDoctors(specialty, start, end, 1)).thenReturn(List.of(7L));
+        when(doctorRepository.lockById(7L)).thenReturn(stale);
+        when(appointmentRepository.existsOverlapForDoctor(7L, start, end)).thenReturn(true);
+        when(doctorRepository.findFirstAvailableBySpecialtyAndWindow(eq(specialty), eq(start), eq(end),
+                any(PageRequest.class)))
+                .thenReturn(List.of(candidate));
+        when(doctorRepository.lockById(8L)).thenReturn(candidate);
+        when(appointmentRepository.existsOverlapForDoctor(8L, start, end)).thenReturn(false);
+
+        Doctor result = doctorService.findAndLockAvailableDoctor(specialty, start, end);
+
+        assertThat(result).isEqualTo(candidate);
+        verify(bookingMetrics).recordFallback("doctor", "stale_index");
+        verify(bookingMetrics, never()).recordFallback("doctor", "requery");
+    }
+
+    @Test
+    void findAndLockAvailableDoctor_optimistic_claimsFirstCandidateWithoutRowLock() {
+        useOptimisticMode();
+        Doctor first = doctor(1L, 3L);
+        Doctor second = doctor(2L, 5L);
+
+        when(doctorRepository.findFirstAvailableBySpecialtyAndWindow(eq(specialty), eq(start), eq(end),
+                any(PageRequest.class)))
+                .thenReturn(List.of(first, second));
+        when(doctorRepository.claimById(1L)).thenReturn(first);
+
+        Doctor result = doctorService.findAndLockAvailableDoctor(specialty, start, end);
+
+        assertThat(result).isEqualTo(first);
+        verify(doctorRepository, never()).lockById(any());
+        verify(doctorAvailabilityIndex, never()).findFreeDoctors(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void findAndLockAvailableDoctor_optimistic_noCandidates_throwsException() {
+        useOptimisticMode();
+        when(doctorRepository.findFirstAvailableBySpecialtyAndWindow(eq(specialty), eq(start), eq(end),
+                any(PageRequest.class)))
+                .thenReturn(List.of());
+
+        assertThatThrownBy(() -> doctorService.findAndLockAvailableDoctor(specialty, start, end))
+                .isInstanceOf(NoAvailableDoctorException.class);
+        verify(doctorRepository, never()).claimById(any());
+    }
+
+    @Test
+    void findAndLockAvailableDoctor_leastLoaded_locksDoctorWithFewestBookedMinutes() {
+        ReflectionTestUtils.setField(doctorService, "candidateSpreader", new CandidateSpreader(SelectionPolicy.LEAST_LOADED, 3));
+        LocalDateTime dayStart = start.toLocalDate().atStartOfDay();
+        Doctor busy = doctor(1L, 0L);
+        Doctor idle = doctor(2L, 0L);
+
+        when(doctorRepository.findFirstAvailableBySpecialtyAndWindow(specialty, start, end, PageRequest.of(0, 3)))
+                .thenReturn(List.of(busy, idle));
+        List<BookedWindow> windows = List.of(window(1L, dayStart.plusHours(8), dayStart.plusHours(10)),
+                window(2L, dayStart.plusHours(8), dayStart.plusMinutes(8 * 60 + 30)));
+        when(appointmentRepository.findBookedWindowsForDoctors(List.of(1L, 2L), dayStart, dayStart.plusDays(1)))
+                .thenReturn(windows);
+        when(doctorRepository.lockById(2L)).thenReturn(idle);
+        when(appointmentRepository.existsOverlapForDoctor(2L, start, end)).thenReturn(false);
+
+        Doctor result = doctorService.findAndLockAvailableDoctor(specialty, start, end, "john.doe@example.com");
+
+        assertThat(result).isEqualTo(idle);
+        verify(doctorRepository, never()).lockById(1L);
+    }
+
+    @Test
+    void findAndLockAvailableDoctor_skipLocked_heldRowMovesToNextCandidate() {
+        ReflectionTestUtils.setField(doctorService, "lockMode", AllocationLockMode.SKIP_LOCKED);
+        Doctor held = doctor(1L, 0L);
+        Doctor free = doctor(2L, 0L);
+
+        when(doctorRepository.findFirstAvailableBySpecialtyAndWindow(eq(specialty), eq(start), eq(end),
+                any(PageRequest.class)))
+                .thenReturn(List.of(held, free));
+        when(skipLockedSupport.isSupported()).thenReturn(true);
+        when(doctorRepository.lockByIdSkipLocked(1L)).thenReturn(null);
+        when(doctorRepository.lockByIdSkipLocked(2L)).thenReturn(free);
+        when(appointmentRepository.existsOverlapForDoctor(2L, start, end)).thenReturn(false);
+
+        Doctor result = doctorService.findAndLockAvailableDoctor(specialty, start, end);
+
+        assertThat(result).isEqualTo(free);
+        verify(bookingMetrics).recordFallback("doctor", "skipped_locked");
+        verify(doctorRepository, never()).lockById(any());
+    }
+
+    @Test
+    void findAndLockAvailableDoctor_skipLockedUnsupported_lockTimeoutTreatedAsHeld() {
+        ReflectionTestUtils.setField(doctorService, "lockMode", AllocationLockMode.SKIP_LOCKED);
+        Doctor held = doctor(1L, 0L);
+        Doctor booked = doctor(2L, 0L);
+
+        when(doctorRepository.findFirstAvailableBySpecialtyAndWindow(eq(specialty), eq(start), eq(end),
+                any(PageRequest.class)))
+                .thenReturn(List.of(held, booked));
+        when(skipLockedSupport.isSupported()).thenReturn(false);
+        when(doctorRepository.lockByIdNoWait(1L)).thenThrow(new PessimisticLockingFailureException("held"));
+        when(doctorRepository.lockByIdNoWait(2L)).thenReturn(booked);
+        // locked, but someone booked the doctor between the read and the lock
+        when(appointmentRepository.existsOverlapForDoctor(2L, start, end)).thenReturn(true);
+
+        assertThatThrownBy(() -> doctorService.findAndLockAvailableDoctor(specialty, start, end))
+                .isInstanceOf(NoAvailableDoctorException.class);
+        verify(doctorRepository, never()).lockByIdSkipLocked(any());
+    }
+
+    private void useOptimisticMode() {
+        ReflectionTestUtils.setField(doctorService, "lockMode", AllocationLockMode.OPTIMISTIC);
+    }
+
+    private BookedWindow window(Long doctorId, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        BookedWindow window = mock(BookedWindow.class);
+        when(window.getDoctorId()).thenReturn(doctorId);
+        when(window.getStartTime()).thenReturn(windowStart);
+        when(window.getEndTime()).thenReturn(windowEnd);
+        return window;
+    }
+
+    private Doctor doctor(Long id, Long version) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setVersion(version);
+        return doctor;
+    }
 }
@@ -0,0 +1,200 @@
+package com.uphill.healthcare_booking_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.domain.PatientDomain;
+import com.uphill.healthcare_booking_system.domain.exceptions.IdempotencyKeyReuseException;
+import com.uphill.healthcare_booking_system.domain.exceptions.InvalidIdempotencyKeyException;
+import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableRoomException;
+import com.uphill.healthcare_booking_system.monitoring.BookingMetrics;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.IdempotencyRecordRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Appointment;
+import com.uphill.healthcare_booking_system.repository.entity.IdempotencyRecord;
+import com.uphill.healthcare_booking_system.service.allocation.ClaimBackoff;
+import com.uphill.healthcare_booking_system.service.allocation.ResourceLockManager;
+import com.uphill.healthcare_booking_system.service.availability.FreeSlotIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IdempotentBookingServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    private final AppointmentService appointmentService = mock(AppointmentService.class);
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final IdempotencyRecordRepository idempotencyRecordRepository = mock(IdempotencyRecordRepository.class);
+
+    private IdempotentBookingService service;
+
+    @BeforeEach
+    void setUp() {
+        ResourceLockManager noLocks = new ResourceLockManager(mock(FreeSlotIndex.class),
+                new BookingMetrics(new SimpleMeterRegistry()), false, 16, 1000);
+        service = new IdempotentBookingService(appointmentService, appointmentRepository, idempotencyRecordRepository,
+                noLocks,
+                new ClaimBackoff(new BookingMetrics(new SimpleMeterRegistry()), 1, 0, 0), mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 24, 100);
+        when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void bookAppointment_repeatedKey_replaysWithoutAllocatingAgain() {
+        when(appointmentService.bookAppointment(any())).thenReturn(booked(100L));
+
+        AppointmentDomain first = service.bookAppointment("key-1", request("john@example.com"));
+        AppointmentDomain retry = service.bookAppointment("key-1", request("john@example.com"));
+
+        assertThat(first.getId()).isEqualTo(100L);
+        assertThat(retry.getId()).isEqualTo(100L);
+        verify(appointmentService, times(1)).bookAppointment(any());
+        verify(idempotencyRecordRepository).insert(eq("key-1"), anyString(), eq(100L), any(), any());
+    }
+
+    @Test
+    void bookAppointment_keyReusedForAnotherRequest_isRejected() {
+        when(appointmentService.bookAppointment(any())).thenReturn(booked(100L));
+        service.bookAppointment("key-1", request("john@example.com"));
+
+        assertThatThrownBy(() -> service.bookAppointment("key-1", request("jane@example.com")))
+                .isInstanceOf(IdempotencyKeyReuseException.class);
+        verify(appointmentService, times(1)).bookAppointment(any());
+    }
+
+    @Test
+    void bookAppointment_keyRecordedInTable_loadsStoredAppointment() {
+        AppointmentDomain req = request("john@example.com");
+        when(idempotencyRecordRepository.findById("key-1"))
+                .thenReturn(Optional.of(record("key-1", IdempotentBookingService.fingerprint(req), 100L)));
+        stubStoredAppointment(100L);
+
+        AppointmentDomain replayed = service.bookAppointment("key-1", req);
+
+        assertThat(replayed.getId()).isEqualTo(100L);
+        verify(appointmentService, never()).bookAppointment(any());
+    }
+
+    @Test
+    void bookAppointment_keyRecordedConcurrentlyElsewhere_replaysTheWinner() {
+        AppointmentDomain req = request("john@example.com");
+        when(appointmentService.bookAppointment(any())).thenReturn(booked(101L));
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(idempotencyRecordRepository).insert(anyString(), anyString(), anyLong(), any(), any());
+        when(idempotencyRecordRepository.findById("key-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(record("key-1", IdempotentBookingService.fingerprint(req), 100L)));
+        stubStoredAppointment(100L);
+
+        assertThat(service.bookAppointment("key-1", req).getId()).isEqualTo(100L);
+    }
+
+    @Test
+    void bookAppointment_concurrentDuplicates_shareOneBooking() throws Exception {
+        CountDownLatch booking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(appointmentService.bookAppointment(any())).thenAnswer(invocation -> {
+            booking.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return booked(100L);
+        });
+
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            Future<AppointmentDomain> first = clients.submit(
+                    () -> service.bookAppointment("key-1", request("john@example.com")));
+            assertThat(booking.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<AppointmentDomain> duplicate = clients.submit(
+                    () -> service.bookAppointment("key-1", request("john@example.com")));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS).getId()).isEqualTo(100L);
+            assertThat(duplicate.get(5, TimeUnit.SECONDS).getId()).isEqualTo(100L);
+        } finally {
+            release.countDown();
+            clients.shutdownNow();
+        }
+        verify(appointmentService, times(1)).bookAppointment(any());
+    }
+
+    @Test
+    void bookAppointment_failedBooking_isNotRemembered() {
+        when(appointmentService.bookAppointment(any()))
+                .thenThrow(new NoAvailableRoomException(START, START.plusHours(1)))
+                .thenReturn(booked(100L));
+
+        assertThatThrownBy(() -> service.bookAppointment("key-1", request("john@example.com")))
+                .isInstanceOf(NoAvailableRoomException.class);
+        assertThat(service.bookAppointment("key-1", request("john@example.com")).getId()).isEqualTo(100L);
+        verify(appointmentService, times(2)).bookAppointment(any());
+    }
+
+    @Test
+    void bookAppointment_blankKey_isRejected() {
+        assertThatThrownBy(() -> service.bookAppointment(" ", request("john@example.com")))
+                .isInstanceOf(InvalidIdempotencyKeyException.class);
+        verify(appointmentService, never()).bookAppointment(any());
+    }
+
+    private void stubStoredAppointment(Long id) {
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        when(appointmentRepository.findAllWithDetailsByIdIn(anyCollection())).thenReturn(List.of(appointment));
+        when(appointmentService.convertToDomain(any())).thenReturn(booked(id));
+    }
+
+    private static IdempotencyRecord record(String key, String fingerprint, Long appointmentId) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(key);
+        record.setRequestFingerprint(fingerprint);
+        record.setAppointmentId(appointmentId);
+        record.setCreatedAt(LocalDateTime.now());
+        record.setExpiresAt(LocalDateTime.now().plusHours(1));
+        return record;
+    }
+
+    private static AppointmentDomain request(String email) {
+        PatientDomain patient = new PatientDomain();
+        patient.setEmail(email);
+        patient.setName("John Doe");
+
+        AppointmentDomain req = new AppointmentDomain();
+        req.setSpecialty("Cardiology");
+        req.setStartTime(START);
+        req.setEndTime(START.plusHours(1));
+        req.setPatient(patient);
+        return req;
+    }
+
+    private static AppointmentDomain booked(Long id) {
+        AppointmentDomain domain = new AppointmentDomain();
+        domain.setId(id);
+        return domain;
+    }
+}
@@ -0,0 +1,149 @@
+package com.uphill.healthcare_booking_system.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.uphill.healthcare_booking_system.domain.AppointmentDomain;
+import com.uphill.healthcare_booking_system.enums.OutboxStatus;
+import com.uphill.healthcare_booking_system.enums.SideEffect;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.OutboxMessageRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Appointment;
+import com.uphill.healthcare_booking_system.repository.entity.OutboxMessage;
+
+class OutboxDispatcherTest {
+
+    private final OutboxMessageRepository outboxMessageRepository = mock(OutboxMessageRepository.class);
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final AppointmentService appointmentService = mock(AppointmentService.class);
+
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new OutboxDispatcher(outboxMessageRepository, appointmentRepository, appointmentService,
+                mock(PlatformTransactionManager.class), 10, 3, 1000, 60000);
+
+        Appointment appointment = new Appointment();
+        appointment.setId(100L);
+        when(appointmentRepository.findAllWithDetailsByIdIn(anyCollection())).thenReturn(List.of(appointment));
+        when(appointmentService.convertToDomain(any())).thenAnswer(invocation -> {
+            AppointmentDomain domain = new AppointmentDomain();
+            domain.setId(invocation.<Appointment>getArgument(0).getId());
+            return domain;
+        });
+        when(appointmentService.deliverSideEffect(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void dispatchBatch_deliversEverySideEffectAndDeletesThem() {
+        when(outboxMessageRepository.lockDue(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of(
+                message(1L, SideEffect.DOCTOR_CALENDAR, 0),
+                message(2L, SideEffect.ROOM_RESERVATION, 0),
+                message(3L, SideEffect.CONFIRMATION_EMAIL, 0)));
+
+        int dispatched = dispatcher.dispatchBatch();
+
+        assertThat(dispatched).isEqualTo(3);
+        verify(appointmentService).deliverSideEffect(eq(SideEffect.DOCTOR_CALENDAR), any());
+        verify(appointmentService).deliverSideEffect(eq(SideEffect.ROOM_RESERVATION), any());
+        verify(appointmentService).deliverSideEffect(eq(SideEffect.CONFIRMATION_EMAIL), any());
+        verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        verify(outboxMessageRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void dispatchBatch_failedDelivery_isRescheduledWithBackoff() {
+        OutboxMessage email = message(1L, SideEffect.CONFIRMATION_EMAIL, 0);
+        when(outboxMessageRepository.lockDue(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of(email));
+        when(appointmentService.deliverSideEffect(eq(SideEffect.CONFIRMATION_EMAIL), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("smtp down")));
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatchBatch();
+
+        List<OutboxMessage> saved = captureSaved();
+        assertThat(saved).containsExactly(email);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(email.getLastError()).isEqualTo("smtp down");
+        assertThat(email.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(1));
+        verify(outboxMessageRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void dispatchBatch_lastAttemptFails_parksMessageAsDead() {
+        OutboxMessage calendar = message(1L, SideEffect.DOCTOR_CALENDAR, 2);
+        when(outboxMessageRepository.lockDue(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of(calendar));
+        when(appointmentService.deliverSideEffect(eq(SideEffect.DOCTOR_CALENDAR), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("calendar down")));
+
+        dispatcher.dispatchBatch();
+
+        assertThat(captureSaved()).containsExactly(calendar);
+        assertThat(calendar.getAttempts()).isEqualTo(3);
+        assertThat(calendar.getStatus()).isEqualTo(OutboxStatus.DEAD);
+    }
+
+    @Test
+    void dispatchBatch_waitsForThePartnerBeforeDeleting() {
+        OutboxMessage email = message(1L, SideEffect.CONFIRMATION_EMAIL, 0);
+        when(outboxMessageRepository.lockDue(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of(email));
+        // The partner call fails only after deliverSideEffect returned, like a buffered bulk send
+        when(appointmentService.deliverSideEffect(eq(SideEffect.CONFIRMATION_EMAIL), any()))
+                .thenReturn(CompletableFuture.runAsync(() -> {
+                    throw new IllegalStateException("bulk send failed");
+                }, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+
+        dispatcher.dispatchBatch();
+
+        assertThat(captureSaved()).containsExactly(email);
+        assertThat(email.getLastError()).isEqualTo("bulk send failed");
+        verify(outboxMessageRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void dispatchBatch_nothingDue_returnsZero() {
+        when(outboxMessageRepository.lockDue(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of());
+
+        assertThat(dispatcher.dispatchBatch()).isZero();
+        verify(appointmentRepository, never()).findAllWithDetailsByIdIn(anyCollection());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxMessage> captureSaved() {
+        ArgumentCaptor<Iterable<OutboxMessage>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(outboxMessageRepository).saveAll(captor.capture());
+        List<OutboxMessage> saved = new ArrayList<>();
+        captor.getValue().forEach(saved::add);
+        return saved;
+    }
+
+    private OutboxMessage message(Long id, SideEffect sideEffect, int attempts) {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(id);
+        message.setAppointmentId(100L);
+        message.setSideEffect(sideEffect);
+        message.setStatus(OutboxStatus.PENDING);
+        message.setAttempts(attempts);
+        message.setNextAttemptAt(LocalDateTime.now());
+        return message;
+    }
+}
@@ -1,22 +1,33 @@
 package com.uphill.healthcare_booking_system.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.uphill.healthcare_booking_system.repository.PatientRepository;
 import com.uphill.healthcare_booking_system.repository.entity.Patient;
+import com.uphill.healthcare_booking_system.service.cache.PatientCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 class PatientServiceTest {
@@ -42,41 +53,116 @@ class PatientServiceTest {
         Patient result = patientService.findOrCreatePatient(email, name);
 
         assertThat(result).isEqualTo(existing);
-        verify(patientRepository, never()).save(any());
+        verify(patientRepository, never()).insertIfAbsent(anyString(), anyString());
     }
 
     @Test
     void findOrCreatePatient_newPatient_savedSuccessfully() {
-        when(patientRepository.findByEmail(email)).thenReturn(null);
-
         Patient saved = new Patient();
         saved.setId(2L);
         saved.setEmail(email);
         saved.setName(name);
 
-        when(patientRepository.save(any())).thenReturn(saved);
+        when(patientRepository.insertIfAbsent(email, name)).thenReturn(saved);
 
         Patient result = patientService.findOrCreatePatient(email, name);
 
         assertThat(result.getEmail()).isEqualTo(email);
         assertThat(result.getName()).isEqualTo(name);
-        verify(patientRepository).save(any());
+        verify(patientRepository).findByEmail(email);
+        verify(patientRepository).insertIfAbsent(email, name);
     }
 
     @Test
-    void findOrCreatePatient_saveFails_dueToRace_findAgain() {
+    void findOrCreatePatient_insertedConcurrently_readsItBack() {
         when(patientRepository.findByEmail(email))
-                .thenReturn(null) // first call, not found
-                .thenReturn(new Patient() {{ setId(3L); setEmail(email); setName(name); }}); // second call
+                .thenReturn(null)
+                .thenReturn(new Patient() {{ setId(9L); setEmail(email); setName(name); }});
+        when(patientRepository.insertIfAbsent(email, name)).thenReturn(null);
+
+        Patient result = patientService.findOrCreatePatient(email, name);
+
+        assertThat(result.getId()).isEqualTo(9L);
+        verify(patientRepository, times(2)).findByEmail(email);
+    }
 
-        doThrow(DataIntegrityViolationException.class).when(patientRepository).save(any());
+    @Test
+    void findOrCreatePatient_saveFails_dueToRace_findAgain() {
+        when(patientRepository.findByEmail(email))
+                .thenReturn(null)
+                .thenReturn(new Patient() {{ setId(3L); setEmail(email); setName(name); }});
+        when(patientRepository.insertIfAbsent(email, name)).thenThrow(DataIntegrityViolationException.class);
 
         Patient result = patientService.findOrCreatePatient(email, name);
 
         assertThat(result).isNotNull();
         assertThat(result.getEmail()).isEqualTo(email);
-        verify(patientRepository).save(any());
+        verify(patientRepository).insertIfAbsent(email, name);
         verify(patientRepository, times(2)).findByEmail(email);
     }
-}
 
+    @Test
+    void findOrCreatePatient_cachedPatient_skipsDatabase() {
+        PatientCache cache = new PatientCache(new SimpleMeterRegistry(), 10);
+        ReflectionTestUtils.setField(patientService, "patientCache", cache);
+        cache.put(new Patient() {{ setId(4L); setEmail(email); setName(name); }});
+
+        Patient result = patientService.findOrCreatePatient(email, name);
+
+        assertThat(result.getId()).isEqualTo(4L);
+        assertThat(cache.hitRate()).isEqualTo(1.0);
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void findOrCreatePatient_miss_insertsOnceThenServesFromCache() {
+        PatientCache cache = new PatientCache(new SimpleMeterRegistry(), 10);
+        ReflectionTestUtils.setField(patientService, "patientCache", cache);
+        when(patientRepository.insertIfAbsent(email, name)).thenReturn(new Patient() {{ setId(5L); setEmail(email); setName(name); }});
+
+        patientService.findOrCreatePatient(email, name);
+        Patient second = patientService.findOrCreatePatient(email, name);
+
+        assertThat(second.getId()).isEqualTo(5L);
+        assertThat(cache.hitRate()).isEqualTo(0.5);
+        verify(patientRepository).insertIfAbsent(email, name);
+    }
+
+    @Test
+    void findOrCreatePatients_readsMissesOnceAndInsertsNewOnesInBulk() {
+        PatientCache cache = new PatientCache(new SimpleMeterRegistry(), 10);
+        ReflectionTestUtils.setField(patientService, "patientCache", cache);
+        cache.put(new Patient() {{ setId(4L); setEmail(email); setName(name); }});
+        when(patientRepository.findByEmailIn(Set.of("jane@example.com", "new@example.com")))
+                .thenReturn(List.of(new Patient() {{ setId(6L); setEmail("jane@example.com"); setName("Jane"); }}));
+        when(patientRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Patient> created = invocation.getArgument(0);
+            created.forEach(patient -> patient.setId(7L));
+            return created;
+        });
+
+        Map<String, String> namesByEmail = new LinkedHashMap<>();
+        namesByEmail.put(email, name);
+        namesByEmail.put("jane@example.com", "Jane");
+        namesByEmail.put("new@example.com", "New");
+        Map<String, Patient> patients = patientService.findOrCreatePatients(namesByEmail);
+
+        assertThat(patients.get(email).getId()).isEqualTo(4L);
+        assertThat(patients.get("jane@example.com").getId()).isEqualTo(6L);
+        assertThat(patients.get("new@example.com").getId()).isEqualTo(7L);
+        verify(patientRepository).saveAll(argThat(created -> created.size() == 1));
+        verify(patientRepository, never()).insertIfAbsent(anyString(), anyString());
+        assertThat(cache.get("new@example.com").getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void findOrCreatePatients_concurrentInsert_fallsBackToSinglePath() {
+        when(patientRepository.findByEmailIn(Set.of(email))).thenReturn(List.of());
+        when(patientRepository.saveAll(anyList())).thenThrow(DataIntegrityViolationException.class);
+        when(patientRepository.insertIfAbsent(email, name)).thenReturn(new Patient() {{ setId(8L); setEmail(email); setName(name); }});
+
+        Map<String, Patient> patients = patientService.findOrCreatePatients(Map.of(email, name));
+
+        assertThat(patients.get(email).getId()).isEqualTo(8L);
+    }
+}
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -15,13 +16,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableRoomException;
+import com.uphill.healthcare_booking_system.enums.AllocationLockMode;
+import com.uphill.healthcare_booking_system.enums.SelectionPolicy;
+import com.uphill.healthcare_booking_system.monitoring.BookingMetrics;
 import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
 import com.uphill.healthcare_booking_system.repository.RoomRepository;
 import com.uphill.healthcare_booking_system.repository.entity.Room;
+import com.uphill.healthcare_booking_system.service.allocation.CandidateSpreader;
+import com.uphill.healthcare_booking_system.service.allocation.SkipLockedSupport;
+import com.uphill.healthcare_booking_system.service.availability.RoomSlotCalendar;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 class RoomServiceTest {
@@ -29,12 +40,24 @@ class RoomServiceTest {
     @InjectMocks
     private RoomService roomService;
 
+    @Spy
+    private BookingMetrics bookingMetrics = new BookingMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private CandidateSpreader candidateSpreader = new CandidateSpreader(SelectionPolicy.FIRST, 8);
+
     @Mock
     private RoomRepository roomRepository;
 
     @Mock
     private AppointmentRepository appointmentRepository;
 
+    @Mock
+    private RoomSlotCalendar roomSlotCalendar;
+
+    @Mock
+    private SkipLockedSupport skipLockedSupport;
+
     private final LocalDateTime start = LocalDateTime.now().plusHours(1);
     private final LocalDateTime end = LocalDateTime.now().plusHours(2);
 
@@ -83,4 +106,95 @@ class RoomServiceTest {
         assertThatThrownBy(() -> roomService.findAndLockAvailableRoom(start, end))
                 .isInstanceOf(NoAvailableRoomException.class);
     }
+
+    @Test
+    void findAndLockAvailableRoom_calendarReady_skipsAvailabilityQuery() {
+        Room locked = new Room();
+        locked.setId(20L);
+
+        when(roomSlotCalendar.isReady()).thenReturn(true);
+        when(roomSlotCalendar.findFreeRooms(start, end, 1)).thenReturn(List.of(20L));
+        when(roomRepository.lockById(20L)).thenReturn(locked);
+        when(appointmentRepository.existsOverlapForRoom(20L, start, end)).thenReturn(false);
+
+        Room result = roomService.findAndLockAvailableRoom(start, end);
+
+        assertThat(result).isEqualTo(locked);
+        verify(roomRepository, never()).findFirstAvailableByWindow(any(), any(), any());
+    }
+
+    @Test
+    void findAndLockAvailableRoom_calendarFull_fallsBackToQuery() {
+        Room candidate = new Room();
+        candidate.setId(10L);
+
+        when(roomSlotCalendar.isReady()).thenReturn(true);
+        when(roomSlotCalendar.findFreeRooms(start, end, 1)).thenReturn(List.of());
+        when(roomRepository.findFirstAvailableByWindow(eq(start), eq(end), any(PageRequest.class)))
+                .thenReturn(List.of(candidate));
+        when(roomRepository.lockById(10L)).thenReturn(candidate);
+        when(appointmentRepository.existsOverlapForRoom(10L, start, end)).thenReturn(false);
+
+        Room result = roomService.findAndLockAvailableRoom(start, end);
+
+        assertThat(result).isEqualTo(candidate);
+    }
+
+    @Test
+    void findAndLockAvailableRoom_optimistic_claimsFirstCandidateWithoutRowLock() {
+        useOptimisticMode();
+        Room first = room(10L, 1L);
+        Room second = room(11L, 4L);
+
+        when(roomRepository.findFirstAvailableByWindow(eq(start), eq(end), any(PageRequest.class)))
+                .thenReturn(List.of(first, second));
+        when(roomRepository.claimById(10L)).thenReturn(first);
+
+        Room result = roomService.findAndLockAvailableRoom(start, end);
+
+        assertThat(result).isEqualTo(first);
+        verify(roomRepository, never()).lockById(any());
+    }
+
+    @Test
+    void findAndLockAvailableRoom_optimistic_noCandidates_throwsException() {
+        useOptimisticMode();
+        when(roomRepository.findFirstAvailableByWindow(eq(start), eq(end), any(PageRequest.class)))
+                .thenReturn(List.of());
+
+        assertThatThrownBy(() -> roomService.findAndLockAvailableRoom(start, end))
+                .isInstanceOf(NoAvailableRoomException.class);
+        verify(roomRepository, never()).claimById(any());
+    }
+
+    @Test
+    void findAndLockAvailableRoom_skipLocked_heldRowMovesToNextCandidate() {
+        ReflectionTestUtils.setField(roomService, "lockMode", AllocationLockMode.SKIP_LOCKED);
+        Room held = room(10L, 0L);
+        Room free = room(11L, 0L);
+
+        when(roomRepository.findFirstAvailableByWindow(eq(start), eq(end), any(PageRequest.class)))
+                .thenReturn(List.of(held, free));
+        when(skipLockedSupport.isSupported()).thenReturn(true);
+        when(roomRepository.lockByIdSkipLocked(10L)).thenReturn(null);
+        when(roomRepository.lockByIdSkipLocked(11L)).thenReturn(free);
+        when(appointmentRepository.existsOverlapForRoom(11L, start, end)).thenReturn(false);
+
+        Room result = roomService.findAndLockAvailableRoom(start, end);
+
+        assertThat(result).isEqualTo(free);
+        verify(bookingMetrics).recordFallback("room", "skipped_locked");
+        verify(roomRepository, never()).lockById(any());
+    }
+
+    private void useOptimisticMode() {
+        ReflectionTestUtils.setField(roomService, "lockMode", AllocationLockMode.OPTIMISTIC);
+    }
+
+    private Room room(Long id, Long version) {
+        Room room = new Room();
+        room.setId(id);
+        room.setVersion(version);
+        return room;
+    }
 }
@@ -0,0 +1,59 @@
+package com.uphill.healthcare_booking_system.service.allocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.uphill.healthcare_booking_system.enums.SelectionPolicy;
+
+class CandidateSpreaderTest {
+
+    private final List<Long> free = List.of(1L, 2L, 3L, 4L);
+
+    @Test
+    void first_keepsIdOrderAndReadsOneCandidate() {
+        CandidateSpreader spreader = new CandidateSpreader(SelectionPolicy.FIRST, 8);
+
+        assertThat(spreader.getCandidates()).isEqualTo(1);
+        assertThat(spreader.arrange(free, id -> id, "a@b.c", ids -> Map.of())).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void random_spreadsStartingCandidateAndKeepsEveryone() {
+        CandidateSpreader spreader = new CandidateSpreader(SelectionPolicy.RANDOM, 8);
+        Set<Long> firstPicks = new HashSet<>();
+
+        for (int i = 0; i < 200; i++) {
+            List<Long> arranged = spreader.arrange(free, id -> id, null, ids -> Map.of());
+            assertThat(arranged).containsExactlyInAnyOrderElementsOf(free);
+            firstPicks.add(arranged.get(0));
+        }
+
+        assertThat(firstPicks).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void patientHash_isStablePerPatient() {
+        CandidateSpreader spreader = new CandidateSpreader(SelectionPolicy.PATIENT_HASH, 8);
+
+        List<Long> first = spreader.arrange(free, id -> id, "john.doe@example.com", ids -> Map.of());
+        List<Long> again = spreader.arrange(free, id -> id, "john.doe@example.com", ids -> Map.of());
+
+        assertThat(again).isEqualTo(first);
+        assertThat(first.get(0)).isEqualTo(free.get(Math.floorMod("john.doe@example.com".hashCode(), free.size())));
+    }
+
+    @Test
+    void leastLoaded_ordersByBookedMinutes() {
+        CandidateSpreader spreader = new CandidateSpreader(SelectionPolicy.LEAST_LOADED, 8);
+
+        List<Long> arranged = spreader.arrange(free, id -> id, null, ids -> Map.of(1L, 120L, 2L, 30L, 3L, 60L, 4L, 90L));
+
+        assertThat(arranged).containsExactly(2L, 3L, 4L, 1L);
+    }
+}
@@ -0,0 +1,50 @@
+package com.uphill.healthcare_booking_system.service.allocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.uphill.healthcare_booking_system.monitoring.BookingMetrics;
+import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.entity.Room;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ClaimBackoffTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ClaimBackoff claimBackoff = new ClaimBackoff(new BookingMetrics(registry), 3, 0, 0);
+
+    @Test
+    void retryOnConflict_runsTheBookingAgainAndRecordsTheLostAttemptAsLockWait() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String booked = claimBackoff.retryOnConflict(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException(Doctor.class, 1L);
+            }
+            return "booked";
+        });
+
+        assertThat(booked).isEqualTo("booked");
+        assertThat(attempts).hasValue(2);
+        assertThat(registry.get("booking.lock.wait").tag("resource", "doctor").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void retryOnConflict_attemptsUsedUp_rethrowsTheLastConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> claimBackoff.retryOnConflict(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Room.class, 10L);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(registry.get("booking.lock.wait").tag("resource", "room").timer().count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,148 @@
+package com.uphill.healthcare_booking_system.service.allocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableDoctorException;
+import com.uphill.healthcare_booking_system.domain.exceptions.NoAvailableRoomException;
+import com.uphill.healthcare_booking_system.repository.AppointmentPartitions;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.AppointmentViewRepository;
+import com.uphill.healthcare_booking_system.repository.DoctorRepository;
+import com.uphill.healthcare_booking_system.repository.PatientRepository;
+import com.uphill.healthcare_booking_system.repository.RoomRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Appointment;
+import com.uphill.healthcare_booking_system.repository.entity.AppointmentView;
+import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.entity.Patient;
+import com.uphill.healthcare_booking_system.repository.entity.Room;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = {
+        "booking.allocation.lock-mode=joint-statement",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import(JointAllocator.class)
+class JointAllocatorTest {
+
+    @Autowired
+    private JointAllocator jointAllocator;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentViewRepository appointmentViewRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+    private final LocalDateTime end = start.plusMinutes(30);
+    private Patient patient;
+    private Doctor busyDoctor;
+    private Doctor freeDoctor;
+    private Room room;
+
+    @BeforeEach
+    void seed() {
+        em.createQuery("DELETE FROM AppointmentView").executeUpdate();
+        em.createQuery("DELETE FROM Appointment").executeUpdate();
+        em.createQuery("DELETE FROM Doctor").executeUpdate();
+        em.createQuery("DELETE FROM Room").executeUpdate();
+        em.createQuery("DELETE FROM Patient").executeUpdate();
+
+        busyDoctor = doctorRepository.save(doctor("Dr. Busy"));
+        freeDoctor = doctorRepository.save(doctor("Dr. Free"));
+        room = new Room();
+        room.setName("Room A");
+        room.setLocation("First Floor");
+        roomRepository.save(room);
+        patient = new Patient();
+        patient.setName("John Doe");
+        patient.setEmail("john.doe@example.com");
+        patientRepository.save(patient);
+
+        // Dr. Busy already has an appointment overlapping the window, in another room
+        Room otherRoom = new Room();
+        otherRoom.setName("Room B");
+        otherRoom.setLocation("Second Floor");
+        roomRepository.save(otherRoom);
+        Appointment existing = new Appointment();
+        existing.setDoctor(busyDoctor);
+        existing.setRoom(otherRoom);
+        existing.setPatient(patient);
+        existing.setStartTime(start.minusMinutes(15));
+        existing.setEndTime(start.plusMinutes(15));
+        appointmentRepository.save(existing);
+        em.flush();
+    }
+
+    @Test
+    void book_claimsFreeDoctorAndRoomInOneRoundTrip() {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Appointment booked = jointAllocator.book("Cardiology", start, end, patient);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(booked.getId()).isNotNull();
+        assertThat(booked.getDoctor().getId()).isEqualTo(freeDoctor.getId());
+        assertThat(booked.getDoctor().getName()).isEqualTo("Dr. Free");
+        assertThat(booked.getRoom().getId()).isEqualTo(room.getId());
+        assertThat(booked.getRoom().getLocation()).isEqualTo("First Floor");
+
+        em.clear();
+        Appointment stored = appointmentRepository.findById(booked.getId()).orElseThrow();
+        assertThat(stored.getPartitionKey()).isEqualTo(AppointmentPartitions.keyOf(start));
+        assertThat(stored.getPatient().getId()).isEqualTo(patient.getId());
+        AppointmentView view = appointmentViewRepository.findById(booked.getId()).orElseThrow();
+        assertThat(view.getDoctorName()).isEqualTo("Dr. Free");
+        assertThat(view.getRoomName()).isEqualTo("Room A");
+        assertThat(view.getPatientEmail()).isEqualTo("john.doe@example.com");
+    }
+
+    @Test
+    void book_noFreeDoctor_throws() {
+        jointAllocator.book("Cardiology", start, end, patient);
+
+        assertThatThrownBy(() -> jointAllocator.book("Cardiology", start, end, patient))
+                .isInstanceOf(NoAvailableDoctorException.class);
+    }
+
+    @Test
+    void book_noFreeRoom_throws() {
+        doctorRepository.save(doctor("Dr. Spare"));
+        jointAllocator.book("Cardiology", start.plusHours(1), end.plusHours(1), patient);
+        jointAllocator.book("Cardiology", start.plusHours(1), end.plusHours(1), patient);
+
+        assertThatThrownBy(() -> jointAllocator.book("Cardiology", start.plusHours(1), end.plusHours(1), patient))
+                .isInstanceOf(NoAvailableRoomException.class);
+    }
+
+    private static Doctor doctor(String name) {
+        Doctor doctor = new Doctor();
+        doctor.setName(name);
+        doctor.setSpecialty("Cardiology");
+        return doctor;
+    }
+}
@@ -0,0 +1,153 @@
+package com.uphill.healthcare_booking_system.service.allocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+
+import com.uphill.healthcare_booking_system.domain.FreeSlot;
+import com.uphill.healthcare_booking_system.enums.ResourceType;
+import com.uphill.healthcare_booking_system.monitoring.BookingMetrics;
+import com.uphill.healthcare_booking_system.service.availability.FreeSlotIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ResourceLockManagerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 9, 0);
+    private static final LocalDateTime END = START.plusHours(1);
+    private static final LocalDate DAY = START.toLocalDate();
+
+    private final FreeSlotIndex freeSlotIndex = mock(FreeSlotIndex.class);
+    private final ExecutorService bookings = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        bookings.shutdownNow();
+    }
+
+    @Test
+    void callForBooking_samePredictedDoctor_queuesBehindTheFirstBooking() throws Exception {
+        ResourceLockManager manager = manager(true, 5000);
+        when(freeSlotIndex.isReady()).thenReturn(true);
+        when(freeSlotIndex.findFirstFree(anyString(), any(), any()))
+                .thenReturn(Optional.of(new FreeSlot(START, END, 1L, 10L)));
+
+        CountDownLatch firstInside = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+
+        Future<?> first = bookings.submit(() -> manager.callForBooking("Cardiology", START, END, () -> {
+            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+            firstInside.countDown();
+            await(releaseFirst);
+            return inside.decrementAndGet();
+        }));
+        assertThat(firstInside.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<?> second = bookings.submit(() -> manager.callForBooking("Cardiology", START, END, () -> {
+            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+            return inside.decrementAndGet();
+        }));
+
+        Thread.sleep(100);
+        assertThat(second.isDone()).isFalse();
+        releaseFirst.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertThat(maxInside.get()).isEqualTo(1);
+    }
+
+    @Test
+    void callWithLocks_differentResources_runConcurrently() throws Exception {
+        ResourceLockManager manager = manager(true, 5000);
+        CountDownLatch bothInside = new CountDownLatch(2);
+
+        Future<Boolean> first = bookings.submit(() -> manager.callWithLocks(
+                () -> List.of(new ResourceKey(ResourceType.DOCTOR, 1L, DAY)), () -> arriveAndAwait(bothInside)));
+        Future<Boolean> second = bookings.submit(() -> manager.callWithLocks(
+                () -> List.of(new ResourceKey(ResourceType.DOCTOR, 2L, DAY)), () -> arriveAndAwait(bothInside)));
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void callWithLocks_predictionMovedWhileQueueing_retakesTheNewLocks() {
+        ResourceLockManager manager = manager(true, 5000);
+        List<ResourceKey> doctorOne = List.of(new ResourceKey(ResourceType.DOCTOR, 1L, DAY));
+        List<ResourceKey> doctorTwo = List.of(new ResourceKey(ResourceType.DOCTOR, 2L, DAY));
+        AtomicInteger predictions = new AtomicInteger();
+
+        String result = manager.callWithLocks(
+                () -> predictions.getAndIncrement() == 0 ? doctorOne : doctorTwo, () -> "booked");
+
+        assertThat(result).isEqualTo("booked");
+        assertThat(predictions.get()).isEqualTo(3);
+    }
+
+    @Test
+    void callWithLocks_waitTooLong_failsWithLockException() throws Exception {
+        ResourceLockManager manager = manager(true, 50);
+        List<ResourceKey> keys = List.of(new ResourceKey(ResourceType.ROOM, 10L, DAY));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> holder = bookings.submit(() -> manager.callWithLocks(() -> keys, () -> {
+            holding.countDown();
+            return await(release);
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> manager.callWithLocks(() -> keys, () -> "booked"))
+                .isInstanceOf(CannotAcquireLockException.class);
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void callForBooking_disabled_runsWithoutPredicting() {
+        ResourceLockManager manager = manager(false, 5000);
+
+        assertThat(manager.callForBooking("Cardiology", START, END, () -> "booked")).isEqualTo("booked");
+        verify(freeSlotIndex, never()).findFirstFree(anyString(), any(), any());
+    }
+
+    private ResourceLockManager manager(boolean enabled, long waitMillis) {
+        return new ResourceLockManager(freeSlotIndex, new BookingMetrics(new SimpleMeterRegistry()), enabled, 1024,
+                waitMillis);
+    }
+
+    private static boolean arriveAndAwait(CountDownLatch latch) {
+        latch.countDown();
+        return await(latch);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.uphill.healthcare_booking_system.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.uphill.healthcare_booking_system.domain.events.AppointmentBookedEvent;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.DoctorRepository;
+import com.uphill.healthcare_booking_system.repository.RoomRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.projection.BookedWindow;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorAvailabilityIndexTest {
+
+    @InjectMocks
+    private DoctorAvailabilityIndex index;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+    private final LocalDateTime end = start.plusHours(1);
+
+    @BeforeEach
+    void setUp() {
+        when(doctorRepository.findAll()).thenReturn(List.of(
+                doctor(2L, "Cardiology"), doctor(1L, "Cardiology"), doctor(3L, "Neurology")));
+        when(appointmentRepository.streamBookedWindowsEndingAfter(any())).thenReturn(Stream.of(window(1L, start, end)));
+        index.load();
+    }
+
+    @Test
+    void load_marksIndexReadyAndSkipsBookedDoctors() {
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.findFreeDoctor("Cardiology", start, end)).contains(2L);
+        assertThat(index.findFreeDoctor("Cardiology", end, end.plusHours(1))).contains(1L);
+        assertThat(index.findFreeDoctor("Pediatrics", start, end)).isEmpty();
+    }
+
+    @Test
+    void onAppointmentBooked_updatesDoctorSchedule() {
+        index.onAppointmentBooked(new AppointmentBookedEvent(10L, 2L, 5L, start, end));
+
+        assertThat(index.findFreeDoctor("Cardiology", start, end)).isEmpty();
+        assertThat(index.findFreeDoctor("Neurology", start, end)).contains(3L);
+    }
+
+    @Test
+    void refreshRoster_indexesDoctorsAddedAfterLoad() {
+        when(doctorRepository.findAll()).thenReturn(List.of(
+                doctor(2L, "Cardiology"), doctor(1L, "Cardiology"), doctor(3L, "Neurology"), doctor(4L, "Pediatrics")));
+
+        index.refreshRoster();
+
+        assertThat(index.findFreeDoctor("Pediatrics", start, end)).contains(4L);
+        assertThat(index.findFreeDoctor("Cardiology", start, end)).contains(2L);
+    }
+
+    private Doctor doctor(Long id, String specialty) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setSpecialty(specialty);
+        return doctor;
+    }
+
+    private BookedWindow window(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        return new BookedWindow() {
+            public Long getDoctorId() { return doctorId; }
+            public Long getRoomId() { return 1L; }
+            public LocalDateTime getStartTime() { return start; }
+            public LocalDateTime getEndTime() { return end; }
+        };
+    }
+}
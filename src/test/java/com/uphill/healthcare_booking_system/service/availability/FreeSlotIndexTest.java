@@ -0,0 +1,97 @@
+package com.uphill.healthcare_booking_system.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.uphill.healthcare_booking_system.domain.FreeSlot;
+import com.uphill.healthcare_booking_system.domain.events.AppointmentBookedEvent;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.DoctorRepository;
+import com.uphill.healthcare_booking_system.repository.RoomRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Doctor;
+import com.uphill.healthcare_booking_system.repository.entity.Room;
+import com.uphill.healthcare_booking_system.repository.projection.BookedWindow;
+
+class FreeSlotIndexTest {
+
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final DoctorAvailabilityIndex schedule =
+            new DoctorAvailabilityIndex(doctorRepository, roomRepository, appointmentRepository);
+    private final FreeSlotIndex index = new FreeSlotIndex(schedule, 30);
+
+    private final LocalDateTime day = LocalDateTime.now().plusDays(1).toLocalDate().atStartOfDay();
+    private final Duration hour = Duration.ofHours(1);
+
+    @BeforeEach
+    void setUp() {
+        when(doctorRepository.findAll()).thenReturn(List.of(doctor(1L, "Cardiology"), doctor(2L, "Neurology")));
+        when(roomRepository.findAll()).thenReturn(List.of(room(10L), room(11L)));
+        // Doctor 1 is busy 09:00-10:00, room 10 is busy 09:00-11:00
+        when(appointmentRepository.streamBookedWindowsEndingAfter(any())).thenReturn(Stream.of(
+                window(1L, 10L, day.plusHours(9), day.plusHours(10)),
+                window(2L, 10L, day.plusHours(10), day.plusHours(11))));
+        schedule.load();
+    }
+
+    @Test
+    void findFreeSlots_skipsWindowsWithoutBothADoctorAndARoom() {
+        List<FreeSlot> slots = index.findFreeSlots("Cardiology", day.plusHours(8), day.plusHours(11), hour, 10);
+
+        assertThat(slots).extracting(FreeSlot::getStartTime)
+                .containsExactly(day.plusHours(8), day.plusHours(10));
+        assertThat(slots.get(1).getDoctorId()).isEqualTo(1L);
+        assertThat(slots.get(1).getRoomId()).isEqualTo(11L);
+    }
+
+    @Test
+    void findFreeSlots_startsOnTheGridAndStopsAtTheLimit() {
+        List<FreeSlot> slots = index.findFreeSlots("Neurology", day.plusMinutes(12 * 60 + 5), day.plusHours(18), hour, 2);
+
+        assertThat(slots).extracting(FreeSlot::getStartTime)
+                .containsExactly(day.plusMinutes(12 * 60 + 30), day.plusHours(13));
+    }
+
+    @Test
+    void onAppointmentBooked_removesTheWindow() {
+        schedule.onAppointmentBooked(new AppointmentBookedEvent(5L, 1L, 11L, day.plusHours(10), day.plusHours(11)));
+
+        assertThat(index.findFreeSlots("Cardiology", day.plusHours(8), day.plusHours(11), hour, 10))
+                .extracting(FreeSlot::getStartTime)
+                .containsExactly(day.plusHours(8));
+        assertThat(index.findFreeSlots("Pediatrics", day, day.plusHours(1), hour, 10)).isEmpty();
+    }
+
+    private Doctor doctor(Long id, String specialty) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setSpecialty(specialty);
+        return doctor;
+    }
+
+    private Room room(Long id) {
+        Room room = new Room();
+        room.setId(id);
+        return room;
+    }
+
+    private BookedWindow window(Long doctorId, Long roomId, LocalDateTime start, LocalDateTime end) {
+        return new BookedWindow() {
+            public Long getDoctorId() { return doctorId; }
+            public Long getRoomId() { return roomId; }
+            public LocalDateTime getStartTime() { return start; }
+            public LocalDateTime getEndTime() { return end; }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.uphill.healthcare_booking_system.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IntervalSetTest {
+
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    @Test
+    @DisplayName("overlaps should only match windows intersecting a booked interval")
+    void overlaps() {
+        IntervalSet set = new IntervalSet();
+        set.add(base.plusHours(1), base.plusHours(2));
+
+        assertThat(set.overlaps(base, base.plusHours(1))).isFalse();
+        assertThat(set.overlaps(base.plusMinutes(30), base.plusMinutes(90))).isTrue();
+        assertThat(set.overlaps(base.plusMinutes(70), base.plusMinutes(80))).isTrue();
+        assertThat(set.overlaps(base.plusHours(2), base.plusHours(3))).isFalse();
+    }
+
+    @Test
+    @DisplayName("add should merge touching intervals into one")
+    void add_mergesIntervals() {
+        IntervalSet set = new IntervalSet();
+        set.add(base, base.plusHours(1));
+        set.add(base.plusHours(2), base.plusHours(3));
+        set.add(base.plusMinutes(30), base.plusHours(2));
+
+        assertThat(set.size()).isEqualTo(1);
+        assertThat(set.overlaps(base.plusMinutes(150), base.plusMinutes(170))).isTrue();
+        assertThat(set.overlaps(base.plusHours(3), base.plusHours(4))).isFalse();
+    }
+
+    @Test
+    @DisplayName("removeEndingBefore should drop only finished intervals")
+    void removeEndingBefore() {
+        IntervalSet set = new IntervalSet();
+        set.add(base, base.plusHours(1));
+        set.add(base.plusHours(2), base.plusHours(3));
+
+        set.removeEndingBefore(base.plusHours(1));
+
+        assertThat(set.size()).isEqualTo(1);
+        assertThat(set.overlaps(base, base.plusHours(1))).isFalse();
+    }
+}
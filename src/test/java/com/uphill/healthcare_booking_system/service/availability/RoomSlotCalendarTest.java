@@ -0,0 +1,98 @@
+package com.uphill.healthcare_booking_system.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.uphill.healthcare_booking_system.domain.events.AppointmentBookedEvent;
+import com.uphill.healthcare_booking_system.repository.AppointmentRepository;
+import com.uphill.healthcare_booking_system.repository.RoomRepository;
+import com.uphill.healthcare_booking_system.repository.entity.Room;
+
+class RoomSlotCalendarTest {
+
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final LocalDateTime day = LocalDateTime.now().plusDays(2).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+    private RoomSlotCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        when(roomRepository.findAll()).thenReturn(List.of(room(2L), room(1L)));
+        when(appointmentRepository.streamBookedWindowsEndingAfter(any())).thenReturn(Stream.empty());
+        calendar = new RoomSlotCalendar(roomRepository, appointmentRepository, 15);
+        calendar.load();
+    }
+
+    @Test
+    void findFreeRoom_returnsLowestIdWhenCalendarIsEmpty() {
+        assertThat(calendar.isReady()).isTrue();
+        assertThat(calendar.findFreeRoom(day.plusHours(9), day.plusHours(10))).contains(1L);
+    }
+
+    @Test
+    void onAppointmentBooked_marksSlotsAcrossWordBoundaries() {
+        // 15:45 to 17:15 spans slots 63 to 68, crossing the first 64-bit word
+        book(1L, day.plusMinutes(945), day.plusMinutes(1035));
+
+        assertThat(calendar.fits(1L, day.plusHours(15), day.plusMinutes(945))).isTrue();
+        assertThat(calendar.fits(1L, day.plusHours(16), day.plusMinutes(975))).isFalse();
+        assertThat(calendar.fits(1L, day.plusMinutes(1035), day.plusHours(18))).isTrue();
+        assertThat(calendar.findFreeRoom(day.plusHours(16), day.plusHours(17))).contains(2L);
+    }
+
+    @Test
+    void onAppointmentBooked_unalignedBookingBlocksWholeSlot() {
+        book(1L, day.plusMinutes(600), day.plusMinutes(605));
+
+        assertThat(calendar.fits(1L, day.plusMinutes(605), day.plusMinutes(615))).isFalse();
+        assertThat(calendar.fits(1L, day.plusMinutes(615), day.plusMinutes(630))).isTrue();
+    }
+
+    @Test
+    void onAppointmentBooked_windowSpanningMidnightBlocksBothDays() {
+        book(2L, day.plusHours(23), day.plusHours(25));
+
+        assertThat(calendar.fits(2L, day.plusMinutes(1410), day.plusMinutes(1425))).isFalse();
+        assertThat(calendar.fits(2L, day.plusMinutes(1470), day.plusMinutes(1490))).isFalse();
+        assertThat(calendar.fits(2L, day.plusHours(25), day.plusHours(26))).isTrue();
+    }
+
+    @Test
+    void constructor_rejectsSlotsNotDividingADay() {
+        assertThatThrownBy(() -> new RoomSlotCalendar(roomRepository, appointmentRepository, 7))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void refreshRooms_offersRoomsAddedAfterLoad() {
+        book(1L, day.plusHours(9), day.plusHours(10));
+        book(2L, day.plusHours(9), day.plusHours(10));
+        assertThat(calendar.findFreeRoom(day.plusHours(9), day.plusHours(10))).isEmpty();
+
+        when(roomRepository.findAll()).thenReturn(List.of(room(2L), room(1L), room(3L)));
+        calendar.refreshRooms();
+
+        assertThat(calendar.findFreeRoom(day.plusHours(9), day.plusHours(10))).contains(3L);
+    }
+
+    private void book(Long roomId, LocalDateTime start, LocalDateTime end) {
+        calendar.onAppointmentBooked(new AppointmentBookedEvent(1L, 1L, roomId, start, end));
+    }
+
+    private Room room(Long id) {
+        Room room = new Room();
+        room.setId(id);
+        return room;
+    }
+}
@@ -0,0 +1,45 @@
+package com.uphill.healthcare_booking_system.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LruCacheTest {
+
+    @Test
+    void put_overCapacity_evictsLeastRecentlyUsed() {
+        LruCache<String, Long> cache = new LruCache<>(2);
+        cache.put("a", 1L);
+        cache.put("b", 2L);
+        cache.get("a");
+        cache.put("c", 3L);
+
+        assertThat(cache.get("a")).isEqualTo(1L);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo(3L);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(3);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.hitRate()).isEqualTo(0.75);
+    }
+
+    @Test
+    void metrics_exposeStandardCacheMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LruCache<String, Long> cache = new LruCache<>(1);
+        new LruCacheMetrics(cache, "test").bindTo(registry);
+        cache.put("a", 1L);
+        cache.get("a");
+        cache.get("b");
+        cache.put("b", 2L);
+
+        assertThat(registry.get("cache.gets").tag("cache", "test").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "test").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.evictions").tag("cache", "test").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.size").tag("cache", "test").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("cache.hit.ratio").tag("cache", "test").gauge().value()).isEqualTo(0.5);
+    }
+}